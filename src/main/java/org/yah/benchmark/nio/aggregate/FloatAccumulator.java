@@ -0,0 +1,150 @@
+package org.yah.benchmark.nio.aggregate;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+
+/**
+ * Accumulate count, sum, min, max, mean, M2 (sum of squared differences from the mean) and histogram of floats, using
+ * Vector API kernels over a {@link MemorySegment}.<br/>
+ * Floats are reduced by sub blocks in float lanes, each sub block shifted by its first value to limit the precision
+ * loss of the squares sum. Sub blocks (and accumulators) are then combined in double with the parallel algorithm of
+ * Chan et al.
+ */
+final class FloatAccumulator {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INT_SPECIES = VectorSpecies.of(int.class, SPECIES.vectorShape());
+    private static final ValueLayout.OfFloat FLOAT_LAYOUT = ValueLayout.JAVA_FLOAT_UNALIGNED; // native order
+    private static final ByteOrder ORDER = ByteOrder.nativeOrder();
+
+    /**
+     * number of floats reduced in float lanes before combining in double
+     */
+    private static final int SUB_BLOCK_SIZE = 4096;
+
+    private final float histogramMin;
+    private final float histogramMax;
+    private final float histogramScale;
+    private final long[] histogram;
+    private final int[] laneBins = new int[INT_SPECIES.length()];
+
+    private long count;
+    private double sum;
+    private float min = Float.POSITIVE_INFINITY;
+    private float max = Float.NEGATIVE_INFINITY;
+    private double mean;
+    private double m2;
+
+    /**
+     * @param histogramMin min value of first bin (inclusive)
+     * @param histogramMax max value of last bin (exclusive)
+     * @param bins         number of bins, 0 for no histogram
+     */
+    FloatAccumulator(float histogramMin, float histogramMax, int bins) {
+        this.histogramMin = histogramMin;
+        this.histogramMax = histogramMax;
+        this.histogramScale = bins / (histogramMax - histogramMin);
+        this.histogram = new long[bins];
+    }
+
+    /**
+     * Accumulate count floats of segment, starting at byte offset
+     */
+    void accumulate(MemorySegment segment, long offset, long count) {
+        long end = offset + count * Float.BYTES;
+        while (offset < end) {
+            int subBlockSize = (int) Math.min(SUB_BLOCK_SIZE, (end - offset) / Float.BYTES);
+            accumulateSubBlock(segment, offset, subBlockSize);
+            offset += (long) subBlockSize * Float.BYTES;
+        }
+    }
+
+    FloatAccumulator combine(FloatAccumulator other) {
+        combine(other.count, other.sum, other.min, other.max, other.mean, other.m2);
+        for (int i = 0; i < histogram.length; i++)
+            histogram[i] += other.histogram[i];
+        return this;
+    }
+
+    FloatAggregates toAggregates() {
+        return new FloatAggregates(count, sum, min, max,
+                count == 0 ? Double.NaN : mean,
+                count == 0 ? Double.NaN : m2 / count,
+                new FloatAggregates.Histogram(histogramMin, histogramMax, histogram.clone()));
+    }
+
+    private void accumulateSubBlock(MemorySegment segment, long offset, int length) {
+        float shift = segment.get(FLOAT_LAYOUT, offset);
+        FloatVector shiftV = FloatVector.broadcast(SPECIES, shift);
+        FloatVector sumV = FloatVector.zero(SPECIES);
+        FloatVector squaresV = FloatVector.zero(SPECIES);
+        FloatVector minV = FloatVector.broadcast(SPECIES, Float.POSITIVE_INFINITY);
+        FloatVector maxV = FloatVector.broadcast(SPECIES, Float.NEGATIVE_INFINITY);
+        int i = 0;
+        int upperBound = SPECIES.loopBound(length);
+        for (; i < upperBound; i += SPECIES.length()) {
+            FloatVector v = FloatVector.fromMemorySegment(SPECIES, segment, offset + (long) i * Float.BYTES, ORDER);
+            FloatVector d = v.sub(shiftV);
+            sumV = sumV.add(d);
+            squaresV = d.fma(d, squaresV);
+            minV = minV.min(v);
+            maxV = maxV.max(v);
+            if (histogram.length > 0)
+                accumulateHistogram(v);
+        }
+        float s = sumV.reduceLanes(VectorOperators.ADD);
+        float squares = squaresV.reduceLanes(VectorOperators.ADD);
+        float blockMin = minV.reduceLanes(VectorOperators.MIN);
+        float blockMax = maxV.reduceLanes(VectorOperators.MAX);
+        for (; i < length; i++) {
+            float v = segment.get(FLOAT_LAYOUT, offset + (long) i * Float.BYTES);
+            float d = v - shift;
+            s += d;
+            squares += d * d;
+            blockMin = Math.min(blockMin, v);
+            blockMax = Math.max(blockMax, v);
+            if (histogram.length > 0 && v >= histogramMin && v < histogramMax)
+                histogram[Math.min(histogram.length - 1, (int) ((v - histogramMin) * histogramScale))]++;
+        }
+        combine(length, (double) shift * length + s, blockMin, blockMax,
+                shift + s / (double) length, squares - (double) s * s / length);
+    }
+
+    private void accumulateHistogram(FloatVector v) {
+        VectorMask<Float> inRange = v.compare(VectorOperators.GE, histogramMin)
+                .and(v.compare(VectorOperators.LT, histogramMax));
+        long lanes = inRange.toLong();
+        if (lanes == 0)
+            return;
+        v.sub(histogramMin).mul(histogramScale)
+                .convertShape(VectorOperators.F2I, INT_SPECIES, 0)
+                .reinterpretAsInts()
+                .min(histogram.length - 1)
+                .intoArray(laneBins, 0);
+        while (lanes != 0) {
+            int lane = Long.numberOfTrailingZeros(lanes);
+            histogram[laneBins[lane]]++;
+            lanes &= lanes - 1;
+        }
+    }
+
+    private void combine(long otherCount, double otherSum, float otherMin, float otherMax, double otherMean, double otherM2) {
+        if (otherCount == 0)
+            return;
+        long newCount = count + otherCount;
+        double delta = otherMean - mean;
+        mean += delta * otherCount / newCount;
+        m2 += otherM2 + delta * delta * count * otherCount / newCount;
+        count = newCount;
+        sum += otherSum;
+        min = Math.min(min, otherMin);
+        max = Math.max(max, otherMax);
+    }
+}
@@ -0,0 +1,321 @@
+package org.yah.benchmark.nio.aggregate;
+
+import org.yah.benchmark.nio.reader.FloatChunkReader;
+import org.yah.benchmark.nio.reader.FloatChunkReaderFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.file.Path;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Aggregates of a range of floats of a storage, computed in a single pass by Vector API kernels.<br/>
+ * When the reader supports {@link FloatChunkReader#view(long, long)} (mapped readers), kernels run directly on the
+ * mapped memory, and blocks of the range are reduced in parallel on the common pool if views are
+ * {@link FloatChunkReader#sharedViews() shared}. Otherwise (or when a block can not be viewed), blocks are read in a
+ * staging segment: by the calling thread when aggregating a reader, or in parallel by one reader per split when
+ * aggregating a storage file with a {@link FloatChunkReaderFactory}.<br/>
+ * Blocks are viewed (or read) when they are reduced, and dropped afterward.<br/>
+ * NaN floats are propagated to sum, min, max, mean and variance, and ignored by the histogram.
+ *
+ * @param count     the number of floats
+ * @param sum       the sum of floats
+ * @param min       the min float (+Infinity if count is 0)
+ * @param max       the max float (-Infinity if count is 0)
+ * @param mean      the mean of floats (NaN if count is 0)
+ * @param variance  the population variance of floats (NaN if count is 0)
+ * @param histogram the histogram of floats (no bins if not requested)
+ */
+public record FloatAggregates(long count, double sum, float min, float max, double mean, double variance,
+                              Histogram histogram) {
+
+    /**
+     * number of floats per block of parallel reduction
+     */
+    private static final int BLOCK_SIZE = 4 * 1024 * 1024;
+
+    /**
+     * Fixed bins histogram: bin i counts floats in [min + i * (max - min) / bins, min + (i + 1) * (max - min) / bins[
+     *
+     * @param min    the min value of first bin (inclusive)
+     * @param max    the max value of last bin (exclusive)
+     * @param counts the floats count per bin
+     */
+    public record Histogram(float min, float max, long[] counts) {
+        public int bins() {
+            return counts.length;
+        }
+    }
+
+    /**
+     * Aggregate floats [from, to[ of reader, without histogram
+     */
+    public static FloatAggregates over(FloatChunkReader reader, long from, long to) throws IOException {
+        return over(reader, from, to, 0, 0, 0);
+    }
+
+    /**
+     * Aggregate floats [from, to[ of reader (that does not have to be thread safe: reader calls are serialized)
+     *
+     * @param reader       the storage reader
+     * @param from         the index of the first float (inclusive)
+     * @param to           the index of the last float (exclusive)
+     * @param histogramMin min value of first histogram bin (inclusive)
+     * @param histogramMax max value of last histogram bin (exclusive)
+     * @param bins         number of histogram bins, 0 for no histogram
+     */
+    public static FloatAggregates over(FloatChunkReader reader, long from, long to,
+                                       float histogramMin, float histogramMax, int bins) throws IOException {
+        checkArguments(reader.length(), from, to, histogramMin, histogramMax, bins);
+        Supplier<FloatAccumulator> accumulators = () -> new FloatAccumulator(histogramMin, histogramMax, bins);
+        if (reader.sharedViews())
+            return reduceViews(reader, from, to, accumulators);
+
+        // views confined to this thread, or no views: blocks are reduced by this thread
+        FloatAccumulator accumulator = accumulators.get();
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment staging = null;
+            for (long blockStart = from; blockStart < to; blockStart += BLOCK_SIZE) {
+                long blockLength = Math.min(BLOCK_SIZE, to - blockStart);
+                MemorySegment block = view(reader, blockStart, blockLength);
+                if (block == null) {
+                    if (staging == null)
+                        staging = arena.allocate((long) BLOCK_SIZE * Float.BYTES, Float.BYTES);
+                    reader.read(staging, blockStart, 0, blockLength);
+                    block = staging;
+                }
+                accumulator.accumulate(block, 0, blockLength);
+            }
+        }
+        return accumulator.toAggregates();
+    }
+
+    /**
+     * Aggregate floats [from, to[ of a storage file, without histogram
+     */
+    public static FloatAggregates over(FloatChunkReaderFactory factory, Path storageFile, long from, long to) throws IOException {
+        return over(factory, storageFile, from, to, 0, 0, 0);
+    }
+
+    /**
+     * Aggregate floats [from, to[ of a storage file, reducing blocks in parallel on the common pool.<br/>
+     * If the readers created by factory have shared views, a single reader is used
+     * (see {@link #over(FloatChunkReader, long, long, float, float, int)}), otherwise each split of the range is
+     * reduced with its own reader.
+     *
+     * @param factory      the factory of storage readers
+     * @param storageFile  the storage file
+     * @param from         the index of the first float (inclusive)
+     * @param to           the index of the last float (exclusive)
+     * @param histogramMin min value of first histogram bin (inclusive)
+     * @param histogramMax max value of last histogram bin (exclusive)
+     * @param bins         number of histogram bins, 0 for no histogram
+     */
+    public static FloatAggregates over(FloatChunkReaderFactory factory, Path storageFile, long from, long to,
+                                       float histogramMin, float histogramMax, int bins) throws IOException {
+        try (FloatChunkReader reader = factory.create(storageFile)) {
+            if (reader.sharedViews())
+                return over(reader, from, to, histogramMin, histogramMax, bins);
+            checkArguments(reader.length(), from, to, histogramMin, histogramMax, bins);
+        }
+        Supplier<FloatAccumulator> accumulators = () -> new FloatAccumulator(histogramMin, histogramMax, bins);
+        BlockSpliterator blocks = new BlockSpliterator(factory, storageFile, from, to, accumulators, 0, blockCount(from, to));
+        try {
+            return StreamSupport.stream(blocks, true)
+                    .reduce(FloatAccumulator::combine)
+                    .orElseGet(accumulators)
+                    .toAggregates();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void checkArguments(long length, long from, long to, float histogramMin, float histogramMax, int bins) {
+        if (from < 0 || to < from || to > length)
+            throw new IllegalArgumentException(String.format("invalid range [%d, %d[ for storage length %d", from, to, length));
+        if (bins < 0 || (bins > 0 && !(histogramMin < histogramMax)))
+            throw new IllegalArgumentException(String.format("invalid histogram [%f, %f[ with %d bins", histogramMin, histogramMax, bins));
+    }
+
+    private static long blockCount(long from, long to) {
+        return (to - from + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    }
+
+    /**
+     * Reduce blocks in parallel on the common pool, each block viewed (or read in a heap staging segment) when it is
+     * reduced, and dropped afterward. Views can be reduced by any thread, but reader calls are serialized.
+     */
+    private static FloatAggregates reduceViews(FloatChunkReader reader, long from, long to,
+                                               Supplier<FloatAccumulator> accumulators) throws IOException {
+        Object readerLock = new Object();
+        try {
+            return LongStream.range(0, blockCount(from, to))
+                    .parallel()
+                    .mapToObj(blockIndex -> {
+                        long blockStart = from + blockIndex * BLOCK_SIZE;
+                        long blockLength = Math.min(BLOCK_SIZE, to - blockStart);
+                        MemorySegment block;
+                        synchronized (readerLock) {
+                            block = viewOrRead(reader, blockStart, blockLength);
+                        }
+                        FloatAccumulator accumulator = accumulators.get();
+                        accumulator.accumulate(block, 0, blockLength);
+                        return accumulator;
+                    })
+                    .reduce(FloatAccumulator::combine)
+                    .orElseGet(accumulators)
+                    .toAggregates();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * @return a view of the block, or the block read in a heap segment if it can not be viewed
+     */
+    private static MemorySegment viewOrRead(FloatChunkReader reader, long srcIndex, long length) {
+        try {
+            MemorySegment view = view(reader, srcIndex, length);
+            if (view != null)
+                return view;
+            MemorySegment block = MemorySegment.ofArray(new byte[Math.toIntExact(length * Float.BYTES)]);
+            reader.read(block, srcIndex, 0, length);
+            return block;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return a view of the block, or null if the reader can not view it
+     */
+    private static MemorySegment view(FloatChunkReader reader, long srcIndex, long length) throws IOException {
+        try {
+            return reader.view(srcIndex, length);
+        } catch (UnsupportedOperationException | IllegalArgumentException e) {
+            return null; // no view, or block crossing reader mapped regions
+        }
+    }
+
+    /**
+     * Spliterator of the accumulators of blocks [block, endBlock[ of a range of a storage file. Each split reads its
+     * blocks with its own reader created by a factory (opened on first block, closed when the split is exhausted),
+     * viewing them if the reader can, or reading them in an off-heap staging segment.
+     */
+    private static final class BlockSpliterator implements Spliterator<FloatAccumulator> {
+
+        private final FloatChunkReaderFactory factory;
+        private final Path storageFile;
+        private final long from;
+        private final long to;
+        private final Supplier<FloatAccumulator> accumulators;
+        private long block;
+        private final long endBlock;
+
+        private FloatChunkReader reader;
+        private Arena arena;
+        private MemorySegment staging;
+
+        private BlockSpliterator(FloatChunkReaderFactory factory, Path storageFile, long from, long to,
+                                 Supplier<FloatAccumulator> accumulators, long block, long endBlock) {
+            this.factory = factory;
+            this.storageFile = storageFile;
+            this.from = from;
+            this.to = to;
+            this.accumulators = accumulators;
+            this.block = block;
+            this.endBlock = endBlock;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super FloatAccumulator> action) {
+            if (block >= endBlock)
+                return false;
+            FloatAccumulator accumulator;
+            try {
+                accumulator = reduce(block++);
+            } catch (IOException e) {
+                release(e);
+                throw new UncheckedIOException(e);
+            } catch (RuntimeException e) {
+                release(e);
+                throw e;
+            }
+            if (block >= endBlock)
+                release(null);
+            action.accept(accumulator);
+            return true;
+        }
+
+        @Override
+        public Spliterator<FloatAccumulator> trySplit() {
+            if (reader != null)
+                return null;
+            long mid = (block + endBlock) >>> 1;
+            if (mid <= block)
+                return null;
+            BlockSpliterator prefix = new BlockSpliterator(factory, storageFile, from, to, accumulators, block, mid);
+            block = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return endBlock - block;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL;
+        }
+
+        private FloatAccumulator reduce(long blockIndex) throws IOException {
+            if (reader == null)
+                reader = factory.create(storageFile);
+            long blockStart = from + blockIndex * BLOCK_SIZE;
+            long blockLength = Math.min(BLOCK_SIZE, to - blockStart);
+            MemorySegment segment = view(reader, blockStart, blockLength);
+            if (segment == null) {
+                if (staging == null) {
+                    arena = Arena.ofConfined();
+                    staging = arena.allocate((long) BLOCK_SIZE * Float.BYTES, Float.BYTES);
+                }
+                reader.read(staging, blockStart, 0, blockLength);
+                segment = staging;
+            }
+            FloatAccumulator accumulator = accumulators.get();
+            accumulator.accumulate(segment, 0, blockLength);
+            return accumulator;
+        }
+
+        /**
+         * Close the reader and the staging segment of this split
+         *
+         * @param error the error failing the split, closing errors are added to it
+         */
+        private void release(Exception error) {
+            if (arena != null) {
+                arena.close();
+                arena = null;
+                staging = null;
+            }
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    if (error == null)
+                        throw new UncheckedIOException(e);
+                    error.addSuppressed(e);
+                } finally {
+                    reader = null;
+                }
+            }
+        }
+    }
+}
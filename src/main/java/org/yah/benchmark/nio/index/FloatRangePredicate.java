@@ -0,0 +1,61 @@
+package org.yah.benchmark.nio.index;
+
+/**
+ * A predicate on floats that can also be evaluated on a zone (min, max and NaN count of a block), to skip blocks
+ * without reading them. NaN never matches.
+ */
+public interface FloatRangePredicate {
+
+    boolean test(float value);
+
+    /**
+     * @return true if some float of a zone may match
+     */
+    boolean anyMatch(float min, float max);
+
+    /**
+     * @return true if all non NaN floats of a zone match
+     */
+    boolean allMatch(float min, float max);
+
+    /**
+     * value &gt; threshold
+     */
+    static FloatRangePredicate greaterThan(float threshold) {
+        return between(Math.nextUp(threshold), Float.POSITIVE_INFINITY);
+    }
+
+    /**
+     * value &lt; threshold
+     */
+    static FloatRangePredicate lessThan(float threshold) {
+        return between(Float.NEGATIVE_INFINITY, Math.nextDown(threshold));
+    }
+
+    /**
+     * low &lt;= value &lt;= high
+     */
+    static FloatRangePredicate between(float low, float high) {
+        return new FloatRangePredicate() {
+            @Override
+            public boolean test(float value) {
+                return value >= low && value <= high;
+            }
+
+            @Override
+            public boolean anyMatch(float min, float max) {
+                return max >= low && min <= high;
+            }
+
+            @Override
+            public boolean allMatch(float min, float max) {
+                return min >= low && max <= high;
+            }
+
+            @Override
+            public String toString() {
+                return "[" + low + ", " + high + "]";
+            }
+        };
+    }
+}
@@ -0,0 +1,97 @@
+package org.yah.benchmark.nio.index;
+
+import org.yah.benchmark.nio.reader.FloatChunkReader;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Find the ranges of indices of floats matching a {@link FloatRangePredicate}, using a {@link ZoneMap} to skip the
+ * blocks that can not match, and to match whole blocks without reading them.<br/>
+ * Only blocks with both matching and non matching floats are read, one block at a time.
+ */
+public final class RangeScan {
+
+    /**
+     * A range of indices [from, to[
+     */
+    public record IndexRange(long from, long to) {
+        public long length() {
+            return to - from;
+        }
+    }
+
+    /**
+     * @param ranges        the sorted and disjoint ranges of matching indices (adjacent ranges are merged)
+     * @param blocksSkipped the number of blocks without any possible match
+     * @param blocksMatched the number of blocks matching as a whole
+     * @param blocksRead    the number of blocks read to test their floats
+     */
+    public record Result(List<IndexRange> ranges, int blocksSkipped, int blocksMatched, int blocksRead) {
+        /**
+         * @return the number of matching indices
+         */
+        public long matchCount() {
+            long count = 0;
+            for (IndexRange range : ranges)
+                count += range.length();
+            return count;
+        }
+    }
+
+    private RangeScan() {
+    }
+
+    /**
+     * Scan all the floats of reader
+     *
+     * @param reader    the storage reader
+     * @param zoneMap   the zone map of the storage
+     * @param predicate the predicate of floats to find
+     */
+    public static Result scan(FloatChunkReader reader, ZoneMap zoneMap, FloatRangePredicate predicate) throws IOException {
+        if (zoneMap.elementCount() != reader.length())
+            throw new IllegalArgumentException("zone map of " + zoneMap.elementCount() + " floats does not match storage length " + reader.length());
+        List<IndexRange> ranges = new ArrayList<>();
+        int skipped = 0, matched = 0, read = 0;
+        float[] block = null;
+        for (int i = 0; i < zoneMap.blockCount(); i++) {
+            long blockStart = zoneMap.blockStart(i);
+            int blockLength = zoneMap.blockLength(i);
+            float min = zoneMap.min(i), max = zoneMap.max(i);
+            if (zoneMap.nanCount(i) == blockLength || !predicate.anyMatch(min, max)) {
+                skipped++;
+            } else if (zoneMap.nanCount(i) == 0 && predicate.allMatch(min, max)) {
+                matched++;
+                add(ranges, blockStart, blockStart + blockLength);
+            } else {
+                read++;
+                if (block == null)
+                    block = new float[zoneMap.blockSize()];
+                reader.read(block, blockStart, 0, blockLength);
+                int runStart = -1;
+                for (int j = 0; j < blockLength; j++) {
+                    boolean match = predicate.test(block[j]);
+                    if (match && runStart < 0) {
+                        runStart = j;
+                    } else if (!match && runStart >= 0) {
+                        add(ranges, blockStart + runStart, blockStart + j);
+                        runStart = -1;
+                    }
+                }
+                if (runStart >= 0)
+                    add(ranges, blockStart + runStart, blockStart + blockLength);
+            }
+        }
+        return new Result(Collections.unmodifiableList(ranges), skipped, matched, read);
+    }
+
+    private static void add(List<IndexRange> ranges, long from, long to) {
+        if (!ranges.isEmpty() && ranges.get(ranges.size() - 1).to() == from)
+            ranges.set(ranges.size() - 1, new IndexRange(ranges.get(ranges.size() - 1).from(), to));
+        else
+            ranges.add(new IndexRange(from, to));
+    }
+}
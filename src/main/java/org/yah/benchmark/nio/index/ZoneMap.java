@@ -0,0 +1,291 @@
+package org.yah.benchmark.nio.index;
+
+import org.yah.benchmark.nio.reader.FloatChunkReader;
+import org.yah.benchmark.nio.reader.FloatChunkReaderFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Zone map of a float storage: min, max and NaN count of each block of blockSize floats (min and max ignore NaN, a
+ * block of NaN only has min +Infinity and max -Infinity).<br/>
+ * Stored in a sidecar file of the storage ({@link #path(Path)}):
+ * <pre>
+ * offset size field
+ *      0    8 magic "YZONES" followed by 2 0
+ *      8    4 version
+ *     12    4 block size
+ *     16    8 element count
+ *     24   12 min (float), max (float) and NaN count (int) of each block
+ * </pre>
+ * All fields are little endian.
+ */
+public final class ZoneMap {
+
+    public static final int VERSION = 1;
+
+    private static final byte[] MAGIC = {'Y', 'Z', 'O', 'N', 'E', 'S', 0, 0};
+    private static final int HEADER_SIZE = 24;
+    private static final int ZONE_SIZE = 12;
+
+    private final int blockSize;
+    private final long elementCount;
+    private final float[] mins;
+    private final float[] maxs;
+    private final int[] nanCounts;
+
+    private ZoneMap(int blockSize, long elementCount, float[] mins, float[] maxs, int[] nanCounts) {
+        this.blockSize = blockSize;
+        this.elementCount = elementCount;
+        this.mins = mins;
+        this.maxs = maxs;
+        this.nanCounts = nanCounts;
+    }
+
+    /**
+     * @return the sidecar zone map file of a storage
+     */
+    public static Path path(Path storagePath) {
+        return storagePath.resolveSibling(storagePath.getFileName() + ".zones");
+    }
+
+    public int blockSize() {
+        return blockSize;
+    }
+
+    public long elementCount() {
+        return elementCount;
+    }
+
+    public int blockCount() {
+        return mins.length;
+    }
+
+    /**
+     * @return the index of the first float of block
+     */
+    public long blockStart(int block) {
+        return (long) block * blockSize;
+    }
+
+    /**
+     * @return the number of floats of block (the last one may be partial)
+     */
+    public int blockLength(int block) {
+        return (int) Math.min(blockSize, elementCount - blockStart(block));
+    }
+
+    public float min(int block) {
+        return mins[block];
+    }
+
+    public float max(int block) {
+        return maxs[block];
+    }
+
+    public int nanCount(int block) {
+        return nanCounts[block];
+    }
+
+    /**
+     * @return a builder of the zone map of this storage with count floats appended
+     */
+    public Builder append(long count) {
+        Builder builder = new Builder(blockSize, elementCount + count);
+        System.arraycopy(mins, 0, builder.mins, 0, mins.length);
+        System.arraycopy(maxs, 0, builder.maxs, 0, maxs.length);
+        System.arraycopy(nanCounts, 0, builder.nanCounts, 0, nanCounts.length);
+        return builder;
+    }
+
+    /**
+     * Build the zone map of a storage, reading it in parallel.
+     *
+     * @param storagePath the storage file path
+     * @param factory     the factory of readers (one per thread)
+     * @param blockSize   the number of floats per zone
+     * @param threads     the number of threads reading the storage
+     */
+    public static ZoneMap build(Path storagePath, FloatChunkReaderFactory factory, int blockSize, int threads) throws IOException {
+        if (threads <= 0)
+            throw new IllegalArgumentException("invalid threads " + threads + " must be > 0");
+        long length;
+        try (FloatChunkReader reader = factory.create(storagePath)) {
+            length = reader.length();
+        }
+        Builder builder = new Builder(blockSize, length);
+        int blockCount = builder.mins.length;
+        int tasks = Math.max(1, Math.min(threads, blockCount));
+        int blocksPerTask = (blockCount + tasks - 1) / tasks;
+        ExecutorService executorService = Executors.newFixedThreadPool(tasks);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int task = 0; task < tasks; task++) {
+                int fromBlock = task * blocksPerTask;
+                int toBlock = Math.min(blockCount, fromBlock + blocksPerTask);
+                futures.add(executorService.submit(() -> {
+                    try (FloatChunkReader reader = factory.create(storagePath)) {
+                        float[] block = new float[blockSize];
+                        for (int i = fromBlock; i < toBlock; i++) {
+                            long start = (long) i * blockSize;
+                            int blockLength = (int) Math.min(blockSize, length - start);
+                            reader.read(block, start, 0, blockLength);
+                            builder.accept(start, block, 0, blockLength);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof UncheckedIOException uncheckedIOException)
+                        throw uncheckedIOException.getCause();
+                    throw new RuntimeException(e.getCause());
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+        return builder.build();
+    }
+
+    /**
+     * Read a zone map file
+     */
+    public static ZoneMap read(Path file) throws IOException {
+        try (FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = readFully(fileChannel, 0, HEADER_SIZE);
+            byte[] magic = new byte[MAGIC.length];
+            header.get(0, magic);
+            if (!Arrays.equals(MAGIC, magic))
+                throw new IOException("invalid zone map file " + file);
+            int version = header.getInt(8);
+            if (version > VERSION)
+                throw new IOException("unsupported zone map version " + version + ", max supported " + VERSION);
+            int blockSize = header.getInt(12);
+            long elementCount = header.getLong(16);
+            Builder builder = new Builder(blockSize, elementCount);
+            int blockCount = builder.mins.length;
+            ByteBuffer zones = readFully(fileChannel, HEADER_SIZE, blockCount * ZONE_SIZE);
+            for (int i = 0; i < blockCount; i++) {
+                builder.mins[i] = zones.getFloat();
+                builder.maxs[i] = zones.getFloat();
+                builder.nanCounts[i] = zones.getInt();
+            }
+            return builder.build();
+        }
+    }
+
+    /**
+     * Write this zone map to a file (replaced if it exists)
+     */
+    public void write(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + blockCount() * ZONE_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(MAGIC).putInt(VERSION).putInt(blockSize).putLong(elementCount);
+        for (int i = 0; i < blockCount(); i++)
+            buffer.putFloat(mins[i]).putFloat(maxs[i]).putInt(nanCounts[i]);
+        buffer.flip();
+        try (FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining())
+                fileChannel.write(buffer);
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel fileChannel, long position, int size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (fileChannel.read(buffer, position + buffer.position()) < 0)
+                throw new IOException("truncated zone map file");
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Accumulate the zones of floats given in any order, by any number of threads (a block can be split between
+     * threads).
+     */
+    public static final class Builder {
+
+        private final int blockSize;
+        private final long elementCount;
+        private final float[] mins;
+        private final float[] maxs;
+        private final int[] nanCounts;
+
+        /**
+         * @param blockSize    the number of floats per zone
+         * @param elementCount the number of floats of the storage
+         */
+        public Builder(int blockSize, long elementCount) {
+            if (blockSize <= 0)
+                throw new IllegalArgumentException("invalid block size " + blockSize + " must be > 0");
+            long blockCount = (elementCount + blockSize - 1) / blockSize;
+            if (blockCount > Integer.MAX_VALUE / ZONE_SIZE)
+                throw new IllegalArgumentException("too many blocks " + blockCount + ", use a larger block size than " + blockSize);
+            this.blockSize = blockSize;
+            this.elementCount = elementCount;
+            mins = new float[(int) blockCount];
+            maxs = new float[(int) blockCount];
+            nanCounts = new int[(int) blockCount];
+            Arrays.fill(mins, Float.POSITIVE_INFINITY);
+            Arrays.fill(maxs, Float.NEGATIVE_INFINITY);
+        }
+
+        /**
+         * Accumulate length floats of data from offset, of storage index startIndex
+         */
+        public void accept(long startIndex, float[] data, int offset, int length) {
+            int i = 0;
+            while (i < length) {
+                long index = startIndex + i;
+                int block = (int) (index / blockSize);
+                int count = (int) Math.min(length - i, (long) (block + 1) * blockSize - index);
+                float min = Float.POSITIVE_INFINITY, max = Float.NEGATIVE_INFINITY;
+                int nans = 0;
+                for (int j = offset + i; j < offset + i + count; j++) {
+                    float v = data[j];
+                    if (v != v) {
+                        nans++;
+                    } else {
+                        if (v < min) min = v;
+                        if (v > max) max = v;
+                    }
+                }
+                merge(block, min, max, nans);
+                i += count;
+            }
+        }
+
+        /**
+         * @return the zone map of accumulated floats
+         */
+        public synchronized ZoneMap build() {
+            return new ZoneMap(blockSize, elementCount, mins.clone(), maxs.clone(), nanCounts.clone());
+        }
+
+        private synchronized void merge(int block, float min, float max, int nans) {
+            mins[block] = Math.min(mins[block], min);
+            maxs[block] = Math.max(maxs[block], max);
+            nanCounts[block] += nans;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.yah.benchmark.nio.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event of the read of one chunk of a {@link FanOutEvent}, in the thread reading the chunk
+ */
+@Name("org.yah.benchmark.nio.ChunkRead")
+@Label("Chunk Read")
+@Category({"Float Reader"})
+@Description("Read of a chunk of a concurrent read")
+@StackTrace(false)
+public final class ChunkReadEvent extends jdk.jfr.Event {
+
+    @Label("Chunk")
+    int chunk;
+
+    @Label("Source Index")
+    long srcIndex;
+
+    @Label("Floats")
+    int floats;
+
+    /**
+     * Commit this event if enabled and above threshold
+     */
+    public void commit(int chunk, long srcIndex, int floats) {
+        end();
+        if (shouldCommit()) {
+            this.chunk = chunk;
+            this.srcIndex = srcIndex;
+            this.floats = floats;
+            commit();
+        }
+    }
+}
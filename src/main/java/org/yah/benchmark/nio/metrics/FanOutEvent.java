@@ -0,0 +1,49 @@
+package org.yah.benchmark.nio.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event of a read split in chunks read concurrently by a
+ * {@link org.yah.benchmark.nio.reader.ConcurrentFloatChunkReader}
+ */
+@Name("org.yah.benchmark.nio.FanOut")
+@Label("Concurrent Read")
+@Category({"Float Reader"})
+@Description("Read split in chunks read concurrently")
+@StackTrace(false)
+public final class FanOutEvent extends jdk.jfr.Event {
+
+    @Label("Execution Mode")
+    String executionMode;
+
+    @Label("Source Index")
+    long srcIndex;
+
+    @Label("Floats")
+    int floats;
+
+    @Label("Chunks")
+    int chunks;
+
+    @Label("Chunk Size")
+    int chunkSize;
+
+    /**
+     * Commit this event if enabled and above threshold
+     */
+    public void commit(String executionMode, long srcIndex, int floats, int chunks, int chunkSize) {
+        end();
+        if (shouldCommit()) {
+            this.executionMode = executionMode;
+            this.srcIndex = srcIndex;
+            this.floats = floats;
+            this.chunks = chunks;
+            this.chunkSize = chunkSize;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package org.yah.benchmark.nio.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of latencies (in nanoseconds) with a bounded relative error, in the style of HdrHistogram: values are
+ * counted in buckets covering power of 2 ranges, each split in 2^precisionBits linear sub buckets (the precisionBits
+ * bits below the highest bit of values), so any recorded value is reported with a relative error of less than
+ * 2^-precisionBits.<br/>
+ * Thread safe: values can be recorded concurrently (lock free), reads of a histogram being recorded are not an atomic
+ * snapshot.
+ */
+public final class LatencyHistogram {
+
+    private static final int DEFAULT_PRECISION_BITS = 7; // < 1% error
+
+    private final int precisionBits;
+    /**
+     * number of sub buckets per power of 2 range
+     */
+    private final int subBucketCount;
+    private final AtomicLongArray counts;
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong();
+
+    public LatencyHistogram() {
+        this(DEFAULT_PRECISION_BITS);
+    }
+
+    /**
+     * @param precisionBits the number of bits of sub buckets (relative error of 2^-precisionBits)
+     */
+    public LatencyHistogram(int precisionBits) {
+        if (precisionBits < 1 || precisionBits > 16)
+            throw new IllegalArgumentException("invalid precision bits " + precisionBits + " must be in [1, 16]");
+        this.precisionBits = precisionBits;
+        subBucketCount = 1 << precisionBits;
+        // values < 2 * subBucketCount are counted exactly, then one bucket of subBucketCount sub buckets per power of 2
+        // (highest bits from precisionBits + 1 to 62)
+        counts = new AtomicLongArray(2 * subBucketCount + (62 - precisionBits) * subBucketCount);
+    }
+
+    public void record(long value) {
+        if (value < 0)
+            throw new IllegalArgumentException("negative value " + value);
+        counts.incrementAndGet(index(value));
+        totalCount.increment();
+        sum.add(value);
+        if (value < min.get())
+            min.accumulateAndGet(value, Math::min);
+        if (value > max.get())
+            max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Add all values recorded by another histogram of the same precision
+     */
+    public void merge(LatencyHistogram other) {
+        if (other.precisionBits != precisionBits)
+            throw new IllegalArgumentException("precision bits mismatch " + other.precisionBits + " != " + precisionBits);
+        for (int i = 0; i < counts.length(); i++) {
+            long count = other.counts.get(i);
+            if (count > 0)
+                counts.addAndGet(i, count);
+        }
+        totalCount.add(other.totalCount.sum());
+        sum.add(other.sum.sum());
+        min.accumulateAndGet(other.min.get(), Math::min);
+        max.accumulateAndGet(other.max.get(), Math::max);
+    }
+
+    public long count() {
+        return totalCount.sum();
+    }
+
+    public long min() {
+        return count() == 0 ? 0 : min.get();
+    }
+
+    public long max() {
+        return max.get();
+    }
+
+    public double mean() {
+        long count = count();
+        return count == 0 ? 0 : sum.sum() / (double) count;
+    }
+
+    /**
+     * @param percentile the percentile in [0, 100]
+     * @return the highest value equivalent to the value at percentile (capped to max)
+     */
+    public long percentile(double percentile) {
+        long count = count();
+        if (count == 0)
+            return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long cumulated = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            cumulated += counts.get(i);
+            if (cumulated >= rank)
+                return Math.min(max(), highestEquivalentValue(i));
+        }
+        return max();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.1fus p50=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus", count(), mean() / 1000,
+                percentile(50) / 1000.0, percentile(99) / 1000.0, percentile(99.9) / 1000.0, max() / 1000.0);
+    }
+
+    private int index(long value) {
+        if (value < 2L * subBucketCount)
+            return (int) value;
+        // bucket of the highest bit, and the precisionBits bits below it as sub bucket
+        int bucket = 63 - Long.numberOfLeadingZeros(value) - precisionBits;
+        int subBucket = (int) (value >>> bucket) - subBucketCount;
+        return 2 * subBucketCount + (bucket - 1) * subBucketCount + subBucket;
+    }
+
+    private long highestEquivalentValue(int index) {
+        if (index < 2 * subBucketCount)
+            return index;
+        int bucket = (index - 2 * subBucketCount) / subBucketCount + 1;
+        int subBucket = (index - 2 * subBucketCount) % subBucketCount + subBucketCount;
+        // wraps to Long.MAX_VALUE for the last sub bucket
+        return (((long) subBucket + 1) << bucket) - 1;
+    }
+}
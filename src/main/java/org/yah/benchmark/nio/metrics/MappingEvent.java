@@ -0,0 +1,42 @@
+package org.yah.benchmark.nio.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event of a mapping of a region of a storage file by a reader
+ */
+@Name("org.yah.benchmark.nio.Mapping")
+@Label("Storage Mapping")
+@Category({"Float Reader"})
+@Description("Mapping of a region of a storage file")
+@StackTrace(false)
+public final class MappingEvent extends jdk.jfr.Event {
+
+    @Label("File")
+    String file;
+
+    @Label("Position")
+    long position;
+
+    @Label("Size")
+    @DataAmount
+    long size;
+
+    /**
+     * Commit this event if enabled and above threshold
+     */
+    public void commit(String file, long position, long size) {
+        end();
+        if (shouldCommit()) {
+            this.file = file;
+            this.position = position;
+            this.size = size;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.yah.benchmark.nio.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event of a read of floats by an {@link org.yah.benchmark.nio.reader.InstrumentedFloatChunkReader}
+ */
+@Name("org.yah.benchmark.nio.Read")
+@Label("Float Chunk Read")
+@Category({"Float Reader"})
+@Description("Read of floats from a storage")
+@StackTrace(false)
+public final class ReadEvent extends jdk.jfr.Event {
+
+    @Label("Reader")
+    String reader;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Source Index")
+    long srcIndex;
+
+    @Label("Floats")
+    long floats;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    /**
+     * Commit this event if enabled and above threshold
+     */
+    public void commit(String reader, String operation, long srcIndex, long floats) {
+        end();
+        if (shouldCommit()) {
+            this.reader = reader;
+            this.operation = operation;
+            this.srcIndex = srcIndex;
+            this.floats = floats;
+            this.bytes = floats * Float.BYTES;
+            commit();
+        }
+    }
+}
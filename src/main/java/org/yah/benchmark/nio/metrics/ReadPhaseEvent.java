@@ -0,0 +1,64 @@
+package org.yah.benchmark.nio.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.nio.file.Path;
+
+/**
+ * JFR event of a phase of a read: the I/O from the storage file to a buffer, or the copy (or byte swap) of the
+ * buffer to the destination
+ */
+@Name("org.yah.benchmark.nio.ReadPhase")
+@Label("Read Phase")
+@Category({"Float Reader"})
+@Description("I/O or copy phase of a read")
+@StackTrace(false)
+public final class ReadPhaseEvent extends jdk.jfr.Event {
+
+    public static final String IO = "io";
+
+    public static final String COPY = "copy";
+
+    @Label("File")
+    String file;
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    // not an event field, the duration is reported to ReaderMetrics even if the event is disabled
+    private transient long startNanos;
+
+    /**
+     * Begin the phase
+     */
+    public void start() {
+        startNanos = System.nanoTime();
+        begin();
+    }
+
+    /**
+     * End the phase, and commit this event if enabled and above threshold
+     *
+     * @return the phase duration in nanoseconds
+     */
+    public long commit(Path file, String phase, long bytes) {
+        end();
+        long nanos = System.nanoTime() - startNanos;
+        if (shouldCommit()) {
+            this.file = file.toString();
+            this.phase = phase;
+            this.bytes = bytes;
+            commit();
+        }
+        return nanos;
+    }
+}
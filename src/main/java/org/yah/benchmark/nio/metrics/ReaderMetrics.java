@@ -0,0 +1,122 @@
+package org.yah.benchmark.nio.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histogram of the reads of one or more readers.<br/>
+ * Readers reading through a staging buffer also report the time of their I/O and copy phases, telling whether a read
+ * is bound by the storage or by the memory copies.<br/>
+ * Thread safe, counters are {@link LongAdder} so concurrent readers do not contend on a shared cache line.
+ */
+public final class ReaderMetrics {
+
+    private final LongAdder reads = new LongAdder();
+    private final LongAdder floats = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder readNanos = new LongAdder();
+    private final LongAdder ioBytes = new LongAdder();
+    private final LongAdder ioNanos = new LongAdder();
+    private final LongAdder copyBytes = new LongAdder();
+    private final LongAdder copyNanos = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    /**
+     * Record a successful read
+     *
+     * @param floats the number of floats read
+     * @param nanos  the read duration
+     */
+    public void record(long floats, long nanos) {
+        reads.increment();
+        this.floats.add(floats);
+        readNanos.add(nanos);
+        latency.record(nanos);
+    }
+
+    /**
+     * Record a failed read
+     */
+    public void error() {
+        errors.increment();
+    }
+
+    /**
+     * Record an I/O phase of a read: bytes read from the storage file to a buffer
+     *
+     * @param bytes the number of bytes read
+     * @param nanos the I/O duration
+     */
+    public void recordIo(long bytes, long nanos) {
+        ioBytes.add(bytes);
+        ioNanos.add(nanos);
+    }
+
+    /**
+     * Record a copy phase of a read: bytes copied (or byte swapped) from a buffer to the destination
+     *
+     * @param bytes the number of bytes copied
+     * @param nanos the copy duration
+     */
+    public void recordCopy(long bytes, long nanos) {
+        copyBytes.add(bytes);
+        copyNanos.add(nanos);
+    }
+
+    public long reads() {
+        return reads.sum();
+    }
+
+    public long floats() {
+        return floats.sum();
+    }
+
+    public long bytes() {
+        return floats() * Float.BYTES;
+    }
+
+    public long errors() {
+        return errors.sum();
+    }
+
+    /**
+     * @return the total time spent in reads (of all threads)
+     */
+    public long readNanos() {
+        return readNanos.sum();
+    }
+
+    public long ioBytes() {
+        return ioBytes.sum();
+    }
+
+    /**
+     * @return the total time spent in I/O phases (of all threads)
+     */
+    public long ioNanos() {
+        return ioNanos.sum();
+    }
+
+    public long copyBytes() {
+        return copyBytes.sum();
+    }
+
+    /**
+     * @return the total time spent in copy phases (of all threads)
+     */
+    public long copyNanos() {
+        return copyNanos.sum();
+    }
+
+    /**
+     * @return the histogram of read latencies, in nanoseconds
+     */
+    public LatencyHistogram latency() {
+        return latency;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("reads=%d errors=%d bytes=%d time=%.1fms io=%.1fms copy=%.1fms latency(%s)", reads(),
+                errors(), bytes(), readNanos() * 1E-6, ioNanos() * 1E-6, copyNanos() * 1E-6, latency);
+    }
+}
@@ -0,0 +1,37 @@
+package org.yah.benchmark.nio.reader;
+
+/**
+ * Expected access pattern of a mapped region of a storage, given to the OS with {@code madvise} when available
+ * (see {@link MappedFloatChunkReader#advise(long, long, AccessHint)}).
+ */
+public enum AccessHint {
+    /**
+     * default read ahead
+     */
+    NORMAL(0),
+    /**
+     * no read ahead: only faulted pages are read
+     */
+    RANDOM(1),
+    /**
+     * aggressive read ahead, pages can be freed soon after being read
+     */
+    SEQUENTIAL(2),
+    /**
+     * pages will be read soon: start reading them in background (or load them if madvise is not available)
+     */
+    WILL_NEED(3);
+
+    private final int advice;
+
+    AccessHint(int advice) {
+        this.advice = advice;
+    }
+
+    /**
+     * @return the madvise advice value (same on Linux and BSDs)
+     */
+    int advice() {
+        return advice;
+    }
+}
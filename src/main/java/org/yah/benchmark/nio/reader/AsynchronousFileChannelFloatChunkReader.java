@@ -0,0 +1,170 @@
+package org.yah.benchmark.nio.reader;
+
+import org.yah.benchmark.nio.storage.Compression;
+import org.yah.benchmark.nio.storage.ElementType;
+import org.yah.benchmark.nio.storage.FloatStorageHeader;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.await;
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.readableLength;
+
+/**
+ * Use an {@link AsynchronousFileChannel} on the storage file: {@link #readAsync(float[], long, int, int)} does not block
+ * the calling thread, and any number of reads can be in flight.<br/>
+ * Each pending read uses its own staging {@link ByteBuffer} (of at most stagingCapacity floats, direct or on java heap),
+ * refilled until the requested length is read.<br/>
+ * Thread safe: the channel is only used with positional reads.
+ */
+public final class AsynchronousFileChannelFloatChunkReader implements FloatChunkReader {
+
+    private final AsynchronousFileChannel fileChannel;
+    private final FloatStorageHeader header;
+    private final int stagingCapacity;
+    private final boolean directStagingBuffer;
+
+    /**
+     * @param filePath the storage file path
+     */
+    public AsynchronousFileChannelFloatChunkReader(Path filePath) throws IOException {
+        this(filePath, 1024 * 1024, false, null);
+    }
+
+    /**
+     * @param filePath            the storage file path
+     * @param stagingCapacity     the max capacity (in float count) of the staging buffer of a pending read
+     * @param directStagingBuffer true to use direct {@link ByteBuffer} as staging buffers
+     * @param executorService     the executor handling I/O completions, null to use the channel default thread pool
+     */
+    public AsynchronousFileChannelFloatChunkReader(Path filePath, int stagingCapacity, boolean directStagingBuffer,
+                                                   ExecutorService executorService) throws IOException {
+        if (stagingCapacity <= 0)
+            throw new IllegalArgumentException("invalid staging capacity " + stagingCapacity + " must be > 0");
+        this.stagingCapacity = stagingCapacity;
+        this.directStagingBuffer = directStagingBuffer;
+        try (FileChannel headerChannel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            header = FloatStorageHeader.read(headerChannel)
+                    .requireElementType(ElementType.FLOAT32)
+                    .requireCompression(Compression.NONE);
+        }
+        fileChannel = AsynchronousFileChannel.open(filePath, Set.of(StandardOpenOption.READ), executorService);
+    }
+
+    @Override
+    public long length() {
+        return header.elementCount();
+    }
+
+    @Override
+    public void read(float[] dst, long srcIndex, int dstIndex, int length) throws IOException {
+        await(readAsync(dst, srcIndex, dstIndex, length));
+    }
+
+    @Override
+    public CompletableFuture<Void> readAsync(float[] dst, long srcIndex, int dstIndex, int length) {
+        // fail now, not in the completion handler
+        try {
+            Objects.checkFromIndexSize(dstIndex, 0, dst.length);
+            if (srcIndex < 0 || length < 0)
+                throw new IndexOutOfBoundsException("invalid srcIndex " + srcIndex + " or length " + length);
+        } catch (IndexOutOfBoundsException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        // no more than dst capacity from dstIndex, and file length from srcIndex
+        int count = (int) readableLength(length, dst.length - dstIndex, length() - srcIndex);
+        if (count == 0)
+            return CompletableFuture.completedFuture(null);
+        PendingRead pendingRead = new PendingRead(dst, srcIndex, dstIndex, count);
+        pendingRead.readChunk();
+        return pendingRead.future;
+    }
+
+    @Override
+    public void close() throws IOException {
+        // pending reads will fail with an AsynchronousCloseException
+        fileChannel.close();
+    }
+
+    /**
+     * State of a read in flight: read chunks of staging buffer capacity and copy them to dst, until remaining is 0.
+     */
+    private final class PendingRead implements CompletionHandler<Integer, Void> {
+
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private final float[] dst;
+        private final ByteBuffer stagingBuffer;
+        private final FloatBuffer floatBuffer;
+
+        private long position; // next byte to read in file
+        private int dstIndex;
+        private int remaining; // floats not yet copied to dst
+
+        private PendingRead(float[] dst, long srcIndex, int dstIndex, int length) {
+            this.dst = dst;
+            this.position = header.position(srcIndex);
+            this.dstIndex = dstIndex;
+            this.remaining = length;
+            int capacity = Math.min(stagingCapacity, length) * Float.BYTES;
+            stagingBuffer = (directStagingBuffer ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity))
+                    .order(header.byteOrder());
+            floatBuffer = stagingBuffer.asFloatBuffer();
+        }
+
+        private void readChunk() {
+            int chunkSize = Math.min(stagingCapacity, remaining);
+            stagingBuffer.position(0).limit(chunkSize * Float.BYTES);
+            read();
+        }
+
+        private void read() {
+            try {
+                fileChannel.read(stagingBuffer, position, null, this);
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        }
+
+        @Override
+        public void completed(Integer bytesRead, Void unused) {
+            // anything thrown here would be lost in the channel thread, leaving the future never completed
+            try {
+                if (bytesRead < 0) {
+                    future.completeExceptionally(new EOFException("end of file reached at position " + position));
+                    return;
+                }
+                position += bytesRead;
+                if (stagingBuffer.hasRemaining()) {
+                    read();
+                    return;
+                }
+                int chunkSize = stagingBuffer.limit() / Float.BYTES;
+                floatBuffer.get(0, dst, dstIndex, chunkSize);
+                dstIndex += chunkSize;
+                remaining -= chunkSize;
+                if (remaining > 0)
+                    readChunk();
+                else
+                    future.complete(null);
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }
+
+        @Override
+        public void failed(Throwable exc, Void unused) {
+            future.completeExceptionally(exc);
+        }
+    }
+}
@@ -1,26 +1,147 @@
 package org.yah.benchmark.nio.reader;
 
+import org.yah.benchmark.nio.metrics.MappingEvent;
+import org.yah.benchmark.nio.metrics.ReadPhaseEvent;
+import org.yah.benchmark.nio.metrics.ReaderMetrics;
+import org.yah.benchmark.nio.storage.Compression;
+import org.yah.benchmark.nio.storage.ElementType;
+import org.yah.benchmark.nio.storage.FloatStorageHeader;
+
 import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 
 /**
- * Support class for all implementations of {@link FloatChunkReader}
+ * Support class for all implementations of {@link FloatChunkReader}<br/>
+ * Readers reading the channel through a staging buffer time their I/O and copy phases apart (see
+ * {@link #phaseMetrics(ReaderMetrics)}). Mapped readers do not: their I/O is the page faults of their copies.
  */
 public abstract class BaseFloatChunkReader implements FloatChunkReader {
     protected final Path filePath;
 
     protected final FileChannel fileChannel;
 
+    /**
+     * storage header, read when opened
+     */
+    protected final FloatStorageHeader header;
+
+    private volatile ReaderMetrics phaseMetrics;
+
     protected BaseFloatChunkReader(Path filePath) throws IOException {
+        this(filePath, Compression.NONE);
+    }
+
+    /**
+     * @param filePath    the storage file path
+     * @param compression the expected compression of the storage
+     */
+    protected BaseFloatChunkReader(Path filePath, Compression compression) throws IOException {
+        this(filePath, compression, ElementType.FLOAT32);
+    }
+
+    /**
+     * @param filePath     the storage file path
+     * @param compression  the expected compression of the storage
+     * @param elementTypes the supported types of elements
+     */
+    protected BaseFloatChunkReader(Path filePath, Compression compression, ElementType... elementTypes) throws IOException {
         this.filePath = filePath;
         fileChannel = FileChannel.open(filePath, StandardOpenOption.READ);
+        try {
+            header = FloatStorageHeader.read(fileChannel)
+                    .requireElementType(elementTypes)
+                    .requireCompression(compression);
+        } catch (IOException | RuntimeException e) {
+            fileChannel.close();
+            throw e;
+        }
     }
 
+    /**
+     * @return the element count of the header read when opened
+     */
     @Override
-    public final long length() throws IOException {
-        return fileChannel.size() / Float.BYTES;
+    public long length() {
+        return header.elementCount();
+    }
+
+    /**
+     * @return the position in file of the float at index
+     */
+    protected final long position(long index) {
+        return header.position(index);
+    }
+
+    /**
+     * @return true if floats are stored in native order
+     */
+    protected final boolean nativeOrder() {
+        return header.byteOrder() == ByteOrder.nativeOrder();
+    }
+
+    /**
+     * Map a read only region of the storage file, emitting a {@link MappingEvent}.
+     */
+    protected final MappedByteBuffer map(long position, long size) throws IOException {
+        MappingEvent event = new MappingEvent();
+        event.begin();
+        MappedByteBuffer buffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        event.commit(filePath.toString(), position, size);
+        return buffer;
+    }
+
+    /**
+     * Map a read only region of the storage file in a segment owned by arena, emitting a {@link MappingEvent}.
+     */
+    protected final MemorySegment map(long position, long size, Arena arena) throws IOException {
+        MappingEvent event = new MappingEvent();
+        event.begin();
+        MemorySegment segment = fileChannel.map(FileChannel.MapMode.READ_ONLY, position, size, arena);
+        event.commit(filePath.toString(), position, size);
+        return segment;
+    }
+
+    /**
+     * @param metrics the metrics recording the I/O and copy phases of reads, null to stop recording them
+     */
+    public final void phaseMetrics(ReaderMetrics metrics) {
+        phaseMetrics = metrics;
+    }
+
+    /**
+     * Begin an I/O or copy phase of a read, to end with {@link #endIo} or {@link #endCopy}
+     */
+    protected static ReadPhaseEvent beginPhase() {
+        ReadPhaseEvent phase = new ReadPhaseEvent();
+        phase.start();
+        return phase;
+    }
+
+    /**
+     * End an I/O phase, reading bytes from the storage file to a buffer, emitting a {@link ReadPhaseEvent}.
+     */
+    protected final void endIo(ReadPhaseEvent phase, long bytes) {
+        long nanos = phase.commit(filePath, ReadPhaseEvent.IO, bytes);
+        ReaderMetrics metrics = phaseMetrics;
+        if (metrics != null)
+            metrics.recordIo(bytes, nanos);
+    }
+
+    /**
+     * End a copy phase, copying (or byte swapping) bytes from a buffer to the destination, emitting a
+     * {@link ReadPhaseEvent}.
+     */
+    protected final void endCopy(ReadPhaseEvent phase, long bytes) {
+        long nanos = phase.commit(filePath, ReadPhaseEvent.COPY, bytes);
+        ReaderMetrics metrics = phaseMetrics;
+        if (metrics != null)
+            metrics.recordCopy(bytes, nanos);
     }
 
     @Override
@@ -0,0 +1,286 @@
+package org.yah.benchmark.nio.reader;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.VarHandle;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.await;
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.readableLength;
+
+/**
+ * Cache fixed size blocks of floats of a delegate reader in a bounded off-heap {@link Arena}, evicting blocks with the
+ * CLOCK (second chance) policy.<br/>
+ * Blocks are indexed in a concurrent block table: reading cached blocks is lock free (a per slot sequence number
+ * detects a concurrent eviction, and the copy is retried). A missing block is assigned a slot under the load lock, then
+ * loaded without the lock straight into the cache memory (the slot sequence stays odd while loading, so the slot is
+ * neither read nor evicted), by delegates created from a {@link FloatChunkReaderFactory}. Misses of different blocks
+ * are loaded concurrently, concurrent misses of the same block wait for a single load. When all slots are loading, a
+ * miss waits for one of the loads to complete (without the lock) before looking for a slot again.<br/>
+ * Delegates are leased from a {@link PooledFloatChunkReader}: at most maxDelegates delegates are open at once.<br/>
+ * The storage length is read once when created: floats appended later are not visible.<br/>
+ * Thread safe (a delegate is leased from a pool for each load, delegates do not have to be thread safe).
+ */
+public final class BlockCacheFloatChunkReader implements FloatChunkReader {
+
+    private static final ValueLayout.OfFloat FLOAT_LAYOUT = ValueLayout.JAVA_FLOAT; // native order
+    private static final long NO_BLOCK = -1;
+
+    /**
+     * Cache counters
+     *
+     * @param hits      number of block accesses served from cache
+     * @param misses    number of block accesses loaded from delegate
+     * @param evictions number of cached blocks replaced by another block
+     */
+    public record Stats(long hits, long misses, long evictions) {
+    }
+
+    private final PooledFloatChunkReader delegates;
+    private final int blockSize;
+    private final int maxBlocks;
+    private final long length;
+
+    private final Arena arena;
+    private final MemorySegment blocks;
+
+    /**
+     * block index -> slot
+     */
+    private final Map<Long, Integer> blockTable = new ConcurrentHashMap<>();
+    /**
+     * slot -> block index (or NO_BLOCK)
+     */
+    private final AtomicLongArray slotBlocks;
+    /**
+     * slot sequence: odd while the slot is being loaded
+     */
+    private final AtomicLongArray slotSequences;
+    /**
+     * slot referenced bit, cleared by the clock hand
+     */
+    private final AtomicIntegerArray slotReferences;
+    /**
+     * block index -> load in progress
+     */
+    private final Map<Long, CompletableFuture<Void>> pendingLoads = new ConcurrentHashMap<>();
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private int clockHand; // guarded by loadLock
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Use at most one delegate per available processor
+     *
+     * @param storagePath the storage file path
+     * @param factory     the factory of the delegate reader loading blocks
+     * @param blockSize   the number of floats per block
+     * @param maxBlocks   the max number of cached blocks (cache capacity is maxBlocks * blockSize floats)
+     */
+    public BlockCacheFloatChunkReader(Path storagePath, FloatChunkReaderFactory factory, int blockSize, int maxBlocks) throws IOException {
+        this(storagePath, factory, blockSize, maxBlocks, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param storagePath  the storage file path
+     * @param factory      the factory of the delegate reader loading blocks
+     * @param blockSize    the number of floats per block
+     * @param maxBlocks    the max number of cached blocks (cache capacity is maxBlocks * blockSize floats)
+     * @param maxDelegates the max number of delegates open at once (max number of concurrent loads)
+     */
+    public BlockCacheFloatChunkReader(Path storagePath, FloatChunkReaderFactory factory, int blockSize, int maxBlocks,
+                                      int maxDelegates) throws IOException {
+        if (blockSize <= 0)
+            throw new IllegalArgumentException("invalid block size " + blockSize + " must be > 0");
+        if (maxBlocks <= 0)
+            throw new IllegalArgumentException("invalid max blocks " + maxBlocks + " must be > 0");
+        this.blockSize = blockSize;
+        this.maxBlocks = maxBlocks;
+        delegates = new PooledFloatChunkReader(storagePath, factory, maxDelegates);
+        length = delegates.length();
+        arena = Arena.ofShared();
+        try {
+            blocks = arena.allocate((long) blockSize * maxBlocks * Float.BYTES, Float.BYTES);
+        } catch (RuntimeException | Error e) {
+            arena.close();
+            delegates.close();
+            throw e;
+        }
+        slotBlocks = new AtomicLongArray(maxBlocks);
+        for (int i = 0; i < maxBlocks; i++)
+            slotBlocks.set(i, NO_BLOCK);
+        slotSequences = new AtomicLongArray(maxBlocks);
+        slotReferences = new AtomicIntegerArray(maxBlocks);
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    @Override
+    public void read(float[] dst, long srcIndex, int dstIndex, int length) throws IOException {
+        int remaining = (int) readableLength(length, dst.length - dstIndex, this.length - srcIndex);
+        while (remaining > 0) {
+            long blockIndex = srcIndex / blockSize;
+            int indexInBlock = (int) (srcIndex - blockIndex * blockSize);
+            int count = Math.min(remaining, blockSize - indexInBlock);
+            if (!readCached(blockIndex, indexInBlock, dst, dstIndex, count))
+                readMissing(blockIndex, indexInBlock, dst, dstIndex, count);
+            srcIndex += count;
+            dstIndex += count;
+            remaining -= count;
+        }
+    }
+
+    /**
+     * @return the cache counters
+     */
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            delegates.close();
+        } finally {
+            arena.close();
+        }
+    }
+
+    private boolean readCached(long blockIndex, int indexInBlock, float[] dst, int dstIndex, int count) {
+        if (!copyCached(blockIndex, indexInBlock, dst, dstIndex, count))
+            return false;
+        hits.increment();
+        return true;
+    }
+
+    /**
+     * copy floats of a cached block, if it is cached and not evicted while copying
+     */
+    private boolean copyCached(long blockIndex, int indexInBlock, float[] dst, int dstIndex, int count) {
+        Integer slot = blockTable.get(blockIndex);
+        if (slot == null)
+            return false;
+        long sequence = slotSequences.get(slot);
+        if ((sequence & 1) != 0 || slotBlocks.get(slot) != blockIndex)
+            return false; // being (re)loaded
+        copy(slot, indexInBlock, dst, dstIndex, count);
+        VarHandle.acquireFence(); // copy loads must not move after sequence check
+        if (slotSequences.get(slot) != sequence)
+            return false; // evicted while copying, dst will be overwritten
+        slotReferences.set(slot, 1);
+        return true;
+    }
+
+    private void readMissing(long blockIndex, int indexInBlock, float[] dst, int dstIndex, int count) throws IOException {
+        CompletableFuture<Void> pendingLoad = null;
+        int slot = -1;
+        while (pendingLoad == null) {
+            CompletableFuture<Void> otherLoad = null;
+            loadLock.lock();
+            try {
+                pendingLoad = pendingLoads.get(blockIndex);
+                if (pendingLoad == null) {
+                    if (readCached(blockIndex, indexInBlock, dst, dstIndex, count))
+                        return; // loaded by another thread while waiting for lock
+                    // reserve a slot, loaded without the lock
+                    slot = evict();
+                    if (slot >= 0) {
+                        slotSequences.incrementAndGet(slot); // odd: loading
+                        slotBlocks.set(slot, NO_BLOCK);
+                        pendingLoad = new CompletableFuture<>();
+                        pendingLoads.put(blockIndex, pendingLoad);
+                    } else {
+                        otherLoad = pendingLoads.values().stream().findAny().orElse(null);
+                    }
+                }
+            } finally {
+                loadLock.unlock();
+            }
+            if (otherLoad != null)
+                await(otherLoad.exceptionally(e -> null)); // all slots loading: retry once a slot is loaded (or freed)
+        }
+
+        if (slot >= 0) {
+            try {
+                load(slot, blockIndex);
+                pendingLoad.complete(null);
+            } catch (IOException | RuntimeException e) {
+                pendingLoad.completeExceptionally(e);
+                throw e;
+            } finally {
+                pendingLoads.remove(blockIndex);
+            }
+            misses.increment();
+        } else {
+            await(pendingLoad); // loaded by another thread
+            hits.increment();
+        }
+        if (!copyCached(blockIndex, indexInBlock, dst, dstIndex, count)) {
+            // already evicted by another miss
+            delegates.read(dst, blockIndex * blockSize + indexInBlock, dstIndex, count);
+        }
+    }
+
+    /**
+     * Advance the clock hand to the first empty or unreferenced slot, clearing the referenced bits on the way, and
+     * skipping slots being loaded.
+     *
+     * @return the free slot (removed from block table), or -1 if all slots are being loaded
+     */
+    private int evict() {
+        int loading = 0;
+        while (true) {
+            int slot = clockHand;
+            clockHand = (clockHand + 1) % maxBlocks;
+            if ((slotSequences.get(slot) & 1) != 0) {
+                if (++loading == maxBlocks)
+                    return -1;
+                continue; // being loaded
+            }
+            loading = 0;
+            long blockIndex = slotBlocks.get(slot);
+            if (blockIndex == NO_BLOCK)
+                return slot;
+            if (slotReferences.compareAndSet(slot, 1, 0))
+                continue; // second chance
+            blockTable.remove(blockIndex);
+            evictions.increment();
+            return slot;
+        }
+    }
+
+    /**
+     * Load a block in a slot reserved by {@link #readMissing} (sequence odd).
+     */
+    private void load(int slot, long blockIndex) throws IOException {
+        try {
+            long blockStart = blockIndex * blockSize;
+            long blockLength = Math.min(blockSize, length - blockStart);
+            delegates.read(blocks, blockStart, (long) slot * blockSize, blockLength);
+            slotBlocks.set(slot, blockIndex);
+            blockTable.put(blockIndex, slot);
+        } finally {
+            slotSequences.incrementAndGet(slot); // even: stable (empty on error)
+        }
+    }
+
+    private void copy(int slot, int indexInBlock, float[] dst, int dstIndex, int count) {
+        long offset = ((long) slot * blockSize + indexInBlock) * Float.BYTES;
+        MemorySegment.copy(blocks, FLOAT_LAYOUT, offset, dst, dstIndex, count);
+    }
+
+}
@@ -1,20 +1,31 @@
 package org.yah.benchmark.nio.reader;
 
 import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
 import java.nio.MappedByteBuffer;
-import java.nio.channels.FileChannel;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.readableLength;
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.sortBySrcIndex;
 
 /**
  * Use multiple {@link MappedByteBuffer}, and create slice of {@link java.nio.FloatBuffer} from this mapped
  * buffer when reading a chunk.<br/>
- * MappedByteBuffer are cached when first read.
+ * MappedByteBuffer are cached when first read.<br/>
+ * Reading to a {@link MemorySegment} is a bulk copy from the mapped buffers, and {@link #view(long, long)} returns a read
+ * only slice of a mapped buffer (the view can not cross mapped buffers boundaries, and the storage must be in native
+ * order).<br/>
+ * Batches are not coalesced (there is no I/O to save): requests are copied from the mapped buffers in srcIndex order.<br/>
+ * Access hints and preloading map the buffers of the range up front (instead of on first read), then apply to each
+ * mapped buffer slice.
  */
-public final class CachedMappedFileFloatChunkReader extends BaseFloatChunkReader {
+public final class CachedMappedFileFloatChunkReader extends BaseFloatChunkReader implements MappedFloatChunkReader {
 
     private static final int CHUNK_FLOATS = Integer.MAX_VALUE / Float.BYTES;
     private static final int CHUNK_SIZE = CHUNK_FLOATS * Float.BYTES; // max size of a mapped byte buffer (despite size param is a long ...)
@@ -31,6 +42,10 @@ public final class CachedMappedFileFloatChunkReader extends BaseFloatChunkReader
 
     @Override
     public void read(float[] dst, long srcIndex, int dstIndex, int length) throws IOException {
+        // cap length: no more than dst capacity from dstIndex, and file length from srcIndex
+        length = (int) readableLength(length, dst.length - dstIndex, length() - srcIndex);
+        if (length == 0)
+            return;
         int chunkIndex = getBufferIndex(srcIndex);
         ByteBuffer buffer = getBufferChunk(chunkIndex);
 
@@ -48,6 +63,77 @@ public final class CachedMappedFileFloatChunkReader extends BaseFloatChunkReader
         }
     }
 
+    @Override
+    public long read(MemorySegment dst, long srcIndex, long dstIndex, long length) throws IOException {
+        long count = readableLength(length, dst.byteSize() / Float.BYTES - dstIndex, length() - srcIndex);
+        long remaining = count;
+        while (remaining > 0) {
+            int chunkIndex = getBufferIndex(srcIndex);
+            MemorySegment chunk = MemorySegment.ofBuffer(getBufferChunk(chunkIndex));
+            long indexInChunk = srcIndex - chunkIndex * (long) CHUNK_FLOATS;
+            long lengthInChunk = Math.min(remaining, chunk.byteSize() / Float.BYTES - indexInChunk);
+            if (nativeOrder())
+                MemorySegment.copy(chunk, indexInChunk * Float.BYTES, dst, dstIndex * Float.BYTES, lengthInChunk * Float.BYTES);
+            else
+                MemorySegment.copy(chunk, ValueLayout.JAVA_FLOAT_UNALIGNED.withOrder(header.byteOrder()), indexInChunk * Float.BYTES,
+                        dst, ValueLayout.JAVA_FLOAT_UNALIGNED, dstIndex * Float.BYTES, lengthInChunk);
+            srcIndex += lengthInChunk;
+            dstIndex += lengthInChunk;
+            remaining -= lengthInChunk;
+        }
+        return count;
+    }
+
+    @Override
+    public MemorySegment view(long srcIndex, long length) throws IOException {
+        if (!nativeOrder())
+            throw new UnsupportedOperationException("storage " + filePath + " is not in native order");
+        int chunkIndex = getBufferIndex(srcIndex);
+        if (getBufferIndex(srcIndex + Math.max(0, length - 1)) != chunkIndex)
+            throw new IllegalArgumentException(String.format("view [%d, %d[ crosses mapped buffer %d boundary", srcIndex, srcIndex + length, chunkIndex));
+        long indexInChunk = srcIndex - chunkIndex * (long) CHUNK_FLOATS;
+        return MemorySegment.ofBuffer(getBufferChunk(chunkIndex))
+                .asSlice(indexInChunk * Float.BYTES, length * Float.BYTES)
+                .asReadOnly();
+    }
+
+    @Override
+    public boolean sharedViews() {
+        return true;
+    }
+
+    @Override
+    public boolean advise(long from, long to, AccessHint hint) throws IOException {
+        boolean advised = true;
+        for (MemorySegment region : regions(from, to))
+            advised &= MappedRegions.advise(region, hint);
+        return advised;
+    }
+
+    @Override
+    public void preload(long from, long to, int threads) throws IOException {
+        MappedRegions.preload(regions(from, to), threads);
+    }
+
+    /**
+     * @return the slices of mapped buffers of floats in [from, to[
+     */
+    private List<MemorySegment> regions(long from, long to) throws IOException {
+        long end = Math.min(to, length());
+        if (from < 0 || from > end)
+            throw new IllegalArgumentException(String.format("invalid range [%d, %d[", from, to));
+        List<MemorySegment> regions = new ArrayList<>();
+        while (from < end) {
+            int chunkIndex = getBufferIndex(from);
+            MemorySegment chunk = MemorySegment.ofBuffer(getBufferChunk(chunkIndex));
+            long indexInChunk = from - chunkIndex * (long) CHUNK_FLOATS;
+            long lengthInChunk = Math.min(end - from, chunk.byteSize() / Float.BYTES - indexInChunk);
+            regions.add(chunk.asSlice(indexInChunk * Float.BYTES, lengthInChunk * Float.BYTES));
+            from += lengthInChunk;
+        }
+        return regions;
+    }
+
     private ByteBuffer getBufferChunk(int chunkIndex) throws IOException {
         if (bufferChunks[chunkIndex] == null) {
             bufferChunks[chunkIndex] = mapBuffer(chunkIndex);
@@ -55,6 +141,12 @@ public final class CachedMappedFileFloatChunkReader extends BaseFloatChunkReader
         return bufferChunks[chunkIndex];
     }
 
+    @Override
+    public void readBatch(ReadRequest[] requests, int maxGap) throws IOException {
+        for (ReadRequest request : sortBySrcIndex(requests))
+            read(request.dst(), request.srcIndex(), request.dstIndex(), request.length());
+    }
+
     @Override
     public void close() throws IOException {
         Arrays.fill(bufferChunks, null);
@@ -63,12 +155,12 @@ public final class CachedMappedFileFloatChunkReader extends BaseFloatChunkReader
     }
 
     private ByteBuffer mapBuffer(int bufferIndex) throws IOException {
-        long fileSize = fileChannel.size();
-        long startOffset = bufferIndex * (long) CHUNK_SIZE;
-        if (startOffset >= fileSize)
-            throw new IllegalArgumentException(String.format("buffer %d startOffset %s overflow file size %d", bufferIndex, startOffset, fileSize));
-        long size = Math.min(CHUNK_SIZE, fileSize - startOffset);
-        return fileChannel.map(FileChannel.MapMode.READ_ONLY, startOffset, size).order(ByteOrder.nativeOrder());
+        long dataEnd = header.endPosition();
+        long startOffset = position(bufferIndex * (long) CHUNK_FLOATS);
+        if (startOffset >= dataEnd)
+            throw new IllegalArgumentException(String.format("buffer %d startOffset %s overflow data end %d", bufferIndex, startOffset, dataEnd));
+        long size = Math.min(CHUNK_SIZE, dataEnd - startOffset);
+        return map(startOffset, size).order(header.byteOrder());
     }
 
     /**
@@ -0,0 +1,194 @@
+package org.yah.benchmark.nio.reader;
+
+import org.yah.benchmark.nio.storage.Compression;
+import org.yah.benchmark.nio.storage.FloatBlockCodec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.await;
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.readableLength;
+
+/**
+ * Read a compressed storage ({@link Compression#XOR_SHUFFLE_DEFLATE}, generated by
+ * {@link org.yah.benchmark.nio.writer.FloatStorageGenerator#generateCompressed}).<br/>
+ * The block index is loaded when opened, and only the blocks touched by a read are read (one positional read per
+ * block) and decoded. Blocks fully covered by the read are decoded straight into dst, partial blocks are decoded in a
+ * block buffer and kept until another block is decoded in it (so sequential small reads decode each block once).<br/>
+ * Reads of at least {@link #PARALLEL_BLOCKS} blocks are split in contiguous ranges of blocks decoded in parallel, by
+ * the calling thread and up to parallelism - 1 background threads.<br/>
+ * <strong>Not thread safe</strong>
+ */
+public final class CompressedFloatChunkReader extends BaseFloatChunkReader {
+
+    /**
+     * min number of blocks touched by a read to decode them in parallel
+     */
+    public static final int PARALLEL_BLOCKS = 4;
+
+    private final int blockSize;
+    private final long[] blockPositions;
+    private final int parallelism;
+    private final ExecutorService executorService;
+
+    /**
+     * per decoding thread state: codec, encoded block bytes, decoded partial block and its index
+     */
+    private final FloatBlockCodec[] codecs;
+    private final byte[][] encodedBlocks;
+    private final float[][] decodedBlocks;
+    private final long[] decodedBlockIndices;
+
+    /**
+     * @param filePath the storage file path
+     */
+    public CompressedFloatChunkReader(Path filePath) throws IOException {
+        this(filePath, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param filePath    the storage file path
+     * @param parallelism the max number of threads decoding blocks of a read (including the calling thread)
+     */
+    public CompressedFloatChunkReader(Path filePath, int parallelism) throws IOException {
+        super(filePath, Compression.XOR_SHUFFLE_DEFLATE);
+        if (parallelism <= 0) {
+            fileChannel.close();
+            throw new IllegalArgumentException("invalid parallelism " + parallelism + " must be > 0");
+        }
+        blockSize = header.blockSize();
+        try {
+            blockPositions = readBlockPositions();
+        } catch (IOException | RuntimeException e) {
+            fileChannel.close();
+            throw e;
+        }
+        this.parallelism = parallelism;
+        executorService = parallelism > 1 ? Executors.newFixedThreadPool(parallelism - 1, runnable -> {
+            Thread thread = new Thread(runnable, "compressed-reader");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        codecs = new FloatBlockCodec[parallelism];
+        encodedBlocks = new byte[parallelism][];
+        decodedBlocks = new float[parallelism][];
+        decodedBlockIndices = new long[parallelism];
+        for (int i = 0; i < parallelism; i++) {
+            codecs[i] = new FloatBlockCodec();
+            encodedBlocks[i] = new byte[0];
+            decodedBlockIndices[i] = -1;
+        }
+    }
+
+    @Override
+    public void read(float[] dst, long srcIndex, int dstIndex, int length) throws IOException {
+        int count = (int) readableLength(length, dst.length - dstIndex, length() - srcIndex);
+        if (count == 0)
+            return;
+        long firstBlock = srcIndex / blockSize;
+        long lastBlock = (srcIndex + count - 1) / blockSize;
+        int blocks = (int) (lastBlock - firstBlock + 1);
+        int tasks = blocks < PARALLEL_BLOCKS ? 1 : Math.min(parallelism, blocks);
+        if (tasks == 1) {
+            readBlocks(0, firstBlock, lastBlock, dst, srcIndex, dstIndex, count);
+            return;
+        }
+
+        int blocksPerTask = (blocks + tasks - 1) / tasks;
+        CompletableFuture<?>[] futures = new CompletableFuture[tasks - 1];
+        for (int task = 1; task < tasks; task++) {
+            int taskIndex = task;
+            long taskFirstBlock = firstBlock + (long) task * blocksPerTask;
+            long taskLastBlock = Math.min(lastBlock, taskFirstBlock + blocksPerTask - 1);
+            futures[task - 1] = CompletableFuture.runAsync(() -> {
+                try {
+                    readBlocks(taskIndex, taskFirstBlock, taskLastBlock, dst, srcIndex, dstIndex, count);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, executorService);
+        }
+        try {
+            readBlocks(0, firstBlock, firstBlock + blocksPerTask - 1, dst, srcIndex, dstIndex, count);
+        } finally {
+            // codecs and buffers can not be reused before all tasks are done
+            CompletableFuture.allOf(futures).exceptionally(e -> null).join();
+        }
+        for (CompletableFuture<?> future : futures)
+            await(future);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (executorService != null)
+            executorService.shutdown();
+        for (FloatBlockCodec codec : codecs)
+            codec.close();
+        super.close();
+    }
+
+    /**
+     * Copy the floats of blocks [firstBlock, lastBlock] in [srcIndex, srcIndex + count[ to dst, using the state of task
+     */
+    private void readBlocks(int task, long firstBlock, long lastBlock, float[] dst, long srcIndex, int dstIndex, int count) throws IOException {
+        long srcEnd = srcIndex + count;
+        for (long block = firstBlock; block <= lastBlock; block++) {
+            long blockStart = block * blockSize;
+            int blockLength = (int) Math.min(blockSize, length() - blockStart);
+            long from = Math.max(srcIndex, blockStart);
+            long to = Math.min(srcEnd, blockStart + blockLength);
+            int dstOffset = dstIndex + (int) (from - srcIndex);
+            if (from == blockStart && to == blockStart + blockLength) {
+                decodeBlock(task, block, dst, dstOffset, blockLength);
+            } else {
+                float[] decoded = decodedBlock(task, block, blockLength);
+                System.arraycopy(decoded, (int) (from - blockStart), dst, dstOffset, (int) (to - from));
+            }
+        }
+    }
+
+    /**
+     * @return the decoded block buffer of task, containing block
+     */
+    private float[] decodedBlock(int task, long block, int blockLength) throws IOException {
+        if (decodedBlocks[task] == null)
+            decodedBlocks[task] = new float[blockSize];
+        if (decodedBlockIndices[task] != block) {
+            decodedBlockIndices[task] = -1; // invalid if decoding fails
+            decodeBlock(task, block, decodedBlocks[task], 0, blockLength);
+            decodedBlockIndices[task] = block;
+        }
+        return decodedBlocks[task];
+    }
+
+    private void decodeBlock(int task, long block, float[] dst, int dstIndex, int blockLength) throws IOException {
+        long position = blockPositions[(int) block];
+        int size = (int) (blockPositions[(int) block + 1] - position);
+        if (encodedBlocks[task].length < size)
+            encodedBlocks[task] = new byte[size];
+        ByteBuffer buffer = ByteBuffer.wrap(encodedBlocks[task], 0, size);
+        while (buffer.hasRemaining()) {
+            if (fileChannel.read(buffer, position + buffer.position()) < 0)
+                throw new IOException("end of file reached reading block " + block + " of " + filePath);
+        }
+        codecs[task].decode(encodedBlocks[task], 0, size, dst, dstIndex, blockLength);
+    }
+
+    private long[] readBlockPositions() throws IOException {
+        long blockCount = header.blockCount();
+        ByteBuffer buffer = ByteBuffer.allocate((int) (blockCount + 1) * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (fileChannel.read(buffer, header.dataOffset() + buffer.position()) < 0)
+                throw new IOException("end of file reached reading block index of " + filePath);
+        }
+        long[] positions = new long[(int) blockCount + 1];
+        buffer.flip().asLongBuffer().get(positions);
+        return positions;
+    }
+}
@@ -1,41 +1,102 @@
 package org.yah.benchmark.nio.reader;
 
+import org.yah.benchmark.nio.metrics.ChunkReadEvent;
+import org.yah.benchmark.nio.metrics.FanOutEvent;
+
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.nio.file.Path;
 import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.StructuredTaskScope;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.ceilDiv;
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.ioException;
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.readableLength;
 
 /**
  * A {@link java.nio.channels.FileChannel} that delegate read of floats chunks to a delegate using a given number of threads.<br/>
- * threadCount is only the maximum, each thread will at least read minChunkSize floats
+ * threadCount is only the maximum, each thread will at least read minChunkSize floats.<br/>
+ * Chunks are read by a fixed pool of platform threads (and the calling thread), or forked on virtual threads in a
+ * {@link StructuredTaskScope} (see {@link ExecutionMode}). The first failed chunk fails the read and cancels the
+ * others, the read fails once all chunks are done.<br/>
+ * Each read emits a {@link FanOutEvent}, and each chunk a {@link ChunkReadEvent} (in the thread reading it).<br/>
+ * <strong>Not thread safe</strong> (each chunk index uses its own delegate)
  */
 public class ConcurrentFloatChunkReader implements FloatChunkReader {
 
+    /**
+     * How chunks of a read are executed
+     */
+    public enum ExecutionMode {
+        /**
+         * a fixed pool of threadCount - 1 platform threads, the last chunk is read by the calling thread
+         */
+        PLATFORM_THREADS,
+        /**
+         * each chunk is forked on a new virtual thread, no thread is kept between reads
+         */
+        VIRTUAL_THREADS
+    }
+
     private final Path storagePath;
     private final FloatChunkReaderFactory factory;
     private final int threadCount;
     private final int minChunkSize;
+    private final ExecutionMode executionMode;
     private final ExecutorService executorService;
     private final FloatChunkReader[] readers;
 
     public ConcurrentFloatChunkReader(Path storagePath, FloatChunkReaderFactory factory,
                                       int threadCount, int minChunkSize) throws IOException {
+        this(storagePath, factory, threadCount, minChunkSize, ExecutionMode.PLATFORM_THREADS);
+    }
+
+    /**
+     * @param storagePath   the storage file path
+     * @param factory       the factory of delegate readers (one per chunk index)
+     * @param threadCount   the max number of chunks of a read
+     * @param minChunkSize  the min number of floats per chunk
+     * @param executionMode how chunks are executed
+     */
+    public ConcurrentFloatChunkReader(Path storagePath, FloatChunkReaderFactory factory,
+                                      int threadCount, int minChunkSize, ExecutionMode executionMode) throws IOException {
         if (threadCount <= 1)
             throw new IllegalStateException("invalid thread count " + threadCount + " must be > 1");
+        if (minChunkSize <= 0)
+            throw new IllegalArgumentException("invalid min chunk size " + minChunkSize + " must be > 0");
         this.storagePath = Objects.requireNonNull(storagePath, "storagePath is null");
         this.factory = Objects.requireNonNull(factory, "factory is null");
+        this.executionMode = Objects.requireNonNull(executionMode, "executionMode is null");
         this.threadCount = threadCount;
         this.minChunkSize = minChunkSize;
-        executorService = Executors.newFixedThreadPool(threadCount - 1);
+        executorService = executionMode == ExecutionMode.PLATFORM_THREADS ? Executors.newFixedThreadPool(threadCount - 1) : null;
         readers = new FloatChunkReader[threadCount];
         readers[0] = factory.create(storagePath);
     }
 
+    /**
+     * Create a concurrent reader of {@link DirectFloatChunkReader} delegates: chunks are read in parallel bypassing the
+     * page cache, keeping up to threadCount direct reads in flight.
+     *
+     * @see #ConcurrentFloatChunkReader(Path, FloatChunkReaderFactory, int, int, ExecutionMode)
+     */
+    public static ConcurrentFloatChunkReader direct(Path storagePath, int threadCount, int minChunkSize,
+                                                    ExecutionMode executionMode) throws IOException {
+        return new ConcurrentFloatChunkReader(storagePath, DirectFloatChunkReader::new, threadCount, minChunkSize, executionMode);
+    }
+
+    public ExecutionMode executionMode() {
+        return executionMode;
+    }
+
     @Override
     public long length() throws IOException {
         return getThreadReader(0).length();
@@ -43,52 +104,152 @@ public class ConcurrentFloatChunkReader implements FloatChunkReader {
 
     @Override
     public void read(float[] dst, long srcIndex, int dstIndex, int length) throws IOException {
-        int chunksCount = Math.min(threadCount, ceilDiv(length, minChunkSize));
-        int chunkSize = ceilDiv(length, chunksCount);
-        @SuppressWarnings("unchecked") Future<Void>[] futures = new Future[chunksCount - 1];
-        for (int i = 0; i < chunksCount - 1; i++) {
-            int threadId = i;
-            futures[i] = executorService.submit(() -> readChunk(threadId, dst, srcIndex, dstIndex, length, chunkSize));
+        int count = (int) readableLength(length, dst.length - dstIndex, length() - srcIndex);
+        if (count == 0)
+            return;
+        int chunkSize = ceilDiv(count, Math.min(threadCount, ceilDiv(count, minChunkSize)));
+        int chunksCount = ceilDiv(count, chunkSize);
+        FanOutEvent event = new FanOutEvent();
+        event.begin();
+        try {
+            if (executionMode == ExecutionMode.VIRTUAL_THREADS)
+                forkChunks(dst, srcIndex, dstIndex, count, chunkSize, chunksCount);
+            else
+                submitChunks(dst, srcIndex, dstIndex, count, chunkSize, chunksCount);
+        } catch (IOException | RuntimeException e) {
+            // cancelled chunks were interrupted, which closes interruptible channels of their delegates
+            resetReaders(e);
+            throw e;
         }
-        readChunk(chunksCount - 1, dst, srcIndex, dstIndex, length, chunkSize);
-        int remaining = futures.length;
-        while (remaining > 0) {
-            for (int i = 0; i < futures.length; i++) {
-                Future<Void> future = futures[i];
-                if (future != null && future.isDone()) {
+        event.commit(executionMode.name(), srcIndex, count, chunksCount, chunkSize);
+    }
+
+    private void submitChunks(float[] dst, long srcIndex, int dstIndex, int count, int chunkSize, int chunksCount) throws IOException {
+        int taskCount = chunksCount - 1;
+        @SuppressWarnings("unchecked") Future<Void>[] futures = new Future[taskCount];
+        // tasks are not cancelled (a task cancelled while running is not waited for), but skipped or interrupted
+        CountDownLatch finished = new CountDownLatch(taskCount);
+        AtomicBoolean failed = new AtomicBoolean();
+        AtomicReferenceArray<Thread> runners = new AtomicReferenceArray<>(taskCount);
+        int submitted = 0;
+        try {
+            for (; submitted < taskCount; submitted++) {
+                int threadId = submitted;
+                futures[submitted] = executorService.submit(() -> {
+                    runners.set(threadId, Thread.currentThread());
                     try {
-                        future.get();
-                    } catch (ExecutionException | InterruptedException e) {
-                        throw new RuntimeException(e);
+                        if (failed.get())
+                            return null; // read already failed
+                        return readChunk(threadId, dst, srcIndex, dstIndex, count, chunkSize);
+                    } finally {
+                        runners.set(threadId, null);
+                        finished.countDown();
                     }
-                    remaining--;
-                    futures[i] = null;
-                }
+                });
+            }
+            readChunk(chunksCount - 1, dst, srcIndex, dstIndex, count, chunkSize);
+            for (Future<Void> future : futures)
+                get(future);
+        } catch (IOException | RuntimeException e) {
+            failed.set(true);
+            for (int i = 0; i < taskCount; i++) {
+                Thread runner = runners.get(i);
+                if (runner != null)
+                    runner.interrupt();
             }
+            for (int i = submitted; i < taskCount; i++)
+                finished.countDown(); // not submitted
+            // running chunks write to dst, and use delegates that will be reset
+            awaitUninterruptibly(finished);
+            throw e;
         }
     }
 
-    private Void readChunk(int threadId, float[] dst, long srcIndex, int dstIndex, int length, int chunkSize) throws IOException {
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+    }
+
+    private void forkChunks(float[] dst, long srcIndex, int dstIndex, int count, int chunkSize, int chunksCount) throws IOException {
+        try (StructuredTaskScope.ShutdownOnFailure scope = new StructuredTaskScope.ShutdownOnFailure()) {
+            for (int i = 0; i < chunksCount; i++) {
+                int threadId = i;
+                scope.fork(() -> readChunk(threadId, dst, srcIndex, dstIndex, count, chunkSize));
+            }
+            scope.join();
+            scope.throwIfFailed(FloatChunkReaderSupport::ioException);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while reading chunks");
+        }
+    }
+
+    private static void get(Future<Void> future) throws IOException {
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            throw ioException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while reading chunks");
+        } catch (CancellationException e) {
+            throw new IOException("chunk read cancelled", e);
+        }
+    }
+
+    private Void readChunk(int threadId, float[] dst, long srcIndex, int dstIndex, int count, int chunkSize) throws IOException {
+        ChunkReadEvent event = new ChunkReadEvent();
+        event.begin();
         FloatChunkReader reader = getThreadReader(threadId);
-        @SuppressWarnings("IntegerMultiplicationImplicitCastToLong") long chunkSrcIndex = srcIndex + threadId * chunkSize; // can not overflow
-        int chunkDstIndex = dstIndex + threadId * chunkSize;
-        int currentChunkSize = Math.min(chunkSize, length - chunkDstIndex);
-        reader.read(dst, chunkSrcIndex, chunkDstIndex, currentChunkSize);
+        int chunkOffset = threadId * chunkSize;
+        int chunkLength = Math.min(chunkSize, count - chunkOffset);
+        reader.read(dst, srcIndex + chunkOffset, dstIndex + chunkOffset, chunkLength);
+        event.commit(threadId, srcIndex + chunkOffset, chunkLength);
         return null;
     }
 
     @Override
     public void close() throws IOException {
-        executorService.shutdown();
+        if (executorService != null)
+            executorService.shutdown();
+        closeReaders();
+    }
+
+    private void resetReaders(Exception error) {
+        try {
+            closeReaders();
+        } catch (IOException e) {
+            error.addSuppressed(e);
+        }
+    }
+
+    private synchronized void closeReaders() throws IOException {
+        IOException error = null;
         for (int i = 0; i < readers.length; i++) {
             if (readers[i] != null) {
-                readers[i].close();
+                try {
+                    readers[i].close();
+                } catch (IOException e) {
+                    if (error == null) error = e;
+                    else error.addSuppressed(e);
+                }
                 readers[i] = null;
             }
         }
+        if (error != null)
+            throw error;
     }
 
-    private FloatChunkReader getThreadReader(int threadId) throws IOException {
+    private synchronized FloatChunkReader getThreadReader(int threadId) throws IOException {
         if (readers[threadId] == null) {
             readers[threadId] = factory.create(storagePath);
         }
@@ -0,0 +1,185 @@
+package org.yah.benchmark.nio.reader;
+
+import org.yah.benchmark.nio.metrics.ReadPhaseEvent;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.STAGING_FLOATS;
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.copy;
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.readableLength;
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.swap;
+
+/**
+ * Read the storage file opened with {@code com.sun.nio.file.ExtendedOpenOption.DIRECT} (O_DIRECT): reads bypass the page cache, so
+ * one shot scans do not evict the cached pages of other processes, and every read really hits the disk.<br/>
+ * Direct I/O requires file positions, lengths and buffer addresses aligned on the file store block size: each read is
+ * widened to the enclosing aligned range in a block aligned direct staging buffer, and only the requested floats are
+ * copied to the destination.<br/>
+ * Use {@link ConcurrentFloatChunkReader#direct(Path, int, int, ConcurrentFloatChunkReader.ExecutionMode)} to keep
+ * many direct reads in flight.<br/>
+ * Staging buffers are leased from a lock free pool and all reads are positional, so the reader is thread safe.
+ */
+public final class DirectFloatChunkReader extends BaseFloatChunkReader {
+
+    /**
+     * A block aligned staging buffer, and the segment of its whole capacity
+     */
+    private record Staging(ByteBuffer buffer, MemorySegment segment) {
+    }
+
+    private final FileChannel directChannel;
+    private final int blockSize;
+    private final int stagingSize;
+    private final ConcurrentLinkedDeque<Staging> stagings = new ConcurrentLinkedDeque<>();
+
+    /**
+     * @param filePath the storage file path
+     */
+    public DirectFloatChunkReader(Path filePath) throws IOException {
+        this(filePath, STAGING_FLOATS);
+    }
+
+    /**
+     * @param filePath        the storage file path
+     * @param stagingCapacity the capacity (in float count) of each staging buffer, rounded up to a multiple of the block
+     *                        size (at least 2 blocks)
+     */
+    public DirectFloatChunkReader(Path filePath, int stagingCapacity) throws IOException {
+        super(filePath);
+        try {
+            if (stagingCapacity <= 0)
+                throw new IllegalArgumentException("invalid staging capacity " + stagingCapacity + " must be > 0");
+            blockSize = Math.toIntExact(Files.getFileStore(filePath).getBlockSize());
+            long stagingBlocks = Math.max(2, ((long) stagingCapacity * Float.BYTES + blockSize - 1) / blockSize);
+            stagingSize = Math.toIntExact(stagingBlocks * blockSize);
+            directChannel = FileChannel.open(filePath, StandardOpenOption.READ, directOption());
+        } catch (IOException | RuntimeException e) {
+            fileChannel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the alignment of direct reads (the file store block size)
+     */
+    public int blockSize() {
+        return blockSize;
+    }
+
+    @Override
+    public void read(float[] dst, long srcIndex, int dstIndex, int length) throws IOException {
+        int remaining = (int) readableLength(length, dst.length - dstIndex, length() - srcIndex);
+        if (remaining == 0)
+            return;
+        Staging staging = leaseStaging();
+        try {
+            while (remaining > 0) {
+                long position = position(srcIndex);
+                int skip = (int) (position % blockSize);
+                int chunkSize = Math.min(remaining, (stagingSize - skip) / Float.BYTES);
+                ReadPhaseEvent phase = beginPhase();
+                readAligned(staging.buffer(), position - skip, skip + chunkSize * Float.BYTES);
+                endIo(phase, staging.buffer().position());
+                phase = beginPhase();
+                copy(staging.segment(), skip, header.byteOrder(), dst, dstIndex, chunkSize);
+                endCopy(phase, chunkSize * Float.BYTES);
+                srcIndex += chunkSize;
+                dstIndex += chunkSize;
+                remaining -= chunkSize;
+            }
+        } finally {
+            stagings.push(staging);
+        }
+    }
+
+    @Override
+    public long read(MemorySegment dst, long srcIndex, long dstIndex, long length) throws IOException {
+        long count = readableLength(length, dst.byteSize() / Float.BYTES - dstIndex, length() - srcIndex);
+        if (count == 0)
+            return 0;
+        Staging staging = leaseStaging();
+        try {
+            long remaining = count;
+            long dstOffset = dstIndex * Float.BYTES;
+            while (remaining > 0) {
+                long position = position(srcIndex);
+                int skip = (int) (position % blockSize);
+                int chunkSize = (int) Math.min(remaining, (stagingSize - skip) / Float.BYTES);
+                ReadPhaseEvent phase = beginPhase();
+                readAligned(staging.buffer(), position - skip, skip + chunkSize * Float.BYTES);
+                endIo(phase, staging.buffer().position());
+                phase = beginPhase();
+                MemorySegment.copy(staging.segment(), skip, dst, dstOffset, (long) chunkSize * Float.BYTES);
+                endCopy(phase, (long) chunkSize * Float.BYTES);
+                srcIndex += chunkSize;
+                dstOffset += (long) chunkSize * Float.BYTES;
+                remaining -= chunkSize;
+            }
+        } finally {
+            stagings.push(staging);
+        }
+        if (!nativeOrder()) {
+            ReadPhaseEvent phase = beginPhase();
+            swap(dst, dstIndex * Float.BYTES, count);
+            endCopy(phase, count * Float.BYTES);
+        }
+        return count;
+    }
+
+    /**
+     * Resolve the JDK specific DIRECT open option reflectively, not to compile against an internal API.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static OpenOption directOption() throws IOException {
+        try {
+            Class<? extends Enum> type = Class.forName("com.sun.nio.file.ExtendedOpenOption").asSubclass(Enum.class);
+            return (OpenOption) Enum.valueOf(type, "DIRECT");
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new IOException("direct I/O is not supported by this JDK: no com.sun.nio.file.ExtendedOpenOption.DIRECT", e);
+        }
+    }
+
+    /**
+     * Read at least size bytes from the aligned position to the start of buffer, reading whole blocks.
+     */
+    private void readAligned(ByteBuffer buffer, long position, int size) throws IOException {
+        buffer.position(0).limit((size + blockSize - 1) / blockSize * blockSize);
+        while (buffer.position() < size) {
+            if (directChannel.read(buffer, position + buffer.position()) < 0)
+                throw new EOFException("end of storage " + filePath + " at " + (position + buffer.position()));
+            // the file end is not aligned, so the last read may be short: a short read before size is the end of
+            // file, and reading on from an unaligned position would be rejected anyway
+            if (buffer.position() < size && buffer.position() % blockSize != 0)
+                throw new EOFException("end of storage " + filePath + " at " + (position + buffer.position()));
+        }
+    }
+
+    private Staging leaseStaging() {
+        Staging staging = stagings.poll();
+        if (staging == null) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(stagingSize + blockSize).alignedSlice(blockSize);
+            staging = new Staging(buffer, MemorySegment.ofBuffer(buffer).asReadOnly());
+        }
+        return staging;
+    }
+
+    @Override
+    public void close() throws IOException {
+        // release staging buffers
+        stagings.clear();
+        try {
+            directChannel.close();
+        } finally {
+            super.close();
+        }
+    }
+}
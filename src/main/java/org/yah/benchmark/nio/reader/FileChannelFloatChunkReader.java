@@ -1,19 +1,36 @@
 package org.yah.benchmark.nio.reader;
 
+import org.yah.benchmark.nio.metrics.ReadPhaseEvent;
+
 import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
 import java.nio.file.Path;
 
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.byteBufferView;
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.coalesce;
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.readableLength;
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.scatter;
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.sortBySrcIndex;
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.swap;
+
 /**
  * Use a FileChannel (not locked, file can be concurrently updated) on the storage file and a staging {@link java.nio.ByteBuffer}
  * to read from the file channel.<br/>
  * The ByteBuffer size can be configured, and can be direct or on java heap.<br/>
+ * Reading to a {@link MemorySegment} (or a native order {@link ByteBuffer}/{@link FloatBuffer}) does not use the staging
+ * buffer: floats are read straight into the destination (and byte swapped in place if the storage is not in native
+ * order), unless the segment can not be viewed as a ByteBuffer (heap segments not backed by a byte[]).<br/>
+ * Batches are coalesced in ranges of at most staging capacity floats, each read with a single positional read.<br/>
  * <strong>Not thread safe</strong>
  */
 public final class FileChannelFloatChunkReader extends BaseFloatChunkReader {
 
+    private static final int MAX_READ_SIZE = Integer.MAX_VALUE / Float.BYTES * Float.BYTES; // max capacity of a ByteBuffer
+
     private final int stagingCapacity;
     private ByteBuffer stagingBuffer;
 
@@ -35,17 +52,17 @@ public final class FileChannelFloatChunkReader extends BaseFloatChunkReader {
         stagingBuffer = directStagingBuffer
                 ? ByteBuffer.allocateDirect(stagingCapacity * Float.BYTES)
                 : ByteBuffer.allocate(stagingCapacity * Float.BYTES);
-        stagingBuffer.order(ByteOrder.nativeOrder());
+        stagingBuffer.order(header.byteOrder());
     }
 
     @Override
     public void read(float[] dst, long srcIndex, int dstIndex, int length) throws IOException {
-        fileChannel.position(srcIndex * Float.BYTES);
+        fileChannel.position(position(srcIndex));
         // cap length: , and file capacity from src position
         int remaining = length;
         if (remaining > dst.length - dstIndex)
             remaining = dst.length - dstIndex; // no more than dst capacity from dstIndex
-        long srcCapacity = (fileChannel.size() - fileChannel.position()) / Float.BYTES;
+        long srcCapacity = length() - srcIndex;
         if (remaining > srcCapacity)
             remaining = (int) srcCapacity; // no more than file length from srcIndex
         stagingBuffer.clear();
@@ -53,14 +70,92 @@ public final class FileChannelFloatChunkReader extends BaseFloatChunkReader {
         while (remaining > 0) {
             int chunkSize = Math.min(stagingCapacity, remaining);
             stagingBuffer.position(0).limit(chunkSize * Float.BYTES);
+            ReadPhaseEvent phase = beginPhase();
             while (stagingBuffer.hasRemaining())
                 fileChannel.read(stagingBuffer);
+            endIo(phase, chunkSize * Float.BYTES);
+            phase = beginPhase();
             floatBuffer.get(0, dst, dstIndex, chunkSize);
+            endCopy(phase, chunkSize * Float.BYTES);
             dstIndex += chunkSize;
             remaining -= chunkSize;
         }
     }
 
+    @Override
+    public long read(MemorySegment dst, long srcIndex, long dstIndex, long length) throws IOException {
+        long count = readableLength(length, dst.byteSize() / Float.BYTES - dstIndex, length() - srcIndex);
+        fileChannel.position(position(srcIndex));
+        if (!byteBufferView(dst)) {
+            readStaged(dst, dstIndex, count);
+            return count;
+        }
+        long dstOffset = dstIndex * Float.BYTES;
+        long remaining = count * Float.BYTES;
+        while (remaining > 0) {
+            int chunkSize = (int) Math.min(MAX_READ_SIZE, remaining);
+            ByteBuffer buffer = dst.asSlice(dstOffset, chunkSize).asByteBuffer();
+            ReadPhaseEvent phase = beginPhase();
+            while (buffer.hasRemaining())
+                fileChannel.read(buffer);
+            endIo(phase, chunkSize);
+            dstOffset += chunkSize;
+            remaining -= chunkSize;
+        }
+        if (!nativeOrder()) {
+            ReadPhaseEvent phase = beginPhase();
+            swap(dst, dstIndex * Float.BYTES, count);
+            endCopy(phase, count * Float.BYTES);
+        }
+        return count;
+    }
+
+    /**
+     * read count floats from the channel position to a segment that can not be viewed as a ByteBuffer, through the
+     * staging buffer
+     */
+    private void readStaged(MemorySegment dst, long dstIndex, long count) throws IOException {
+        MemorySegment staging = MemorySegment.ofBuffer(stagingBuffer.clear());
+        ValueLayout.OfFloat layout = ValueLayout.JAVA_FLOAT_UNALIGNED.withOrder(header.byteOrder());
+        while (count > 0) {
+            int chunkSize = (int) Math.min(stagingCapacity, count);
+            stagingBuffer.position(0).limit(chunkSize * Float.BYTES);
+            ReadPhaseEvent phase = beginPhase();
+            while (stagingBuffer.hasRemaining())
+                fileChannel.read(stagingBuffer);
+            endIo(phase, chunkSize * Float.BYTES);
+            phase = beginPhase();
+            MemorySegment.copy(staging, layout, 0, dst, ValueLayout.JAVA_FLOAT_UNALIGNED, dstIndex * Float.BYTES, chunkSize);
+            endCopy(phase, chunkSize * Float.BYTES);
+            dstIndex += chunkSize;
+            count -= chunkSize;
+        }
+    }
+
+    @Override
+    public void readBatch(ReadRequest[] requests, int maxGap) throws IOException {
+        long fileLength = length();
+        coalesce(sortBySrcIndex(requests), maxGap, stagingCapacity, (srcIndex, length, batch, from, to) -> {
+            if (length > stagingCapacity) { // single request larger than staging buffer
+                ReadRequest request = batch[from];
+                read(request.dst(), request.srcIndex(), request.dstIndex(), request.length());
+                return;
+            }
+            int available = (int) readableLength(length, length, fileLength - srcIndex);
+            long position = position(srcIndex);
+            stagingBuffer.position(0).limit(available * Float.BYTES);
+            ReadPhaseEvent phase = beginPhase();
+            while (stagingBuffer.hasRemaining())
+                fileChannel.read(stagingBuffer, position + stagingBuffer.position());
+            endIo(phase, available * Float.BYTES);
+            phase = beginPhase();
+            FloatBuffer floatBuffer = stagingBuffer.flip().asFloatBuffer();
+            for (int i = from; i < to; i++)
+                scatter(floatBuffer, srcIndex, available, batch[i]);
+            endCopy(phase, available * Float.BYTES);
+        });
+    }
+
     @Override
     public void close() throws IOException {
         // release staging buffers
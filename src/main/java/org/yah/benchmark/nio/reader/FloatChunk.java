@@ -0,0 +1,12 @@
+package org.yah.benchmark.nio.reader;
+
+/**
+ * A chunk of floats read from storage by a {@link FloatChunkSpliterator}.<br/>
+ * The data array is reused by the spliterator for the next chunk: it is only valid while the chunk is consumed.
+ *
+ * @param srcIndex the index in storage of the first float of the chunk
+ * @param data     the floats, from index 0 to length
+ * @param length   the number of floats in this chunk
+ */
+public record FloatChunk(long srcIndex, float[] data, int length) {
+}
@@ -1,9 +1,29 @@
 package org.yah.benchmark.nio.reader;
 
+import org.yah.benchmark.nio.storage.FloatStorageHeader;
+
 import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.DoubleStream;
+import java.util.stream.StreamSupport;
+
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.DEFAULT_MAX_GAP;
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.STAGING_FLOATS;
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.coalesce;
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.pointRequests;
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.readableLength;
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.scatter;
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.sortBySrcIndex;
 
 /**
- * Reade a chunk of floats from a huge file (stored in little endian).
+ * Reade a chunk of floats from a huge file (stored in the byte order of its {@link FloatStorageHeader}, native order
+ * for legacy files without header).
  */
 public interface FloatChunkReader extends AutoCloseable {
 
@@ -26,6 +46,187 @@ public interface FloatChunkReader extends AutoCloseable {
         read(dst, srcOffset, 0, dst.length);
     }
 
+    /**
+     * Execute all requests, coalescing requests separated by at most 1024 floats.
+     *
+     * @see #readBatch(ReadRequest[], int)
+     */
+    default void readBatch(ReadRequest[] requests) throws IOException {
+        readBatch(requests, DEFAULT_MAX_GAP);
+    }
+
+    /**
+     * Execute all requests: requests are sorted by srcIndex, and requests overlapping or separated by at most maxGap
+     * floats are coalesced in a single read, then scattered to each request dst.<br/>
+     * Each request is capped like {@link #read(float[], long, int, int)}.<br/>
+     * Default implementation reads each coalesced range (of at most 1M floats) in a staging array.
+     *
+     * @param requests the requests to execute (not modified)
+     * @param maxGap   the max number of unrequested floats between 2 requests to read them at once
+     */
+    default void readBatch(ReadRequest[] requests, int maxGap) throws IOException {
+        if (requests.length == 0)
+            return;
+        ReadRequest[] sorted = sortBySrcIndex(requests);
+        long span = 0;
+        for (ReadRequest request : sorted)
+            span = Math.max(span, request.srcEndIndex() - sorted[0].srcIndex());
+        long fileLength = length();
+        float[] staging = new float[(int) Math.min(span, STAGING_FLOATS)];
+        FloatBuffer stagingBuffer = FloatBuffer.wrap(staging);
+        coalesce(sorted, maxGap, staging.length, (srcIndex, length, batch, from, to) -> {
+            if (length > staging.length) { // single request larger than staging
+                ReadRequest request = batch[from];
+                read(request.dst(), request.srcIndex(), request.dstIndex(), request.length());
+                return;
+            }
+            int available = (int) readableLength(length, length, fileLength - srcIndex);
+            read(staging, srcIndex, 0, available);
+            for (int i = from; i < to; i++)
+                scatter(stagingBuffer, srcIndex, available, batch[i]);
+        });
+    }
+
+    /**
+     * Gather floats at random indices: dst[i] is set to the float at indices[i] in storage (indices after the end of
+     * storage are ignored).
+     *
+     * @param indices the indices of floats to read
+     * @param dst     the destination array, at least as long as indices
+     */
+    default void readBatch(long[] indices, float[] dst) throws IOException {
+        readBatch(pointRequests(indices, dst));
+    }
+
+    /**
+     * Asynchronous version of {@link #read(float[], long, int, int)}: the returned future completes when the floats
+     * are written to dst (or exceptionally with the read error).<br/>
+     * Default implementation reads synchronously in the calling thread and returns a completed future, implementations
+     * backed by an asynchronous I/O should override it.
+     *
+     * @param dst      the destination array, must not be accessed until the future completes
+     * @param srcIndex the index of the float to start in the source file to start from
+     * @param dstIndex the index in the dst to start writing to
+     * @param length   the number of floats to read from source file and write to dst
+     * @return the future completed when the floats are read
+     */
+    default CompletableFuture<Void> readAsync(float[] dst, long srcIndex, int dstIndex, int length) {
+        try {
+            read(dst, srcIndex, dstIndex, length);
+            return CompletableFuture.completedFuture(null);
+        } catch (IOException | RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Read length floats from a file, starting at float index srcIndex from storage, and writing them in native order
+     * to the float at dstIndex in dst.<br/>
+     * Default implementation stages floats in a heap array, implementations should override it to write directly to dst.
+     *
+     * @param dst      the destination segment
+     * @param srcIndex the index of the float in the source file to start from
+     * @param dstIndex the index of the float in dst to start writing to
+     * @param length   the number of floats to read from source file and write to dst
+     * @return the number of floats read (capped to the dst capacity and file length)
+     */
+    default long read(MemorySegment dst, long srcIndex, long dstIndex, long length) throws IOException {
+        long remaining = readableLength(length, dst.byteSize() / Float.BYTES - dstIndex, length() - srcIndex);
+        long count = remaining;
+        float[] staging = new float[(int) Math.min(remaining, STAGING_FLOATS)];
+        while (remaining > 0) {
+            int chunkSize = (int) Math.min(remaining, staging.length);
+            read(staging, srcIndex, 0, chunkSize);
+            MemorySegment.copy(staging, 0, dst, ValueLayout.JAVA_FLOAT_UNALIGNED, dstIndex * Float.BYTES, chunkSize);
+            srcIndex += chunkSize;
+            dstIndex += chunkSize;
+            remaining -= chunkSize;
+        }
+        return count;
+    }
+
+    /**
+     * Read {@code dst.remaining()} floats starting at float index srcIndex from storage, and write them to dst from its
+     * current position. Position is advanced by the number of floats read.<br/>
+     * Direct buffers (and heap buffers using native order) are written without staging.
+     *
+     * @param dst      the destination buffer
+     * @param srcIndex the index of the float in the source file to start from
+     * @return the number of floats read (capped to the dst remaining and file length)
+     */
+    default int read(FloatBuffer dst, long srcIndex) throws IOException {
+        int count;
+        if (dst.hasArray()) {
+            count = (int) readableLength(dst.remaining(), dst.remaining(), length() - srcIndex);
+            read(dst.array(), srcIndex, dst.arrayOffset() + dst.position(), count);
+        } else if (dst.order() == ByteOrder.nativeOrder()) {
+            count = (int) read(MemorySegment.ofBuffer(dst), srcIndex, 0, dst.remaining());
+        } else {
+            count = (int) readableLength(dst.remaining(), dst.remaining(), length() - srcIndex);
+            float[] staging = new float[count];
+            read(staging, srcIndex, 0, count);
+            dst.put(dst.position(), staging);
+        }
+        dst.position(dst.position() + count);
+        return count;
+    }
+
+    /**
+     * Read {@code dst.remaining() / Float.BYTES} floats starting at float index srcIndex from storage, and write them
+     * to dst from its current position, using dst byte order. Position is advanced by the number of bytes written.<br/>
+     * Buffers using native order are written without staging.
+     *
+     * @param dst      the destination buffer
+     * @param srcIndex the index of the float in the source file to start from
+     * @return the number of floats read (capped to the dst remaining and file length)
+     */
+    default int read(ByteBuffer dst, long srcIndex) throws IOException {
+        int count;
+        if (dst.order() == ByteOrder.nativeOrder())
+            count = (int) read(MemorySegment.ofBuffer(dst), srcIndex, 0, dst.remaining() / Float.BYTES);
+        else
+            count = read(dst.asFloatBuffer(), srcIndex);
+        dst.position(dst.position() + count * Float.BYTES);
+        return count;
+    }
+
+    /**
+     * Create a read only view of length floats (in native order) starting at float index srcIndex from storage,
+     * without copying them.<br/>
+     * Only supported by readers backed by a mapping of the storage file.
+     *
+     * @param srcIndex the index of the float in the source file to start from
+     * @param length   the number of floats in the view
+     * @return a read only segment over the floats
+     * @throws UnsupportedOperationException if this reader can not create views
+     */
+    default MemorySegment view(long srcIndex, long length) throws IOException {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support views");
+    }
+
+    /**
+     * @return true if the {@link #view(long, long) views} of this reader can be accessed by any thread, false if they
+     * are confined to the thread that created them, or if this reader can not create views
+     */
+    default boolean sharedViews() throws IOException {
+        return false;
+    }
+
+    /**
+     * Create a sequential stream of the floats in [from, to[ read by chunks of at most 1M floats with this reader (that
+     * must not be closed before the stream is consumed).<br/>
+     * Use {@link FloatChunkReaderFactory#stream(Path, long, long)} for a stream that can be parallel.
+     *
+     * @param from the index of the first float (inclusive)
+     * @param to   the index of the last float (exclusive), no more than storage length
+     */
+    default DoubleStream stream(long from, long to) throws IOException {
+        if (to > length())
+            throw new IllegalArgumentException("range end " + to + " overflow storage length " + length());
+        FloatChunkSpliterator chunks = new FloatChunkSpliterator(new FloatChunkSpliterator.Readers(this), from, to, STAGING_FLOATS);
+        return StreamSupport.doubleStream(new FloatSpliterator(chunks), false);
+    }
+
     @Override
     void close() throws IOException;
 
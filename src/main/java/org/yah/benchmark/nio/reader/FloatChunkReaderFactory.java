@@ -2,6 +2,11 @@ package org.yah.benchmark.nio.reader;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.stream.DoubleStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.STAGING_FLOATS;
 
 /**
  * Factory of {@link FloatChunkReader} from a file
@@ -9,4 +14,50 @@ import java.nio.file.Path;
 @FunctionalInterface
 public interface FloatChunkReaderFactory {
     FloatChunkReader create(Path storageFile) throws IOException;
+
+    /**
+     * Create a stream of the chunks of floats in [from, to[ of a storage file. Each split of the stream uses its own
+     * reader created by this factory, so the stream can be {@link Stream#parallel()}.<br/>
+     * Closing the stream closes the readers of splits not exhausted (short-circuiting operations).
+     *
+     * @param storageFile the storage file
+     * @param from        the index of the first float (inclusive)
+     * @param to          the index of the last float (exclusive), no more than storage length
+     * @param chunkSize   the max number of floats per chunk, chunks are aligned on multiples of chunkSize
+     * @return a sequential stream of chunks
+     * @see FloatChunkSpliterator
+     */
+    default Stream<FloatChunk> chunks(Path storageFile, long from, long to, int chunkSize) throws IOException {
+        FloatChunkSpliterator.Readers readers = readers(storageFile, to);
+        return StreamSupport.stream(new FloatChunkSpliterator(readers, from, to, chunkSize), false)
+                .onClose(readers::closeAll);
+    }
+
+    /**
+     * {@link #stream(Path, long, long, int)} using chunks of 1M floats.
+     */
+    default DoubleStream stream(Path storageFile, long from, long to) throws IOException {
+        return stream(storageFile, from, to, STAGING_FLOATS);
+    }
+
+    /**
+     * Create a stream of the floats in [from, to[ of a storage file, read by chunks. Each split of the stream uses its
+     * own reader created by this factory, so the stream can be {@link DoubleStream#parallel()}.<br/>
+     * Closing the stream closes the readers of splits not exhausted (short-circuiting operations).
+     *
+     * @see #chunks(Path, long, long, int)
+     */
+    default DoubleStream stream(Path storageFile, long from, long to, int chunkSize) throws IOException {
+        FloatChunkSpliterator.Readers readers = readers(storageFile, to);
+        return StreamSupport.doubleStream(new FloatSpliterator(new FloatChunkSpliterator(readers, from, to, chunkSize)), false)
+                .onClose(readers::closeAll);
+    }
+
+    private FloatChunkSpliterator.Readers readers(Path storageFile, long to) throws IOException {
+        try (FloatChunkReader reader = create(storageFile)) {
+            if (to > reader.length())
+                throw new IllegalArgumentException("range end " + to + " overflow storage length " + reader.length());
+        }
+        return new FloatChunkSpliterator.Readers(storageFile, this);
+    }
 }
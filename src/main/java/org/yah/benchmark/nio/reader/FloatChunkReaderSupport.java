@@ -1,6 +1,36 @@
 package org.yah.benchmark.nio.reader;
 
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
 public final class FloatChunkReaderSupport {
+
+    /**
+     * default capacity (in float count) of staging arrays
+     */
+    static final int STAGING_FLOATS = 1024 * 1024;
+
+    /**
+     * default max number of floats between 2 requests of a batch to coalesce them in a single read (a 4KB page)
+     */
+    static final int DEFAULT_MAX_GAP = 4096 / Float.BYTES;
+
+    private static final VectorSpecies<Float> FLOAT_SPECIES = FloatVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INT_SPECIES = IntVector.SPECIES_PREFERRED;
+
     private FloatChunkReaderSupport() {
     }
 
@@ -8,4 +38,162 @@ public final class FloatChunkReaderSupport {
         return (a + b - 1) / b;
     }
 
+    /**
+     * @return the number of floats that can be read: length capped to dst and src capacities, never negative
+     */
+    static long readableLength(long length, long dstCapacity, long srcCapacity) {
+        return Math.max(0, Math.min(length, Math.min(dstCapacity, srcCapacity)));
+    }
+
+    /**
+     * Wait for a future and unwrap any {@link IOException} cause.
+     */
+    static <T> T await(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException)
+                throw ioException;
+            if (cause instanceof UncheckedIOException uncheckedIOException)
+                throw uncheckedIOException.getCause();
+            if (cause instanceof RuntimeException runtimeException)
+                throw runtimeException;
+            throw new RuntimeException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for read");
+        }
+    }
+
+    /**
+     * @return the IOException of a failed task (unwrapped if unchecked), runtime exceptions and errors are thrown
+     */
+    static IOException ioException(Throwable error) {
+        if (error instanceof IOException ioException)
+            return ioException;
+        if (error instanceof UncheckedIOException uncheckedIOException)
+            return uncheckedIOException.getCause();
+        if (error instanceof RuntimeException runtimeException)
+            throw runtimeException;
+        if (error instanceof Error e)
+            throw e;
+        return new IOException(error);
+    }
+
+    /**
+     * Reader of a range of floats coalescing some {@link ReadRequest}
+     */
+    @FunctionalInterface
+    interface RangeReader {
+        /**
+         * Read the floats [srcIndex, srcIndex + length[ and scatter them to requests[from, to[
+         */
+        void read(long srcIndex, int length, ReadRequest[] requests, int from, int to) throws IOException;
+    }
+
+    /**
+     * @return a copy of requests sorted by srcIndex
+     */
+    static ReadRequest[] sortBySrcIndex(ReadRequest[] requests) {
+        ReadRequest[] sorted = requests.clone();
+        Arrays.sort(sorted, Comparator.comparingLong(ReadRequest::srcIndex));
+        return sorted;
+    }
+
+    /**
+     * Coalesce sorted requests overlapping or separated by at most maxGap floats in ranges of at most maxRangeLength
+     * floats (unless a single request is larger), and read each range with rangeReader.
+     */
+    static void coalesce(ReadRequest[] sorted, int maxGap, int maxRangeLength, RangeReader rangeReader) throws IOException {
+        int from = 0;
+        while (from < sorted.length) {
+            long start = sorted[from].srcIndex();
+            long end = sorted[from].srcEndIndex();
+            int to = from + 1;
+            while (to < sorted.length) {
+                ReadRequest next = sorted[to];
+                long nextEnd = Math.max(end, next.srcEndIndex());
+                if (next.srcIndex() > end + maxGap || nextEnd - start > maxRangeLength)
+                    break;
+                end = nextEnd;
+                to++;
+            }
+            rangeReader.read(start, (int) (end - start), sorted, from, to);
+            from = to;
+        }
+    }
+
+    /**
+     * Copy the floats of request from src, containing the available floats read from srcIndex.
+     */
+    static void scatter(FloatBuffer src, long srcIndex, int available, ReadRequest request) {
+        int offset = (int) (request.srcIndex() - srcIndex);
+        int count = (int) readableLength(request.length(), request.dst().length - request.dstIndex(), available - offset);
+        if (count > 0)
+            src.get(offset, request.dst(), request.dstIndex(), count);
+    }
+
+    /**
+     * @return a request of a single float for each index, written in dst at the index position in indices
+     */
+    static ReadRequest[] pointRequests(long[] indices, float[] dst) {
+        if (dst.length < indices.length)
+            throw new IllegalArgumentException("dst length " + dst.length + " < indices length " + indices.length);
+        ReadRequest[] requests = new ReadRequest[indices.length];
+        for (int i = 0; i < indices.length; i++)
+            requests[i] = new ReadRequest(dst, indices[i], i, 1);
+        return requests;
+    }
+
+    /**
+     * Copy count floats stored in byte order from src at byte srcOffset to dst, swapping bytes with vector loads if
+     * order is not the native order.
+     */
+    static void copy(MemorySegment src, long srcOffset, ByteOrder order, float[] dst, int dstIndex, int count) {
+        ValueLayout.OfFloat layout = ValueLayout.JAVA_FLOAT_UNALIGNED.withOrder(order);
+        if (order == ByteOrder.nativeOrder() || !src.isNative()) {
+            MemorySegment.copy(src, layout, srcOffset, dst, dstIndex, count);
+            return;
+        }
+        int i = 0;
+        int upperBound = FLOAT_SPECIES.loopBound(count);
+        for (; i < upperBound; i += FLOAT_SPECIES.length()) {
+            FloatVector.fromMemorySegment(FLOAT_SPECIES, src, srcOffset + (long) i * Float.BYTES, order)
+                    .intoArray(dst, dstIndex + i);
+        }
+        for (; i < count; i++)
+            dst[dstIndex + i] = src.get(layout, srcOffset + (long) i * Float.BYTES);
+    }
+
+    /**
+     * @return true if {@link MemorySegment#asByteBuffer()} can be used on segment: native segments, and heap segments
+     * backed by a byte[] (other heap segments, like {@code MemorySegment.ofArray(float[])}, can not be viewed as a
+     * {@link java.nio.ByteBuffer})
+     */
+    static boolean byteBufferView(MemorySegment segment) {
+        return segment.isNative() || segment.heapBase().map(base -> base instanceof byte[]).orElse(false);
+    }
+
+    /**
+     * Swap in place the bytes of count floats of segment from byte offset (non native order floats to native order).
+     */
+    static void swap(MemorySegment segment, long offset, long count) {
+        ByteOrder swapped = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+        long i = 0;
+        if (segment.isNative()) { // vector access to heap segments is only supported for byte[]
+            long upperBound = INT_SPECIES.loopBound(count);
+            for (; i < upperBound; i += INT_SPECIES.length()) {
+                long position = offset + i * Float.BYTES;
+                IntVector.fromMemorySegment(INT_SPECIES, segment, position, swapped)
+                        .intoMemorySegment(segment, position, ByteOrder.nativeOrder());
+            }
+        }
+        for (; i < count; i++) {
+            long position = offset + i * Float.BYTES;
+            segment.set(ValueLayout.JAVA_INT_UNALIGNED, position,
+                    Integer.reverseBytes(segment.get(ValueLayout.JAVA_INT_UNALIGNED, position)));
+        }
+    }
+
 }
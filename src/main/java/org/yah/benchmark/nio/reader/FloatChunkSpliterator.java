@@ -0,0 +1,172 @@
+package org.yah.benchmark.nio.reader;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * A {@link Spliterator} of {@link FloatChunk} over a range of storage.<br/>
+ * Chunks are aligned on multiples of chunkSize in storage, and splits are done on chunk boundaries.<br/>
+ * When created from a {@link FloatChunkReaderFactory}, each split gets its own reader (opened on first read, closed when
+ * the split is exhausted), so splits can be traversed concurrently. Otherwise, the spliterator uses a single reader
+ * (not closed) and can not be split.
+ */
+public final class FloatChunkSpliterator implements Spliterator<FloatChunk> {
+
+    private static final int CHARACTERISTICS = ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+
+    private final Readers readers;
+    private final int chunkSize;
+    private final long end;
+    private long index;
+
+    private FloatChunkReader reader;
+    private float[] buffer;
+
+    FloatChunkSpliterator(Readers readers, long from, long to, int chunkSize) {
+        if (chunkSize <= 0)
+            throw new IllegalArgumentException("invalid chunk size " + chunkSize + " must be > 0");
+        if (from < 0 || to < from)
+            throw new IllegalArgumentException(String.format("invalid range [%d, %d[", from, to));
+        this.readers = readers;
+        this.chunkSize = chunkSize;
+        this.index = from;
+        this.end = to;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super FloatChunk> action) {
+        if (index >= end)
+            return false;
+        action.accept(readChunk());
+        if (index >= end)
+            release();
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super FloatChunk> action) {
+        while (index < end)
+            action.accept(readChunk());
+        release();
+    }
+
+    @Override
+    public FloatChunkSpliterator trySplit() {
+        if (reader != null || !readers.splittable())
+            return null;
+        long mid = (index + end) / 2 / chunkSize * chunkSize;
+        if (mid <= index)
+            return null;
+        FloatChunkSpliterator prefix = new FloatChunkSpliterator(readers, index, mid, chunkSize);
+        index = mid;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return index < end ? (end - 1) / chunkSize - index / chunkSize + 1 : 0;
+    }
+
+    @Override
+    public int characteristics() {
+        return CHARACTERISTICS;
+    }
+
+    /**
+     * @return the number of floats not yet read
+     */
+    long remaining() {
+        return end - index;
+    }
+
+    private FloatChunk readChunk() {
+        long chunkEnd = Math.min(end, (index / chunkSize + 1) * chunkSize);
+        int length = (int) (chunkEnd - index);
+        if (reader == null) {
+            reader = readers.acquire();
+            buffer = new float[(int) Math.min(chunkSize, end - index)];
+        }
+        try {
+            reader.read(buffer, index, 0, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        FloatChunk chunk = new FloatChunk(index, buffer, length);
+        index = chunkEnd;
+        return chunk;
+    }
+
+    private void release() {
+        if (reader != null) {
+            readers.release(reader);
+            reader = null;
+            buffer = null;
+        }
+    }
+
+    /**
+     * Readers of a spliterator and its splits: a single shared reader, or a reader per split created by a factory
+     */
+    static final class Readers {
+        private final FloatChunkReader sharedReader;
+        private final Path storagePath;
+        private final FloatChunkReaderFactory factory;
+        private final Set<FloatChunkReader> opened = ConcurrentHashMap.newKeySet();
+
+        Readers(FloatChunkReader sharedReader) {
+            this(sharedReader, null, null);
+        }
+
+        Readers(Path storagePath, FloatChunkReaderFactory factory) {
+            this(null, storagePath, factory);
+        }
+
+        private Readers(FloatChunkReader sharedReader, Path storagePath, FloatChunkReaderFactory factory) {
+            this.sharedReader = sharedReader;
+            this.storagePath = storagePath;
+            this.factory = factory;
+        }
+
+        boolean splittable() {
+            return factory != null;
+        }
+
+        FloatChunkReader acquire() {
+            if (sharedReader != null)
+                return sharedReader;
+            try {
+                FloatChunkReader reader = factory.create(storagePath);
+                opened.add(reader);
+                return reader;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void release(FloatChunkReader reader) {
+            if (reader != sharedReader && opened.remove(reader))
+                close(reader);
+        }
+
+        /**
+         * close readers of splits not exhausted (short-circuited stream)
+         */
+        void closeAll() {
+            for (FloatChunkReader reader : opened)
+                release(reader);
+        }
+
+        private static void close(FloatChunkReader reader) {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.yah.benchmark.nio.reader;
+
+import java.util.Spliterator;
+import java.util.function.DoubleConsumer;
+
+/**
+ * A {@link Spliterator.OfDouble} over each float of a range of storage, read by chunks with a
+ * {@link FloatChunkSpliterator} (and split like it).
+ */
+public final class FloatSpliterator implements Spliterator.OfDouble {
+
+    private static final int CHARACTERISTICS = ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+
+    private final FloatChunkSpliterator chunks;
+    private FloatChunk chunk;
+    private int chunkIndex;
+
+    FloatSpliterator(FloatChunkSpliterator chunks) {
+        this.chunks = chunks;
+    }
+
+    @Override
+    public boolean tryAdvance(DoubleConsumer action) {
+        if (chunk == null || chunkIndex == chunk.length()) {
+            if (!chunks.tryAdvance(next -> chunk = next))
+                return false;
+            chunkIndex = 0;
+        }
+        action.accept(chunk.data()[chunkIndex++]);
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(DoubleConsumer action) {
+        if (chunk != null) {
+            float[] data = chunk.data();
+            for (int i = chunkIndex; i < chunk.length(); i++)
+                action.accept(data[i]);
+            chunkIndex = chunk.length();
+        }
+        chunks.forEachRemaining(next -> {
+            float[] data = next.data();
+            for (int i = 0; i < next.length(); i++)
+                action.accept(data[i]);
+        });
+    }
+
+    @Override
+    public FloatSpliterator trySplit() {
+        if (chunk != null)
+            return null; // current chunk precedes any prefix split
+        FloatChunkSpliterator prefix = chunks.trySplit();
+        return prefix == null ? null : new FloatSpliterator(prefix);
+    }
+
+    @Override
+    public long estimateSize() {
+        return chunks.remaining() + (chunk != null ? chunk.length() - chunkIndex : 0);
+    }
+
+    @Override
+    public int characteristics() {
+        return CHARACTERISTICS;
+    }
+}
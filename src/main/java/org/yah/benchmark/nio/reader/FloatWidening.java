@@ -0,0 +1,108 @@
+package org.yah.benchmark.nio.reader;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+
+/**
+ * Vector API kernels widening reduced precision elements of a {@link MemorySegment} to floats.<br/>
+ * Elements are loaded in short (or byte) vectors of half (or quarter) the bit size of the preferred float vectors,
+ * expanded to int lanes, converted and stored in the destination array. Tails are converted one element at a time.<br/>
+ * The source segment must be a native segment (vector loads from heap segments are only supported for byte[]).
+ */
+final class FloatWidening {
+
+    private static final VectorSpecies<Integer> INT_SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Short> SHORT_SPECIES = VectorSpecies.of(short.class,
+            VectorShape.forBitSize(Math.max(64, INT_SPECIES.vectorBitSize() / 2)));
+    private static final VectorSpecies<Byte> BYTE_SPECIES = VectorSpecies.of(byte.class,
+            VectorShape.forBitSize(Math.max(64, INT_SPECIES.vectorBitSize() / 4)));
+
+    /**
+     * 2^112: rebias a half float exponent (bias 15) to a float exponent (bias 127)
+     */
+    private static final float FLOAT16_MAGIC = Float.intBitsToFloat((254 - 15) << 23);
+    /**
+     * min rebiased value of half float infinity or NaN (2^16)
+     */
+    private static final float FLOAT16_INF_NAN = Float.intBitsToFloat((127 + 16) << 23);
+
+    private FloatWidening() {
+    }
+
+    /**
+     * Widen count half floats of src from byte offset to dst
+     */
+    static void widenFloat16(MemorySegment src, long offset, ByteOrder order, float[] dst, int dstIndex, int count) {
+        int i = 0;
+        int upperBound = SHORT_SPECIES.loopBound(count);
+        for (; i < upperBound; i += SHORT_SPECIES.length()) {
+            ShortVector elements = ShortVector.fromMemorySegment(SHORT_SPECIES, src, offset + (long) i * Short.BYTES, order);
+            for (int part = 0; part * INT_SPECIES.length() < SHORT_SPECIES.length(); part++) {
+                IntVector h = (IntVector) elements.convertShape(VectorOperators.S2I, INT_SPECIES, part);
+                // exponent and mantissa shifted in float position, then rebiased by a float multiplication
+                // (which also normalizes subnormals)
+                FloatVector magnitude = h.and(0x7FFF).lanewise(VectorOperators.LSHL, 13)
+                        .reinterpretAsFloats()
+                        .mul(FLOAT16_MAGIC);
+                VectorMask<Integer> infNan = magnitude.compare(VectorOperators.GE, FLOAT16_INF_NAN).cast(INT_SPECIES);
+                magnitude.reinterpretAsInts()
+                        .lanewise(VectorOperators.OR, 0xFF << 23, infNan)
+                        .or(h.and(0x8000).lanewise(VectorOperators.LSHL, 16))
+                        .reinterpretAsFloats()
+                        .intoArray(dst, dstIndex + i + part * INT_SPECIES.length());
+            }
+        }
+        ValueLayout.OfShort layout = ValueLayout.JAVA_SHORT_UNALIGNED.withOrder(order);
+        for (; i < count; i++)
+            dst[dstIndex + i] = Float.float16ToFloat(src.get(layout, offset + (long) i * Short.BYTES));
+    }
+
+    /**
+     * Widen count bfloat16 of src from byte offset to dst
+     */
+    static void widenBFloat16(MemorySegment src, long offset, ByteOrder order, float[] dst, int dstIndex, int count) {
+        int i = 0;
+        int upperBound = SHORT_SPECIES.loopBound(count);
+        for (; i < upperBound; i += SHORT_SPECIES.length()) {
+            ShortVector elements = ShortVector.fromMemorySegment(SHORT_SPECIES, src, offset + (long) i * Short.BYTES, order);
+            for (int part = 0; part * INT_SPECIES.length() < SHORT_SPECIES.length(); part++) {
+                ((IntVector) elements.convertShape(VectorOperators.S2I, INT_SPECIES, part))
+                        .lanewise(VectorOperators.LSHL, 16)
+                        .reinterpretAsFloats()
+                        .intoArray(dst, dstIndex + i + part * INT_SPECIES.length());
+            }
+        }
+        ValueLayout.OfShort layout = ValueLayout.JAVA_SHORT_UNALIGNED.withOrder(order);
+        for (; i < count; i++)
+            dst[dstIndex + i] = Float.intBitsToFloat(src.get(layout, offset + (long) i * Short.BYTES) << 16);
+    }
+
+    /**
+     * Widen count quantized bytes of src from byte offset to dst, multiplied by scale
+     */
+    static void widenInt8(MemorySegment src, long offset, float scale, float[] dst, int dstIndex, int count) {
+        int i = 0;
+        int upperBound = BYTE_SPECIES.loopBound(count);
+        for (; i < upperBound; i += BYTE_SPECIES.length()) {
+            ByteVector elements = ByteVector.fromMemorySegment(BYTE_SPECIES, src, offset + i, ByteOrder.nativeOrder());
+            for (int part = 0; part * INT_SPECIES.length() < BYTE_SPECIES.length(); part++) {
+                ((FloatVector) elements.convertShape(VectorOperators.B2I, INT_SPECIES, part)
+                        .convert(VectorOperators.I2F, 0))
+                        .mul(scale)
+                        .intoArray(dst, dstIndex + i + part * INT_SPECIES.length());
+            }
+        }
+        for (; i < count; i++)
+            dst[dstIndex + i] = src.get(ValueLayout.JAVA_BYTE, offset + i) * scale;
+    }
+}
@@ -0,0 +1,154 @@
+package org.yah.benchmark.nio.reader;
+
+import org.yah.benchmark.nio.metrics.ReadEvent;
+import org.yah.benchmark.nio.metrics.ReaderMetrics;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.readableLength;
+
+/**
+ * Decorate a reader to record its reads in {@link ReaderMetrics} (counters and latency histogram, shareable by many
+ * readers), and emit a {@link ReadEvent} for each read when JFR records it (mapping and concurrent reads events are
+ * emitted by the readers themselves).<br/>
+ * The I/O and copy phases of a {@link BaseFloatChunkReader} delegate are recorded in the same metrics (see
+ * {@link BaseFloatChunkReader#phaseMetrics(ReaderMetrics)}).<br/>
+ * Thread safe if the delegate is.
+ */
+public final class InstrumentedFloatChunkReader implements FloatChunkReader {
+
+    private final FloatChunkReader delegate;
+    private final ReaderMetrics metrics;
+    private final String name;
+
+    /**
+     * @param delegate the instrumented reader
+     * @param metrics  the metrics updated by reads
+     * @param name     the reader name of read events
+     */
+    public InstrumentedFloatChunkReader(FloatChunkReader delegate, ReaderMetrics metrics, String name) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate is null");
+        this.metrics = Objects.requireNonNull(metrics, "metrics is null");
+        this.name = Objects.requireNonNull(name, "name is null");
+        if (delegate instanceof BaseFloatChunkReader reader)
+            reader.phaseMetrics(metrics);
+    }
+
+    /**
+     * @return a factory of readers created by factory and instrumented with metrics
+     */
+    public static FloatChunkReaderFactory factory(FloatChunkReaderFactory factory, ReaderMetrics metrics, String name) {
+        return (Path storageFile) -> new InstrumentedFloatChunkReader(factory.create(storageFile), metrics, name);
+    }
+
+    public ReaderMetrics metrics() {
+        return metrics;
+    }
+
+    @Override
+    public long length() throws IOException {
+        return delegate.length();
+    }
+
+    @Override
+    public void read(float[] dst, long srcIndex, int dstIndex, int length) throws IOException {
+        ReadEvent event = new ReadEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            delegate.read(dst, srcIndex, dstIndex, length);
+        } catch (IOException | RuntimeException e) {
+            metrics.error();
+            throw e;
+        }
+        long floats = readableLength(length, dst.length - dstIndex, delegate.length() - srcIndex);
+        metrics.record(floats, System.nanoTime() - start);
+        event.commit(name, "read", srcIndex, floats);
+    }
+
+    @Override
+    public long read(MemorySegment dst, long srcIndex, long dstIndex, long length) throws IOException {
+        ReadEvent event = new ReadEvent();
+        event.begin();
+        long start = System.nanoTime();
+        long floats;
+        try {
+            floats = delegate.read(dst, srcIndex, dstIndex, length);
+        } catch (IOException | RuntimeException e) {
+            metrics.error();
+            throw e;
+        }
+        metrics.record(floats, System.nanoTime() - start);
+        event.commit(name, "read segment", srcIndex, floats);
+        return floats;
+    }
+
+    /**
+     * Recorded as a single read of all requested floats
+     */
+    @Override
+    public void readBatch(ReadRequest[] requests, int maxGap) throws IOException {
+        ReadEvent event = new ReadEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            delegate.readBatch(requests, maxGap);
+        } catch (IOException | RuntimeException e) {
+            metrics.error();
+            throw e;
+        }
+        long fileLength = delegate.length();
+        long floats = 0;
+        long srcIndex = Long.MAX_VALUE;
+        for (ReadRequest request : requests) {
+            floats += readableLength(request.length(), request.dst().length - request.dstIndex(), fileLength - request.srcIndex());
+            srcIndex = Math.min(srcIndex, request.srcIndex());
+        }
+        metrics.record(floats, System.nanoTime() - start);
+        event.commit(name, "batch", requests.length == 0 ? 0 : srcIndex, floats);
+    }
+
+    @Override
+    public CompletableFuture<Void> readAsync(float[] dst, long srcIndex, int dstIndex, int length) {
+        ReadEvent event = new ReadEvent();
+        event.begin();
+        long start = System.nanoTime();
+        return delegate.readAsync(dst, srcIndex, dstIndex, length).whenComplete((unused, error) -> {
+            if (error != null) {
+                metrics.error();
+                return;
+            }
+            try {
+                long floats = readableLength(length, dst.length - dstIndex, delegate.length() - srcIndex);
+                metrics.record(floats, System.nanoTime() - start);
+                event.commit(name, "read async", srcIndex, floats);
+            } catch (IOException e) {
+                metrics.error();
+            }
+        });
+    }
+
+    @Override
+    public MemorySegment view(long srcIndex, long length) throws IOException {
+        return delegate.view(srcIndex, length);
+    }
+
+    @Override
+    public boolean sharedViews() throws IOException {
+        return delegate.sharedViews();
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    @Override
+    public String toString() {
+        return name + " " + metrics;
+    }
+}
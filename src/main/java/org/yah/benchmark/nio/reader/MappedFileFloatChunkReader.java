@@ -1,16 +1,24 @@
 package org.yah.benchmark.nio.reader;
 
 import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.nio.MappedByteBuffer;
-import java.nio.channels.FileChannel;
 import java.nio.file.Path;
 
 import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.ceilDiv;
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.coalesce;
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.readableLength;
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.sortBySrcIndex;
 
 /**
- * Map {@link MappedByteBuffer} over the requested slice at each access.
+ * Map {@link MappedByteBuffer} over the requested slice at each access.<br/>
+ * Reading to a {@link MemorySegment} maps the requested slice as a segment in a confined {@link Arena}, unmapped right
+ * after the bulk copy. {@link #view(long, long)} maps the requested slice in an automatic arena (unmapped when the view
+ * is garbage collected), only if the storage is in native order.<br/>
+ * Batches are coalesced in ranges mapped once, and copied from the mapping to each request dst.
  */
 public final class MappedFileFloatChunkReader extends BaseFloatChunkReader {
 
@@ -25,10 +33,10 @@ public final class MappedFileFloatChunkReader extends BaseFloatChunkReader {
         // from doc size – The size of the region to be mapped; must be non-negative and no greater than Integer.MAX_VALUE
         // needs chunks if > Integer.MAX_VALUE
         int chunks = ceilDiv(length, CHUNK_FLOATS);
-        long srcOffset = srcIndex * (long) Float.BYTES;
+        long srcOffset = position(srcIndex);
         for (int i = 0; i < chunks; i++) {
             int chunkFloats = Math.min(length, CHUNK_FLOATS);
-            ByteBuffer buffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, srcOffset, chunkFloats * (long) Float.BYTES).order(ByteOrder.nativeOrder());
+            ByteBuffer buffer = map(srcOffset, chunkFloats * (long) Float.BYTES).order(header.byteOrder());
             buffer.asFloatBuffer().get(0, dst, dstIndex, chunkFloats);
             srcOffset += chunkFloats * (long) Float.BYTES;
             length -= chunkFloats;
@@ -36,6 +44,59 @@ public final class MappedFileFloatChunkReader extends BaseFloatChunkReader {
         }
     }
 
+    @Override
+    public long read(MemorySegment dst, long srcIndex, long dstIndex, long length) throws IOException {
+        long count = readableLength(length, dst.byteSize() / Float.BYTES - dstIndex, length() - srcIndex);
+        if (count == 0)
+            return 0;
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment src = map(position(srcIndex), count * Float.BYTES, arena);
+            if (nativeOrder())
+                MemorySegment.copy(src, 0, dst, dstIndex * Float.BYTES, count * Float.BYTES);
+            else
+                MemorySegment.copy(src, floatLayout(), 0, dst, ValueLayout.JAVA_FLOAT_UNALIGNED, dstIndex * Float.BYTES, count);
+        }
+        return count;
+    }
+
+    @Override
+    public void readBatch(ReadRequest[] requests, int maxGap) throws IOException {
+        long fileLength = length();
+        ValueLayout.OfFloat layout = floatLayout();
+        coalesce(sortBySrcIndex(requests), maxGap, CHUNK_FLOATS, (srcIndex, length, batch, from, to) -> {
+            long available = readableLength(length, length, fileLength - srcIndex);
+            if (available == 0)
+                return;
+            try (Arena arena = Arena.ofConfined()) {
+                MemorySegment src = map(position(srcIndex), available * Float.BYTES, arena);
+                for (int i = from; i < to; i++) {
+                    ReadRequest request = batch[i];
+                    long offset = request.srcIndex() - srcIndex;
+                    int count = (int) readableLength(request.length(), request.dst().length - request.dstIndex(), available - offset);
+                    if (count > 0)
+                        MemorySegment.copy(src, layout, offset * Float.BYTES, request.dst(), request.dstIndex(), count);
+                }
+            }
+        });
+    }
+
+    @Override
+    public MemorySegment view(long srcIndex, long length) throws IOException {
+        if (!nativeOrder())
+            throw new UnsupportedOperationException("storage " + filePath + " is not in native order");
+        return map(position(srcIndex), length * Float.BYTES, Arena.ofAuto())
+                .asReadOnly();
+    }
+
+    @Override
+    public boolean sharedViews() {
+        return true;
+    }
+
+    private ValueLayout.OfFloat floatLayout() {
+        return ValueLayout.JAVA_FLOAT.withOrder(header.byteOrder());
+    }
+
     @Override
     public void close() throws IOException {
         // clear any pending byte buffer
@@ -0,0 +1,42 @@
+package org.yah.benchmark.nio.reader;
+
+import java.io.IOException;
+
+/**
+ * A {@link FloatChunkReader} backed by mappings of the storage file, that can tune and warm up the page cache of the
+ * mapped floats.
+ */
+public interface MappedFloatChunkReader extends FloatChunkReader {
+
+    /**
+     * Advise the OS of the access pattern of the floats in [from, to[ (mapping them if needed).<br/>
+     * Hints are best effort: ignored if madvise is not available, except {@link AccessHint#WILL_NEED} that then loads
+     * the floats synchronously.
+     *
+     * @param from the index of the first float (inclusive)
+     * @param to   the index of the last float (exclusive), capped to storage length
+     * @param hint the expected access pattern
+     * @return true if the hint was given to the OS
+     */
+    boolean advise(long from, long to, AccessHint hint) throws IOException;
+
+    /**
+     * Advise the access pattern of the whole storage.
+     *
+     * @see #advise(long, long, AccessHint)
+     */
+    default boolean advise(AccessHint hint) throws IOException {
+        return advise(0, length(), hint);
+    }
+
+    /**
+     * Load the pages of the floats in [from, to[ in the page cache (mapping them if needed), touching pages with the
+     * given number of threads, and return when all pages are loaded.<br/>
+     * Used to warm up the storage before serving reads, so the first reads do not pay for page faults.
+     *
+     * @param from    the index of the first float (inclusive)
+     * @param to      the index of the last float (exclusive), capped to storage length
+     * @param threads the number of threads loading pages
+     */
+    void preload(long from, long to, int threads) throws IOException;
+}
@@ -0,0 +1,127 @@
+package org.yah.benchmark.nio.reader;
+
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Page cache hints and preloading of mapped segments.<br/>
+ * Hints call {@code madvise} from the C library with a downcall handle (not available on Windows, or if the C library
+ * does not export it).
+ */
+final class MappedRegions {
+
+    private static final long DEFAULT_PAGE_SIZE = 4096;
+    private static final int SC_PAGESIZE = 30; // linux value
+
+    private static final MethodHandle MADVISE;
+    private static final long PAGE_SIZE;
+
+    static {
+        MethodHandle madvise = null;
+        long pageSize = DEFAULT_PAGE_SIZE;
+        if (!System.getProperty("os.name", "").startsWith("Windows")) {
+            try {
+                Linker linker = Linker.nativeLinker();
+                madvise = linker.defaultLookup().find("madvise")
+                        .map(address -> linker.downcallHandle(address, FunctionDescriptor.of(ValueLayout.JAVA_INT,
+                                ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_INT)))
+                        .orElse(null);
+                if (System.getProperty("os.name", "").startsWith("Linux")) {
+                    MethodHandle sysconf = linker.defaultLookup().find("sysconf")
+                            .map(address -> linker.downcallHandle(address, FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.JAVA_INT)))
+                            .orElse(null);
+                    if (sysconf != null) {
+                        long size = (long) sysconf.invokeExact(SC_PAGESIZE);
+                        if (size > 0) pageSize = size;
+                    }
+                }
+            } catch (Throwable e) {
+                madvise = null;
+            }
+        }
+        MADVISE = madvise;
+        PAGE_SIZE = pageSize;
+    }
+
+    private MappedRegions() {
+    }
+
+    /**
+     * Advise the OS of the access pattern of a mapped region.
+     *
+     * @return true if madvise succeeded
+     */
+    static boolean advise(MemorySegment region, AccessHint hint) {
+        if (region.byteSize() == 0)
+            return false;
+        if (MADVISE != null) {
+            // madvise requires a page aligned address, the pages around the region are mapped too
+            long start = region.address() / PAGE_SIZE * PAGE_SIZE;
+            long end = (region.address() + region.byteSize() + PAGE_SIZE - 1) / PAGE_SIZE * PAGE_SIZE;
+            try {
+                if ((int) MADVISE.invokeExact(MemorySegment.ofAddress(start), end - start, hint.advice()) == 0)
+                    return true;
+            } catch (Throwable e) {
+                // hints are best effort
+            }
+        }
+        if (hint == AccessHint.WILL_NEED)
+            region.load();
+        return false;
+    }
+
+    /**
+     * Load the pages of mapped regions with the given number of threads: regions are split in page aligned slices of
+     * about the same size, each loaded by one thread.
+     */
+    static void preload(List<MemorySegment> regions, int threads) {
+        if (threads <= 0)
+            throw new IllegalArgumentException("invalid threads " + threads + " must be > 0");
+        long totalSize = regions.stream().mapToLong(MemorySegment::byteSize).sum();
+        if (totalSize == 0)
+            return;
+        long sliceSize = Math.max(PAGE_SIZE, (totalSize / threads + PAGE_SIZE - 1) / PAGE_SIZE * PAGE_SIZE);
+        List<MemorySegment> slices = new ArrayList<>();
+        for (MemorySegment region : regions) {
+            for (long offset = 0; offset < region.byteSize(); offset += sliceSize)
+                slices.add(region.asSlice(offset, Math.min(sliceSize, region.byteSize() - offset)));
+        }
+        if (threads == 1 || slices.size() == 1) {
+            slices.forEach(MemorySegment::load);
+            return;
+        }
+        ExecutorService executorService = Executors.newFixedThreadPool(Math.min(threads, slices.size()), runnable -> {
+            Thread thread = new Thread(runnable, "preload");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (MemorySegment slice : slices)
+                futures.add(executorService.submit(slice::load));
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof RuntimeException runtimeException)
+                        throw runtimeException;
+                    throw new IllegalStateException(e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("interrupted while preloading", e);
+                }
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+}
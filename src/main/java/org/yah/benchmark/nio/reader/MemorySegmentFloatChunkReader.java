@@ -0,0 +1,135 @@
+package org.yah.benchmark.nio.reader;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.copy;
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.readableLength;
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.sortBySrcIndex;
+
+/**
+ * Map the whole storage file in a single {@link MemorySegment} (no 2GB limit per mapping), and copy floats from this
+ * segment using {@link MemorySegment#copy(MemorySegment, ValueLayout, long, Object, int, int)}.<br/>
+ * The mapping is owned by an {@link Arena}, and is unmapped when the reader is closed (no {@link System#gc()} needed).<br/>
+ * Reading to a {@link MemorySegment} is a bulk segment copy, and {@link #view(long, long)} returns a read only slice of
+ * the mapping (valid until the reader is closed, and only if the storage is in native order).<br/>
+ * Floats of a storage not in native order are byte swapped while copied (with vector loads when copied to an array).<br/>
+ * Batches are not coalesced (there is no I/O to save): requests are copied from the mapping in srcIndex order.<br/>
+ * Access hints and preloading apply to slices of the mapping.<br/>
+ * With a confined arena, the reader can only be used (and closed) by the thread that created it.
+ */
+public final class MemorySegmentFloatChunkReader extends BaseFloatChunkReader implements MappedFloatChunkReader {
+
+    private final Arena arena;
+    private final boolean shared;
+    private final MemorySegment segment;
+    private final long floatsCount;
+    private final ValueLayout.OfFloat floatLayout;
+
+    /**
+     * @param filePath the storage file path
+     */
+    public MemorySegmentFloatChunkReader(Path filePath) throws IOException {
+        this(filePath, true);
+    }
+
+    /**
+     * @param filePath the storage file path
+     * @param shared   true to map the file in a shared {@link Arena} (reader usable from any thread), false to use a
+     *                 confined arena
+     */
+    public MemorySegmentFloatChunkReader(Path filePath, boolean shared) throws IOException {
+        super(filePath);
+        this.shared = shared;
+        arena = shared ? Arena.ofShared() : Arena.ofConfined();
+        try {
+            segment = map(0, fileChannel.size(), arena)
+                    .asSlice(header.dataOffset(), length() * Float.BYTES);
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            fileChannel.close();
+            throw e;
+        }
+        floatsCount = length();
+        floatLayout = ValueLayout.JAVA_FLOAT.withOrder(header.byteOrder());
+    }
+
+    @Override
+    public void read(float[] dst, long srcIndex, int dstIndex, int length) throws IOException {
+        // cap length: no more than dst capacity from dstIndex, and file length from srcIndex
+        int count = (int) readableLength(length, dst.length - dstIndex, floatsCount - srcIndex);
+        copy(segment, srcIndex * Float.BYTES, header.byteOrder(), dst, dstIndex, count);
+    }
+
+    @Override
+    public long read(MemorySegment dst, long srcIndex, long dstIndex, long length) {
+        long count = readableLength(length, dst.byteSize() / Float.BYTES - dstIndex, floatsCount - srcIndex);
+        if (nativeOrder())
+            MemorySegment.copy(segment, srcIndex * Float.BYTES, dst, dstIndex * Float.BYTES, count * Float.BYTES);
+        else
+            MemorySegment.copy(segment, floatLayout, srcIndex * Float.BYTES, dst, ValueLayout.JAVA_FLOAT_UNALIGNED, dstIndex * Float.BYTES, count);
+        return count;
+    }
+
+    @Override
+    public MemorySegment view(long srcIndex, long length) {
+        if (!nativeOrder())
+            throw new UnsupportedOperationException("storage " + filePath + " is not in native order");
+        return segment.asSlice(srcIndex * Float.BYTES, length * Float.BYTES).asReadOnly();
+    }
+
+    /**
+     * Views are confined like the mapping if the arena is confined
+     */
+    @Override
+    public boolean sharedViews() {
+        return shared;
+    }
+
+    @Override
+    public boolean advise(long from, long to, AccessHint hint) {
+        return MappedRegions.advise(slice(from, to), hint);
+    }
+
+    /**
+     * Pages are loaded by the calling thread only with a confined arena.
+     */
+    @Override
+    public void preload(long from, long to, int threads) {
+        MappedRegions.preload(List.of(slice(from, to)), shared ? threads : 1);
+    }
+
+    private MemorySegment slice(long from, long to) {
+        long end = Math.min(to, floatsCount);
+        if (from < 0 || from > end)
+            throw new IllegalArgumentException(String.format("invalid range [%d, %d[", from, to));
+        return segment.asSlice(from * Float.BYTES, (end - from) * Float.BYTES);
+    }
+
+    @Override
+    public void readBatch(ReadRequest[] requests, int maxGap) throws IOException {
+        for (ReadRequest request : sortBySrcIndex(requests))
+            read(request.dst(), request.srcIndex(), request.dstIndex(), request.length());
+    }
+
+    @Override
+    public void readBatch(long[] indices, float[] dst) {
+        if (dst.length < indices.length)
+            throw new IllegalArgumentException("dst length " + dst.length + " < indices length " + indices.length);
+        for (int i = 0; i < indices.length; i++) {
+            if (indices[i] < floatsCount)
+                dst[i] = segment.getAtIndex(floatLayout, indices[i]);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        // unmap now
+        arena.close();
+        super.close();
+    }
+}
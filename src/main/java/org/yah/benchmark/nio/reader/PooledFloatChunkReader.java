@@ -0,0 +1,203 @@
+package org.yah.benchmark.nio.reader;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A thread safe reader for many concurrent clients, leasing delegate readers created by a
+ * {@link FloatChunkReaderFactory} (that do not have to be thread safe) for each call.<br/>
+ * Idle delegates are kept in a lock free LIFO free list (the most recently used delegate, with the warmest buffers and
+ * mappings, is leased first). At most maxReaders delegates are open at once: when they are all leased, callers wait
+ * for a lease to be released.<br/>
+ * Callers doing many reads in a row can {@link #lease()} a delegate once and use it for all of them.<br/>
+ * Thread safe.
+ */
+public final class PooledFloatChunkReader implements FloatChunkReader {
+
+    private final Path storagePath;
+    private final FloatChunkReaderFactory factory;
+    private final int maxReaders;
+    private final long length;
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<FloatChunkReader> idleReaders = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger openReaders = new AtomicInteger();
+    private volatile boolean closed;
+
+    /**
+     * @param storagePath the storage file path
+     * @param factory     the factory of delegate readers
+     * @param maxReaders  the max number of delegates open at once
+     */
+    public PooledFloatChunkReader(Path storagePath, FloatChunkReaderFactory factory, int maxReaders) throws IOException {
+        if (maxReaders <= 0)
+            throw new IllegalArgumentException("invalid max readers " + maxReaders + " must be > 0");
+        this.storagePath = Objects.requireNonNull(storagePath, "storagePath is null");
+        this.factory = Objects.requireNonNull(factory, "factory is null");
+        this.maxReaders = maxReaders;
+        permits = new Semaphore(maxReaders);
+        FloatChunkReader reader = factory.create(storagePath);
+        openReaders.incrementAndGet();
+        try {
+            length = reader.length();
+        } catch (IOException | RuntimeException e) {
+            openReaders.decrementAndGet();
+            reader.close();
+            throw e;
+        }
+        idleReaders.push(reader);
+    }
+
+    public int maxReaders() {
+        return maxReaders;
+    }
+
+    /**
+     * @return the number of delegates currently open (leased or idle)
+     */
+    public int openReaders() {
+        return openReaders.get();
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    /**
+     * Lease a delegate reader, waiting for one to be released if maxReaders are already leased.<br/>
+     * The lease must be closed (once) to return the delegate to the pool, the delegate must not be used afterward.
+     *
+     * @throws InterruptedIOException if interrupted while waiting for a delegate
+     */
+    public Lease lease() throws IOException {
+        if (closed)
+            throw new IOException("reader is closed");
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for a reader");
+        }
+        if (closed) { // closed while waiting
+            permits.release();
+            throw new IOException("reader is closed");
+        }
+        FloatChunkReader reader = idleReaders.poll();
+        if (reader == null) {
+            try {
+                reader = factory.create(storagePath);
+            } catch (IOException | RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+            openReaders.incrementAndGet();
+        }
+        return new Lease(reader);
+    }
+
+    @Override
+    public void read(float[] dst, long srcIndex, int dstIndex, int length) throws IOException {
+        try (Lease lease = lease()) {
+            lease.reader().read(dst, srcIndex, dstIndex, length);
+        }
+    }
+
+    @Override
+    public long read(MemorySegment dst, long srcIndex, long dstIndex, long length) throws IOException {
+        try (Lease lease = lease()) {
+            return lease.reader().read(dst, srcIndex, dstIndex, length);
+        }
+    }
+
+    @Override
+    public void readBatch(ReadRequest[] requests, int maxGap) throws IOException {
+        try (Lease lease = lease()) {
+            lease.reader().readBatch(requests, maxGap);
+        }
+    }
+
+    /**
+     * Delegates are only closed with this reader, so views stay valid until then.
+     */
+    @Override
+    public MemorySegment view(long srcIndex, long length) throws IOException {
+        try (Lease lease = lease()) {
+            return lease.reader().view(srcIndex, length);
+        }
+    }
+
+    @Override
+    public boolean sharedViews() throws IOException {
+        try (Lease lease = lease()) {
+            return lease.reader().sharedViews();
+        }
+    }
+
+    /**
+     * Close idle delegates, leased delegates are closed when their lease is released.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        closeIdleReaders();
+    }
+
+    private void release(FloatChunkReader reader) throws IOException {
+        idleReaders.push(reader);
+        permits.release();
+        if (closed)
+            closeIdleReaders();
+    }
+
+    private void closeIdleReaders() throws IOException {
+        IOException error = null;
+        FloatChunkReader reader;
+        while ((reader = idleReaders.poll()) != null) {
+            openReaders.decrementAndGet();
+            try {
+                reader.close();
+            } catch (IOException e) {
+                if (error == null) error = e;
+                else error.addSuppressed(e);
+            }
+        }
+        if (error != null)
+            throw error;
+    }
+
+    /**
+     * A delegate reader leased to a single caller
+     */
+    public final class Lease implements AutoCloseable {
+
+        private FloatChunkReader reader;
+
+        private Lease(FloatChunkReader reader) {
+            this.reader = reader;
+        }
+
+        public FloatChunkReader reader() {
+            if (reader == null)
+                throw new IllegalStateException("lease is released");
+            return reader;
+        }
+
+        /**
+         * Return the delegate to the pool
+         */
+        @Override
+        public void close() throws IOException {
+            if (reader != null) {
+                FloatChunkReader released = reader;
+                reader = null;
+                release(released);
+            }
+        }
+    }
+}
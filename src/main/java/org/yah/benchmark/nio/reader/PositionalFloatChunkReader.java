@@ -0,0 +1,179 @@
+package org.yah.benchmark.nio.reader;
+
+import org.yah.benchmark.nio.metrics.ReadPhaseEvent;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.coalesce;
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.readableLength;
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.scatter;
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.sortBySrcIndex;
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.swap;
+
+/**
+ * Read a single {@link java.nio.channels.FileChannel} shared by all threads using only positional reads
+ * ({@link java.nio.channels.FileChannel#read(ByteBuffer, long)}, pread): the channel position is never used, and the
+ * storage length is the one of the header read when opened, so a read does no other syscall than its preads.<br/>
+ * Direct staging buffers are leased from a lock free pool (at most one per concurrent read), reading to a native
+ * {@link MemorySegment} (or a native order {@link ByteBuffer}/{@link FloatBuffer}) does not use them.<br/>
+ * Thread safe. Interrupting a thread blocked in a read closes the shared channel (like any interruptible channel).
+ */
+public final class PositionalFloatChunkReader extends BaseFloatChunkReader {
+
+    private static final int MAX_READ_SIZE = Integer.MAX_VALUE / Float.BYTES * Float.BYTES; // max capacity of a ByteBuffer
+
+    private final int stagingCapacity;
+    private final ConcurrentLinkedDeque<ByteBuffer> stagingBuffers = new ConcurrentLinkedDeque<>();
+
+    /**
+     * @param filePath the storage file path
+     */
+    public PositionalFloatChunkReader(Path filePath) throws IOException {
+        this(filePath, 256 * 1024);
+    }
+
+    /**
+     * @param filePath        the storage file path
+     * @param stagingCapacity the capacity (in float count) of each staging buffer
+     */
+    public PositionalFloatChunkReader(Path filePath, int stagingCapacity) throws IOException {
+        super(filePath);
+        if (stagingCapacity <= 0) {
+            fileChannel.close();
+            throw new IllegalArgumentException("invalid staging capacity " + stagingCapacity + " must be > 0");
+        }
+        this.stagingCapacity = stagingCapacity;
+    }
+
+    @Override
+    public void read(float[] dst, long srcIndex, int dstIndex, int length) throws IOException {
+        int remaining = (int) readableLength(length, dst.length - dstIndex, length() - srcIndex);
+        if (remaining == 0)
+            return;
+        ByteBuffer stagingBuffer = leaseStagingBuffer();
+        try {
+            FloatBuffer floatBuffer = stagingBuffer.asFloatBuffer();
+            while (remaining > 0) {
+                int chunkSize = Math.min(stagingCapacity, remaining);
+                ReadPhaseEvent phase = beginPhase();
+                readFully(stagingBuffer.position(0).limit(chunkSize * Float.BYTES), position(srcIndex));
+                endIo(phase, chunkSize * Float.BYTES);
+                phase = beginPhase();
+                floatBuffer.get(0, dst, dstIndex, chunkSize);
+                endCopy(phase, chunkSize * Float.BYTES);
+                srcIndex += chunkSize;
+                dstIndex += chunkSize;
+                remaining -= chunkSize;
+            }
+        } finally {
+            stagingBuffers.push(stagingBuffer);
+        }
+    }
+
+    @Override
+    public long read(MemorySegment dst, long srcIndex, long dstIndex, long length) throws IOException {
+        long count = readableLength(length, dst.byteSize() / Float.BYTES - dstIndex, length() - srcIndex);
+        if (!dst.isNative()) {
+            readStaged(dst, srcIndex, dstIndex, count);
+            return count;
+        }
+        long position = position(srcIndex);
+        long dstOffset = dstIndex * Float.BYTES;
+        long remaining = count * Float.BYTES;
+        while (remaining > 0) {
+            int chunkSize = (int) Math.min(MAX_READ_SIZE, remaining);
+            ReadPhaseEvent phase = beginPhase();
+            readFully(dst.asSlice(dstOffset, chunkSize).asByteBuffer(), position);
+            endIo(phase, chunkSize);
+            position += chunkSize;
+            dstOffset += chunkSize;
+            remaining -= chunkSize;
+        }
+        if (!nativeOrder()) {
+            ReadPhaseEvent phase = beginPhase();
+            swap(dst, dstIndex * Float.BYTES, count);
+            endCopy(phase, count * Float.BYTES);
+        }
+        return count;
+    }
+
+    /**
+     * read count floats to a heap segment through a staging buffer (heap segments not backed by a byte[] can not be
+     * viewed as a ByteBuffer, and reading to a heap buffer would be staged by the channel anyway)
+     */
+    private void readStaged(MemorySegment dst, long srcIndex, long dstIndex, long count) throws IOException {
+        ByteBuffer stagingBuffer = leaseStagingBuffer();
+        try {
+            MemorySegment staging = MemorySegment.ofBuffer(stagingBuffer);
+            ValueLayout.OfFloat layout = ValueLayout.JAVA_FLOAT_UNALIGNED.withOrder(header.byteOrder());
+            while (count > 0) {
+                int chunkSize = (int) Math.min(stagingCapacity, count);
+                ReadPhaseEvent phase = beginPhase();
+                readFully(stagingBuffer.position(0).limit(chunkSize * Float.BYTES), position(srcIndex));
+                endIo(phase, chunkSize * Float.BYTES);
+                phase = beginPhase();
+                MemorySegment.copy(staging, layout, 0, dst, ValueLayout.JAVA_FLOAT_UNALIGNED, dstIndex * Float.BYTES, chunkSize);
+                endCopy(phase, chunkSize * Float.BYTES);
+                srcIndex += chunkSize;
+                dstIndex += chunkSize;
+                count -= chunkSize;
+            }
+        } finally {
+            stagingBuffers.push(stagingBuffer);
+        }
+    }
+
+    @Override
+    public void readBatch(ReadRequest[] requests, int maxGap) throws IOException {
+        long fileLength = length();
+        ByteBuffer stagingBuffer = leaseStagingBuffer();
+        try {
+            coalesce(sortBySrcIndex(requests), maxGap, stagingCapacity, (srcIndex, length, batch, from, to) -> {
+                if (length > stagingCapacity) { // single request larger than staging buffer
+                    ReadRequest request = batch[from];
+                    read(request.dst(), request.srcIndex(), request.dstIndex(), request.length());
+                    return;
+                }
+                int available = (int) readableLength(length, length, fileLength - srcIndex);
+                ReadPhaseEvent phase = beginPhase();
+                readFully(stagingBuffer.position(0).limit(available * Float.BYTES), position(srcIndex));
+                endIo(phase, available * Float.BYTES);
+                phase = beginPhase();
+                FloatBuffer floatBuffer = stagingBuffer.flip().asFloatBuffer();
+                for (int i = from; i < to; i++)
+                    scatter(floatBuffer, srcIndex, available, batch[i]);
+                endCopy(phase, available * Float.BYTES);
+            });
+        } finally {
+            stagingBuffers.push(stagingBuffer);
+        }
+    }
+
+    private ByteBuffer leaseStagingBuffer() {
+        ByteBuffer stagingBuffer = stagingBuffers.poll();
+        if (stagingBuffer == null)
+            stagingBuffer = ByteBuffer.allocateDirect(stagingCapacity * Float.BYTES).order(header.byteOrder());
+        return stagingBuffer.clear();
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (fileChannel.read(buffer, position + buffer.position()) < 0)
+                throw new EOFException("end of storage " + filePath + " at " + (position + buffer.position()));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        // release staging buffers
+        stagingBuffers.clear();
+        super.close();
+    }
+}
@@ -0,0 +1,165 @@
+package org.yah.benchmark.nio.reader;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.await;
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.readableLength;
+
+/**
+ * Detect sequential reads (each read starting where the previous one ended), and prefetch the next window of floats in
+ * background while the caller consumes the current one (double buffering: the caller reads from one window buffer
+ * while a background thread fills the other).<br/>
+ * Read ahead stops on the first non sequential read, and restarts after {@link #SEQUENTIAL_THRESHOLD} sequential
+ * reads. A failed prefetch is discarded, and its window read synchronously.<br/>
+ * Uses 2 delegates created from a {@link FloatChunkReaderFactory}: one for the caller, one for the background thread.<br/>
+ * <strong>Not thread safe</strong>
+ */
+public final class ReadAheadFloatChunkReader implements FloatChunkReader {
+
+    /**
+     * number of consecutive sequential reads before starting read ahead
+     */
+    public static final int SEQUENTIAL_THRESHOLD = 2;
+
+    /**
+     * A window of floats read from storage
+     */
+    private record Window(float[] data, long start, int length) {
+        long end() {
+            return start + length;
+        }
+
+        boolean contains(long index) {
+            return index >= start && index < end();
+        }
+    }
+
+    private final FloatChunkReader reader;
+    private final FloatChunkReader prefetchReader;
+    private final ExecutorService executorService;
+    private final long length;
+    private final float[][] windowBuffers;
+
+    private Window current;
+    private CompletableFuture<Window> prefetch;
+    private long prefetchStart;
+
+    private long lastEnd = -1;
+    private int sequentialReads;
+
+    /**
+     * @param storagePath    the storage file path
+     * @param factory        the factory of delegate readers
+     * @param windowCapacity the number of floats read ahead
+     */
+    public ReadAheadFloatChunkReader(Path storagePath, FloatChunkReaderFactory factory, int windowCapacity) throws IOException {
+        if (windowCapacity <= 0)
+            throw new IllegalArgumentException("invalid window capacity " + windowCapacity + " must be > 0");
+        Objects.requireNonNull(storagePath, "storagePath is null");
+        Objects.requireNonNull(factory, "factory is null");
+        reader = factory.create(storagePath);
+        prefetchReader = factory.create(storagePath);
+        length = reader.length();
+        windowBuffers = new float[][]{new float[windowCapacity], new float[windowCapacity]};
+        executorService = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "read-ahead");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    @Override
+    public void read(float[] dst, long srcIndex, int dstIndex, int length) throws IOException {
+        int remaining = (int) readableLength(length, dst.length - dstIndex, this.length - srcIndex);
+        sequentialReads = srcIndex == lastEnd ? sequentialReads + 1 : 0;
+        lastEnd = srcIndex + remaining;
+        while (remaining > 0) {
+            if (current != null && current.contains(srcIndex)) {
+                int count = (int) Math.min(remaining, current.end() - srcIndex);
+                System.arraycopy(current.data(), (int) (srcIndex - current.start()), dst, dstIndex, count);
+                srcIndex += count;
+                dstIndex += count;
+                remaining -= count;
+            } else if (prefetch != null && prefetchStart == srcIndex && (current = awaitPrefetch()) != null) {
+                prefetch(); // start filling the other buffer before consuming this one
+            } else {
+                reader.read(dst, srcIndex, dstIndex, remaining);
+                remaining = 0;
+            }
+        }
+        prefetch();
+    }
+
+    @Override
+    public void close() throws IOException {
+        executorService.shutdown();
+        try {
+            if (prefetch != null)
+                prefetch.exceptionally(e -> null).join();
+        } finally {
+            try {
+                prefetchReader.close();
+            } finally {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * Wait for the prefetched window, clearing prefetch even if it failed.
+     *
+     * @return the prefetched window, or null if the prefetch failed (the window is then read synchronously, throwing
+     * the failure if it was not transient)
+     */
+    private Window awaitPrefetch() throws IOException {
+        CompletableFuture<Window> window = prefetch;
+        prefetch = null;
+        try {
+            return await(window);
+        } catch (InterruptedIOException e) {
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Start reading the window following the last read, if reads are sequential and the other window buffer is free.
+     */
+    private void prefetch() {
+        if (sequentialReads < SEQUENTIAL_THRESHOLD)
+            return;
+        long start = current != null && current.contains(lastEnd) ? current.end() : lastEnd;
+        if (prefetch != null) {
+            if (prefetchStart == start || !prefetch.isDone())
+                return; // already prefetching, or buffer still in use by a stale prefetch
+            prefetch = null; // discard stale prefetch
+        }
+        if (start >= length)
+            return;
+        float[] buffer = current != null && current.data() == windowBuffers[0] ? windowBuffers[1] : windowBuffers[0];
+        int count = (int) Math.min(buffer.length, length - start);
+        prefetchStart = start;
+        prefetch = CompletableFuture.supplyAsync(() -> {
+            try {
+                prefetchReader.read(buffer, start, 0, count);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return new Window(buffer, start, count);
+        }, executorService);
+    }
+
+}
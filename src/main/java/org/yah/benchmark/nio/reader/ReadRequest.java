@@ -0,0 +1,24 @@
+package org.yah.benchmark.nio.reader;
+
+import java.util.Objects;
+
+/**
+ * A request of {@link FloatChunkReader#readBatch(ReadRequest[], int)}: read length floats from storage starting at
+ * srcIndex, and write them to dst starting at dstIndex.
+ *
+ * @param dst      the destination array
+ * @param srcIndex the index of the float in the source file to start from
+ * @param dstIndex the index in the dst to start writing to
+ * @param length   the number of floats to read from source file and write to dst
+ */
+public record ReadRequest(float[] dst, long srcIndex, int dstIndex, int length) {
+    public ReadRequest {
+        Objects.requireNonNull(dst, "dst is null");
+        if (srcIndex < 0 || dstIndex < 0 || length < 0)
+            throw new IllegalArgumentException(String.format("invalid request srcIndex=%d dstIndex=%d length=%d", srcIndex, dstIndex, length));
+    }
+
+    public long srcEndIndex() {
+        return srcIndex + length;
+    }
+}
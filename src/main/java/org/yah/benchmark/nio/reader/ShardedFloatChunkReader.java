@@ -0,0 +1,160 @@
+package org.yah.benchmark.nio.reader;
+
+import org.yah.benchmark.nio.storage.ShardLayout;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.StructuredTaskScope;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.readableLength;
+
+/**
+ * Read a logical array of floats split across shards (storage files, possibly on different devices), concatenated
+ * or striped ({@link ShardLayout}), with one delegate reader per shard created by any {@link FloatChunkReaderFactory}.
+ * <br/>
+ * A read is split in pieces stored contiguously in a shard. When it spans several shards, the pieces of each shard are
+ * read by a virtual thread forked in a {@link StructuredTaskScope} (pieces of a shard, like consecutive stripes, are
+ * read as a batch so that the delegate can coalesce them). The first failed shard fails the read and cancels the
+ * others.<br/>
+ * Thread safe: reads of a shard are serialized on its delegate (delegates do not have to be thread safe).
+ */
+public final class ShardedFloatChunkReader implements FloatChunkReader {
+
+    private final FloatChunkReader[] shards;
+    private final ReentrantLock[] shardLocks;
+    private final ShardLayout layout;
+
+    /**
+     * Read concatenated shards
+     *
+     * @param shardPaths the storage file of each shard
+     * @param factory    the factory of delegate readers
+     */
+    public ShardedFloatChunkReader(List<Path> shardPaths, FloatChunkReaderFactory factory) throws IOException {
+        this(shardPaths, factory, 0);
+    }
+
+    /**
+     * @param shardPaths   the storage file of each shard
+     * @param factory      the factory of delegate readers
+     * @param stripeLength the number of floats per stripe of striped shards, 0 if shards are concatenated
+     */
+    public ShardedFloatChunkReader(List<Path> shardPaths, FloatChunkReaderFactory factory, long stripeLength) throws IOException {
+        if (shardPaths.isEmpty())
+            throw new IllegalArgumentException("no shard");
+        if (stripeLength < 0)
+            throw new IllegalArgumentException("invalid stripe length " + stripeLength + " must be >= 0");
+        shards = new FloatChunkReader[shardPaths.size()];
+        shardLocks = new ReentrantLock[shards.length];
+        try {
+            long[] shardLengths = new long[shards.length];
+            long length = 0;
+            for (int i = 0; i < shards.length; i++) {
+                shards[i] = factory.create(shardPaths.get(i));
+                shardLocks[i] = new ReentrantLock();
+                shardLengths[i] = shards[i].length();
+                length += shardLengths[i];
+            }
+            if (stripeLength == 0) {
+                layout = ShardLayout.concatenated(shardLengths);
+            } else {
+                layout = ShardLayout.striped(shards.length, stripeLength, length);
+                for (int i = 0; i < shards.length; i++) {
+                    if (layout.shardLength(i) != shardLengths[i])
+                        throw new IOException(String.format("shard %s has %d floats, expecting %d floats for %s",
+                                shardPaths.get(i), shardLengths[i], layout.shardLength(i), layout));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            closeShards(e);
+            throw e;
+        }
+    }
+
+    public ShardLayout layout() {
+        return layout;
+    }
+
+    @Override
+    public long length() {
+        return layout.length();
+    }
+
+    @Override
+    public void read(float[] dst, long srcIndex, int dstIndex, int length) throws IOException {
+        int count = (int) readableLength(length, dst.length - dstIndex, length() - srcIndex);
+        if (count == 0)
+            return;
+        @SuppressWarnings("unchecked") List<ReadRequest>[] shardRequests = new List[shards.length];
+        int[] readShards = new int[shards.length];
+        int[] readShardsCount = {0};
+        layout.forEachPiece(srcIndex, count, (shard, localIndex, offset, pieceLength) -> {
+            if (shardRequests[shard] == null) {
+                shardRequests[shard] = new ArrayList<>();
+                readShards[readShardsCount[0]++] = shard;
+            }
+            shardRequests[shard].add(new ReadRequest(dst, localIndex, dstIndex + (int) offset, (int) pieceLength));
+        });
+        if (readShardsCount[0] == 1) {
+            readShard(readShards[0], shardRequests[readShards[0]]);
+            return;
+        }
+        try (StructuredTaskScope.ShutdownOnFailure scope = new StructuredTaskScope.ShutdownOnFailure()) {
+            for (int i = 0; i < readShardsCount[0]; i++) {
+                int shard = readShards[i];
+                scope.fork(() -> readShard(shard, shardRequests[shard]));
+            }
+            scope.join();
+            scope.throwIfFailed(FloatChunkReaderSupport::ioException);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while reading shards");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException error = closeShards(null);
+        if (error != null)
+            throw error;
+    }
+
+    private Void readShard(int shard, List<ReadRequest> requests) throws IOException {
+        shardLocks[shard].lock();
+        try {
+            if (requests.size() == 1) {
+                ReadRequest request = requests.get(0);
+                shards[shard].read(request.dst(), request.srcIndex(), request.dstIndex(), request.length());
+            } else {
+                shards[shard].readBatch(requests.toArray(ReadRequest[]::new));
+            }
+        } finally {
+            shardLocks[shard].unlock();
+        }
+        return null;
+    }
+
+    /**
+     * @param cause the exception to add close errors to, or null
+     * @return the first close error if cause is null
+     */
+    private IOException closeShards(Exception cause) {
+        IOException error = null;
+        for (FloatChunkReader shard : shards) {
+            if (shard == null)
+                continue;
+            try {
+                shard.close();
+            } catch (IOException e) {
+                if (cause != null) cause.addSuppressed(e);
+                else if (error == null) error = e;
+                else error.addSuppressed(e);
+            }
+        }
+        return error;
+    }
+}
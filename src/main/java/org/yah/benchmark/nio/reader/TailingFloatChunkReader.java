@@ -0,0 +1,279 @@
+package org.yah.benchmark.nio.reader;
+
+import org.yah.benchmark.nio.storage.FloatStorageHeader;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.copy;
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.readableLength;
+
+/**
+ * Read a storage file growing while it is read (appended by {@link org.yah.benchmark.nio.writer.FloatStorageGenerator}
+ * or a {@link org.yah.benchmark.nio.writer.FloatChunkWriter}): the length is the element count of the last header
+ * read, updated by writers once floats are written.<br/>
+ * A daemon thread waits for changes of the file from a {@link WatchService} (inotify on Linux), and reads the header
+ * again on each change (and at least every refresh interval, for platforms or writes, like mapped writes, not
+ * reported by the watch service). Consumers wait for new floats with {@link #awaitLength(long)}, or are called back
+ * by {@link #addGrowthListener(LongConsumer)}.<br/>
+ * The storage is mapped in windows of windowFloats floats, each mapped up to the file size when first read. Only the
+ * last window is remapped, when a read goes beyond its mapped size. Mappings are owned by automatic arenas, released
+ * by the garbage collector once no read uses them.<br/>
+ * Thread safe.
+ */
+public final class TailingFloatChunkReader extends BaseFloatChunkReader {
+
+    private static final System.Logger LOGGER = System.getLogger(TailingFloatChunkReader.class.getName());
+    private static final int DEFAULT_WINDOW_FLOATS = 1 << 28; // 1GB windows
+
+    private final int windowFloats;
+    private final long refreshNanos;
+    private final ValueLayout.OfFloat floatLayout;
+    private final WatchService watchService;
+    private final Thread watcher;
+    private final List<LongConsumer> growthListeners = new CopyOnWriteArrayList<>();
+    private final Object lengthLock = new Object();
+    private volatile long length;
+    private volatile boolean closed;
+    private volatile MemorySegment[] windows = new MemorySegment[0];
+
+    /**
+     * @param filePath the storage file path
+     */
+    public TailingFloatChunkReader(Path filePath) throws IOException {
+        this(filePath, DEFAULT_WINDOW_FLOATS, Duration.ofSeconds(1));
+    }
+
+    /**
+     * @param filePath        the storage file path
+     * @param windowFloats    the number of floats per mapped window
+     * @param refreshInterval the max interval between header reads when the watch service reports no change
+     */
+    public TailingFloatChunkReader(Path filePath, int windowFloats, Duration refreshInterval) throws IOException {
+        super(filePath);
+        if (windowFloats <= 0 || refreshInterval.isNegative() || refreshInterval.isZero()) {
+            fileChannel.close();
+            throw new IllegalArgumentException("invalid window floats " + windowFloats + " or refresh interval " + refreshInterval);
+        }
+        this.windowFloats = windowFloats;
+        refreshNanos = refreshInterval.toNanos();
+        floatLayout = ValueLayout.JAVA_FLOAT.withOrder(header.byteOrder());
+        length = header.elementCount();
+        Path directory = filePath.toAbsolutePath().getParent();
+        try {
+            watchService = directory.getFileSystem().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE);
+        } catch (IOException | RuntimeException e) {
+            fileChannel.close();
+            throw e;
+        }
+        watcher = Thread.ofPlatform()
+                .name("tail " + filePath.getFileName())
+                .daemon()
+                .start(this::watch);
+    }
+
+    /**
+     * @return the number of floats of the last header read
+     */
+    @Override
+    public long length() {
+        return length;
+    }
+
+    /**
+     * Read the header again, updating the length if the storage has grown.
+     *
+     * @return the current length
+     */
+    public long refresh() throws IOException {
+        long elementCount = FloatStorageHeader.read(fileChannel).elementCount();
+        synchronized (lengthLock) {
+            if (elementCount <= length)
+                return length;
+            length = elementCount;
+            lengthLock.notifyAll();
+        }
+        for (LongConsumer listener : growthListeners) {
+            try {
+                listener.accept(elementCount);
+            } catch (RuntimeException e) {
+                // a failing listener must not stop the other listeners, nor the watcher
+                LOGGER.log(System.Logger.Level.WARNING, "growth listener of " + filePath + " failed", e);
+            }
+        }
+        return elementCount;
+    }
+
+    /**
+     * Wait until the storage has at least minLength floats.
+     *
+     * @return the current length
+     * @throws IOException if the reader is closed while waiting
+     */
+    public long awaitLength(long minLength) throws IOException, InterruptedException {
+        synchronized (lengthLock) {
+            while (length < minLength) {
+                if (closed)
+                    throw new IOException("reader of " + filePath + " is closed");
+                lengthLock.wait();
+            }
+            return length;
+        }
+    }
+
+    /**
+     * Wait until the storage has at least minLength floats, or timeout.
+     *
+     * @return the current length (less than minLength on timeout)
+     * @throws IOException if the reader is closed while waiting
+     */
+    public long awaitLength(long minLength, long timeout, TimeUnit unit) throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (lengthLock) {
+            while (length < minLength) {
+                if (closed)
+                    throw new IOException("reader of " + filePath + " is closed");
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0)
+                    break;
+                TimeUnit.NANOSECONDS.timedWait(lengthLock, remaining);
+            }
+            return length;
+        }
+    }
+
+    /**
+     * Call listener with the new length each time the storage grows, from the watcher thread (or from the thread
+     * calling {@link #refresh()}). A listener throwing a runtime exception is logged, and still called on next growth.
+     */
+    public void addGrowthListener(LongConsumer listener) {
+        growthListeners.add(listener);
+    }
+
+    public void removeGrowthListener(LongConsumer listener) {
+        growthListeners.remove(listener);
+    }
+
+    @Override
+    public void read(float[] dst, long srcIndex, int dstIndex, int length) throws IOException {
+        int count = (int) readableLength(length, dst.length - dstIndex, length() - srcIndex);
+        while (count > 0) {
+            int windowIndex = (int) (srcIndex / windowFloats);
+            long indexInWindow = srcIndex - (long) windowIndex * windowFloats;
+            int lengthInWindow = (int) Math.min(count, windowFloats - indexInWindow);
+            MemorySegment window = window(windowIndex, indexInWindow + lengthInWindow);
+            copy(window, indexInWindow * Float.BYTES, header.byteOrder(), dst, dstIndex, lengthInWindow);
+            srcIndex += lengthInWindow;
+            dstIndex += lengthInWindow;
+            count -= lengthInWindow;
+        }
+    }
+
+    @Override
+    public long read(MemorySegment dst, long srcIndex, long dstIndex, long length) throws IOException {
+        long count = readableLength(length, dst.byteSize() / Float.BYTES - dstIndex, length() - srcIndex);
+        long remaining = count;
+        while (remaining > 0) {
+            int windowIndex = (int) (srcIndex / windowFloats);
+            long indexInWindow = srcIndex - (long) windowIndex * windowFloats;
+            long lengthInWindow = Math.min(remaining, windowFloats - indexInWindow);
+            MemorySegment window = window(windowIndex, indexInWindow + lengthInWindow);
+            if (nativeOrder())
+                MemorySegment.copy(window, indexInWindow * Float.BYTES, dst, dstIndex * Float.BYTES, lengthInWindow * Float.BYTES);
+            else
+                MemorySegment.copy(window, floatLayout, indexInWindow * Float.BYTES, dst, ValueLayout.JAVA_FLOAT_UNALIGNED,
+                        dstIndex * Float.BYTES, lengthInWindow);
+            srcIndex += lengthInWindow;
+            dstIndex += lengthInWindow;
+            remaining -= lengthInWindow;
+        }
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        synchronized (lengthLock) {
+            lengthLock.notifyAll();
+        }
+        try {
+            watchService.close();
+            watcher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            windows = new MemorySegment[0];
+            super.close();
+        }
+    }
+
+    /**
+     * @return the mapped window, mapping at least floatsInWindow floats
+     */
+    private MemorySegment window(int windowIndex, long floatsInWindow) throws IOException {
+        MemorySegment[] current = windows;
+        if (windowIndex < current.length && current[windowIndex] != null
+            && current[windowIndex].byteSize() >= floatsInWindow * Float.BYTES)
+            return current[windowIndex];
+        synchronized (this) {
+            current = windows;
+            if (windowIndex < current.length && current[windowIndex] != null
+                && current[windowIndex].byteSize() >= floatsInWindow * Float.BYTES)
+                return current[windowIndex];
+            // map up to the file size (the file is usually allocated before floats are written)
+            long start = position((long) windowIndex * windowFloats);
+            long end = Math.min(position((long) (windowIndex + 1) * windowFloats),
+                    Math.max(fileChannel.size(), start + floatsInWindow * Float.BYTES) / Float.BYTES * Float.BYTES);
+            MemorySegment window = map(start, end - start, Arena.ofAuto());
+            MemorySegment[] updated = Arrays.copyOf(current, Math.max(current.length, windowIndex + 1));
+            updated[windowIndex] = window;
+            windows = updated;
+            return window;
+        }
+    }
+
+    private void watch() {
+        Path fileName = filePath.getFileName();
+        while (!closed) {
+            try {
+                WatchKey key = watchService.poll(refreshNanos, TimeUnit.NANOSECONDS);
+                if (key != null) {
+                    boolean changed = false;
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        changed |= event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context());
+                    }
+                    key.reset();
+                    if (!changed)
+                        continue;
+                }
+                refresh();
+            } catch (ClosedWatchServiceException | InterruptedException e) {
+                return;
+            } catch (IOException e) {
+                if (closed)
+                    return;
+                // the file may be replaced or truncated by a writer, retry on next change
+            } catch (RuntimeException e) {
+                if (closed)
+                    return;
+                // keep following the tail, waiters would wait forever
+                LOGGER.log(System.Logger.Level.WARNING, "failed to refresh " + filePath, e);
+            }
+        }
+    }
+}
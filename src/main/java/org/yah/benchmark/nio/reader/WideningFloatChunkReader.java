@@ -0,0 +1,88 @@
+package org.yah.benchmark.nio.reader;
+
+import org.yah.benchmark.nio.storage.Compression;
+import org.yah.benchmark.nio.storage.ElementType;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.file.Path;
+
+import static org.yah.benchmark.nio.reader.FloatChunkReaderSupport.readableLength;
+
+/**
+ * Read a reduced precision storage ({@link ElementType#FLOAT16}, {@link ElementType#BFLOAT16} or
+ * {@link ElementType#INT8} with per block scales), widening elements to floats with Vector API conversion loops
+ * ({@link FloatWidening}) while copying them to the destination.<br/>
+ * The whole file is mapped in a single {@link MemorySegment} owned by an {@link Arena} (like
+ * {@link MemorySegmentFloatChunkReader}), so elements are converted straight from the page cache.<br/>
+ * Thread safe with a shared arena (reads do not change any state).
+ */
+public final class WideningFloatChunkReader extends BaseFloatChunkReader {
+
+    private final Arena arena;
+    private final MemorySegment segment;
+    private final ValueLayout.OfFloat scaleLayout;
+
+    /**
+     * @param filePath the storage file path
+     */
+    public WideningFloatChunkReader(Path filePath) throws IOException {
+        this(filePath, true);
+    }
+
+    /**
+     * @param filePath the storage file path
+     * @param shared   true to map the file in a shared {@link Arena} (reader usable from any thread), false to use a
+     *                 confined arena
+     */
+    public WideningFloatChunkReader(Path filePath, boolean shared) throws IOException {
+        super(filePath, Compression.NONE, ElementType.FLOAT16, ElementType.BFLOAT16, ElementType.INT8);
+        arena = shared ? Arena.ofShared() : Arena.ofConfined();
+        try {
+            segment = map(0, fileChannel.size(), arena);
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            fileChannel.close();
+            throw e;
+        }
+        scaleLayout = ValueLayout.JAVA_FLOAT_UNALIGNED.withOrder(header.byteOrder());
+    }
+
+    /**
+     * @return the type of the stored elements
+     */
+    public ElementType elementType() {
+        return header.elementType();
+    }
+
+    @Override
+    public void read(float[] dst, long srcIndex, int dstIndex, int length) throws IOException {
+        int count = (int) readableLength(length, dst.length - dstIndex, length() - srcIndex);
+        switch (header.elementType()) {
+            case FLOAT16 -> FloatWidening.widenFloat16(segment, position(srcIndex), header.byteOrder(), dst, dstIndex, count);
+            case BFLOAT16 -> FloatWidening.widenBFloat16(segment, position(srcIndex), header.byteOrder(), dst, dstIndex, count);
+            case INT8 -> {
+                int blockSize = header.blockSize();
+                while (count > 0) {
+                    long block = srcIndex / blockSize;
+                    int blockCount = (int) Math.min(count, (block + 1) * blockSize - srcIndex);
+                    float scale = segment.get(scaleLayout, header.scalePosition(block));
+                    FloatWidening.widenInt8(segment, position(srcIndex), scale, dst, dstIndex, blockCount);
+                    srcIndex += blockCount;
+                    dstIndex += blockCount;
+                    count -= blockCount;
+                }
+            }
+            default -> throw new IllegalStateException("unsupported element type " + header.elementType());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        // unmap now
+        arena.close();
+        super.close();
+    }
+}
@@ -0,0 +1,40 @@
+package org.yah.benchmark.nio.storage;
+
+/**
+ * Compression of the elements stored in a float storage file
+ */
+public enum Compression {
+    /**
+     * raw elements
+     */
+    NONE(0),
+    /**
+     * independently decodable blocks of {@link FloatStorageHeader#blockSize()} elements, each encoded by
+     * {@link FloatBlockCodec}, located by a block index following the header
+     */
+    XOR_SHUFFLE_DEFLATE(1);
+
+    private final int code;
+
+    Compression(int code) {
+        this.code = code;
+    }
+
+    /**
+     * @return the code of this compression in storage header
+     */
+    public int code() {
+        return code;
+    }
+
+    /**
+     * @return the compression of code, or null if unknown
+     */
+    public static Compression of(int code) {
+        for (Compression compression : values()) {
+            if (compression.code == code)
+                return compression;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,79 @@
+package org.yah.benchmark.nio.storage;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Convert floats to the elements of a storage:
+ * <ul>
+ *     <li>{@link ElementType#FLOAT16}: {@link Float#floatToFloat16(float)} (round to nearest even)</li>
+ *     <li>{@link ElementType#BFLOAT16}: high 16 bits of the float, rounded to nearest even</li>
+ *     <li>{@link ElementType#INT8}: symmetric quantization of each block, scale = max(|float|) / 127 (non finite floats
+ *     can not be quantized)</li>
+ * </ul>
+ */
+public final class ElementNarrowing {
+
+    private static final int INT8_MAX = 127;
+
+    private ElementNarrowing() {
+    }
+
+    /**
+     * @return the size in bytes of length elements starting at a block boundary (including block scales)
+     */
+    public static int narrowedSize(FloatStorageHeader header, int length) {
+        int size = length * header.elementType().bytes();
+        if (header.elementType().blockScaled())
+            size += (length + header.blockSize() - 1) / header.blockSize() * FloatStorageHeader.SCALE_BYTES;
+        return size;
+    }
+
+    /**
+     * Put the elements of length floats of src to dst (in dst byte order)
+     *
+     * @param startIndex the storage index of the first float, must be a block boundary for block scaled elements
+     */
+    public static void narrow(FloatStorageHeader header, float[] src, int srcIndex, int length, long startIndex, ByteBuffer dst) {
+        switch (header.elementType()) {
+            case FLOAT32 -> {
+                for (int i = 0; i < length; i++)
+                    dst.putFloat(src[srcIndex + i]);
+            }
+            case FLOAT16 -> {
+                for (int i = 0; i < length; i++)
+                    dst.putShort(Float.floatToFloat16(src[srcIndex + i]));
+            }
+            case BFLOAT16 -> {
+                for (int i = 0; i < length; i++)
+                    dst.putShort(toBFloat16(src[srcIndex + i]));
+            }
+            case INT8 -> {
+                int blockSize = header.blockSize();
+                if (startIndex % blockSize != 0)
+                    throw new IllegalArgumentException("start index " + startIndex + " is not aligned on block size " + blockSize);
+                for (int blockStart = 0; blockStart < length; blockStart += blockSize)
+                    quantize(src, srcIndex + blockStart, Math.min(blockSize, length - blockStart), dst);
+            }
+        }
+    }
+
+    static short toBFloat16(float value) {
+        int bits = Float.floatToRawIntBits(value);
+        if (Float.isNaN(value))
+            return (short) ((bits >>> 16) | 0x40); // keep it a (quiet) NaN
+        return (short) ((bits + 0x7FFF + ((bits >>> 16) & 1)) >>> 16);
+    }
+
+    private static void quantize(float[] src, int srcIndex, int length, ByteBuffer dst) {
+        float maxAbs = 0;
+        for (int i = 0; i < length; i++)
+            maxAbs = Math.max(maxAbs, Math.abs(src[srcIndex + i]));
+        float scale = maxAbs / INT8_MAX;
+        float inverseScale = scale == 0 ? 0 : 1 / scale;
+        dst.putFloat(scale);
+        for (int i = 0; i < length; i++) {
+            int quantized = Math.round(src[srcIndex + i] * inverseScale);
+            dst.put((byte) Math.max(-INT8_MAX, Math.min(INT8_MAX, quantized)));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.yah.benchmark.nio.storage;
+
+/**
+ * Type of the elements stored in a float storage file
+ */
+public enum ElementType {
+    /**
+     * IEEE 754 single precision float
+     */
+    FLOAT32(0, Float.BYTES),
+    /**
+     * IEEE 754 half precision float
+     */
+    FLOAT16(1, Short.BYTES),
+    /**
+     * bfloat16: the 16 high bits of a single precision float (8 bits exponent, 7 bits mantissa)
+     */
+    BFLOAT16(2, Short.BYTES),
+    /**
+     * signed byte quantized with a per block scale (float = byte * scale): each block of
+     * {@link FloatStorageHeader#blockSize()} elements starts with its float scale
+     */
+    INT8(3, Byte.BYTES);
+
+    private final int code;
+    private final int bytes;
+
+    ElementType(int code, int bytes) {
+        this.code = code;
+        this.bytes = bytes;
+    }
+
+    /**
+     * @return the code of this type in storage header
+     */
+    public int code() {
+        return code;
+    }
+
+    /**
+     * @return the size in bytes of an element
+     */
+    public int bytes() {
+        return bytes;
+    }
+
+    /**
+     * @return true if each block of elements starts with a float scale
+     */
+    public boolean blockScaled() {
+        return this == INT8;
+    }
+
+    /**
+     * @return the type of code, or null if unknown
+     */
+    public static ElementType of(int code) {
+        for (ElementType type : values()) {
+            if (type.code == code)
+                return type;
+        }
+        return null;
+    }
+}
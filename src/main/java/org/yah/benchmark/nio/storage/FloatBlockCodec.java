@@ -0,0 +1,119 @@
+package org.yah.benchmark.nio.storage;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Encode and decode a block of floats for {@link Compression#XOR_SHUFFLE_DEFLATE}:
+ * <ol>
+ *     <li>the bits of each float are XORed with the bits of the previous float of the block (close values share their
+ *     sign, exponent and high mantissa bits, leaving mostly 0 bits)</li>
+ *     <li>bytes are shuffled in 4 planes (all low bytes, then all second bytes, ...), grouping the runs of 0 bytes</li>
+ *     <li>planes are compressed with {@link Deflater} (LZ77 + huffman, raw deflate without zlib wrapper)</li>
+ * </ol>
+ * A block is decoded without any other block.<br/>
+ * <strong>Not thread safe</strong>, {@link #close()} releases the native zlib streams.
+ */
+public final class FloatBlockCodec implements AutoCloseable {
+
+    private final Deflater deflater;
+    private final Inflater inflater = new Inflater(true);
+
+    private byte[] planes = new byte[0];
+    private byte[] encoded = new byte[0];
+
+    public FloatBlockCodec() {
+        this(Deflater.BEST_SPEED);
+    }
+
+    /**
+     * @param level the deflate compression level (0-9)
+     */
+    public FloatBlockCodec(int level) {
+        deflater = new Deflater(level, true);
+    }
+
+    /**
+     * Encode length floats of src from srcIndex
+     *
+     * @return the encoded block
+     */
+    public byte[] encode(float[] src, int srcIndex, int length) {
+        byte[] planes = planes(length);
+        int previous = 0;
+        for (int i = 0; i < length; i++) {
+            int bits = Float.floatToRawIntBits(src[srcIndex + i]);
+            int xor = bits ^ previous;
+            previous = bits;
+            planes[i] = (byte) xor;
+            planes[length + i] = (byte) (xor >>> 8);
+            planes[2 * length + i] = (byte) (xor >>> 16);
+            planes[3 * length + i] = (byte) (xor >>> 24);
+        }
+
+        deflater.setInput(planes, 0, length * Float.BYTES);
+        deflater.finish();
+        int size = 0;
+        while (!deflater.finished()) {
+            if (size == encoded.length)
+                encoded = Arrays.copyOf(encoded, Math.max(1024, encoded.length * 2));
+            size += deflater.deflate(encoded, size, encoded.length - size);
+        }
+        deflater.reset();
+        return Arrays.copyOf(encoded, size);
+    }
+
+    /**
+     * Decode a block of length floats to dst from dstIndex
+     *
+     * @param src       the encoded block bytes
+     * @param srcOffset the offset of the block in src
+     * @param srcLength the size of the encoded block
+     * @throws IOException if the block is corrupted
+     */
+    public void decode(byte[] src, int srcOffset, int srcLength, float[] dst, int dstIndex, int length) throws IOException {
+        byte[] planes = planes(length);
+        int size = length * Float.BYTES;
+        inflater.setInput(src, srcOffset, srcLength);
+        try {
+            int inflated = 0;
+            while (inflated < size && !inflater.finished()) {
+                int count = inflater.inflate(planes, inflated, size - inflated);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                    break;
+                inflated += count;
+            }
+            if (inflated != size)
+                throw new IOException("corrupted block: " + inflated + " bytes decoded, expecting " + size);
+        } catch (DataFormatException e) {
+            throw new IOException("corrupted block", e);
+        } finally {
+            inflater.reset();
+        }
+
+        int previous = 0;
+        for (int i = 0; i < length; i++) {
+            int xor = (planes[i] & 0xFF)
+                      | (planes[length + i] & 0xFF) << 8
+                      | (planes[2 * length + i] & 0xFF) << 16
+                      | (planes[3 * length + i] & 0xFF) << 24;
+            previous ^= xor;
+            dst[dstIndex + i] = Float.intBitsToFloat(previous);
+        }
+    }
+
+    @Override
+    public void close() {
+        deflater.end();
+        inflater.end();
+    }
+
+    private byte[] planes(int length) {
+        if (planes.length < length * Float.BYTES)
+            planes = new byte[length * Float.BYTES];
+        return planes;
+    }
+}
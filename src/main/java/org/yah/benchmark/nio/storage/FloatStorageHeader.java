@@ -0,0 +1,217 @@
+package org.yah.benchmark.nio.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Header of a float storage file, at the start of the file:
+ * <pre>
+ * offset size field
+ *      0    8 magic "YFLOATS" followed by 0
+ *      8    4 version
+ *     12    4 element type code ({@link ElementType#code()})
+ *     16    4 byte order of elements (0: little endian, 1: big endian)
+ *     20    4 block size (elements per block)
+ *     24    8 element count
+ *     32    4 data offset (header size)
+ *     36    4 compression code ({@link Compression#code()})
+ *     40   24 reserved
+ * </pre>
+ * Header fields are little endian, elements start at data offset (64, so mapped elements stay aligned).<br/>
+ * Compressed elements are stored in blocks: data offset is then the position of the block index (the file position of
+ * each block followed by the end position of the last block, as little endian longs), and blocks follow the index.<br/>
+ * Files without header (legacy) are raw native order floats, the element count is computed from the file size.
+ *
+ * @param version      the format version
+ * @param elementType  the type of elements
+ * @param byteOrder    the byte order of elements
+ * @param blockSize    the number of elements per block (for block based encodings and indices)
+ * @param elementCount the number of elements
+ * @param dataOffset   the offset of the first element (or of the block index) in file (0 for legacy files)
+ * @param compression  the compression of elements
+ */
+public record FloatStorageHeader(int version, ElementType elementType, ByteOrder byteOrder, int blockSize,
+                                 long elementCount, int dataOffset, Compression compression) {
+
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 64;
+    public static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+
+    /**
+     * size of the scale at the start of each block of a block scaled storage
+     */
+    public static final int SCALE_BYTES = Float.BYTES;
+
+    private static final byte[] MAGIC = {'Y', 'F', 'L', 'O', 'A', 'T', 'S', 0};
+
+    public FloatStorageHeader {
+        Objects.requireNonNull(elementType, "elementType is null");
+        Objects.requireNonNull(byteOrder, "byteOrder is null");
+        Objects.requireNonNull(compression, "compression is null");
+        if (blockSize <= 0)
+            throw new IllegalArgumentException("invalid block size " + blockSize + " must be > 0");
+        if (elementCount < 0)
+            throw new IllegalArgumentException("invalid element count " + elementCount + " must be >= 0");
+    }
+
+    /**
+     * Create a header of current version
+     */
+    public static FloatStorageHeader create(ElementType elementType, ByteOrder byteOrder, int blockSize, long elementCount) {
+        return new FloatStorageHeader(VERSION, elementType, byteOrder, blockSize, elementCount, HEADER_SIZE, Compression.NONE);
+    }
+
+    /**
+     * Describe a file without header
+     */
+    public static FloatStorageHeader legacy(long fileSize) {
+        return new FloatStorageHeader(0, ElementType.FLOAT32, ByteOrder.nativeOrder(), DEFAULT_BLOCK_SIZE,
+                fileSize / Float.BYTES, 0, Compression.NONE);
+    }
+
+    /**
+     * @return true if the file has no header
+     */
+    public boolean isLegacy() {
+        return dataOffset == 0;
+    }
+
+    public FloatStorageHeader withElementCount(long elementCount) {
+        return new FloatStorageHeader(version, elementType, byteOrder, blockSize, elementCount, dataOffset, compression);
+    }
+
+    public FloatStorageHeader withCompression(Compression compression) {
+        return new FloatStorageHeader(version, elementType, byteOrder, blockSize, elementCount, dataOffset, compression);
+    }
+
+    /**
+     * @return the number of blocks of elements (the last one may be partial)
+     */
+    public long blockCount() {
+        return (elementCount + blockSize - 1) / blockSize;
+    }
+
+    /**
+     * @return the position in file of an element (of an uncompressed storage)
+     */
+    public long position(long index) {
+        if (!elementType.blockScaled())
+            return dataOffset + index * elementType.bytes();
+        long block = index / blockSize;
+        return scalePosition(block) + SCALE_BYTES + (index - block * blockSize) * elementType.bytes();
+    }
+
+    /**
+     * @return the position in file of the scale of a block (of a block scaled storage)
+     */
+    public long scalePosition(long block) {
+        return dataOffset + block * (SCALE_BYTES + (long) blockSize * elementType.bytes());
+    }
+
+    /**
+     * @return the position in file after the last element
+     */
+    public long endPosition() {
+        if (elementType.blockScaled() && elementCount % blockSize == 0)
+            return scalePosition(elementCount / blockSize); // no scale after last full block
+        return position(elementCount);
+    }
+
+    /**
+     * @throws IOException if elements are not of one of the expected types
+     */
+    public FloatStorageHeader requireElementType(ElementType... expected) throws IOException {
+        if (!Arrays.asList(expected).contains(elementType))
+            throw new IOException("unsupported element type " + elementType + ", expecting " + Arrays.toString(expected));
+        return this;
+    }
+
+    /**
+     * @throws IOException if elements are not compressed as expected
+     */
+    public FloatStorageHeader requireCompression(Compression expected) throws IOException {
+        if (compression != expected)
+            throw new IOException("unsupported compression " + compression + ", expecting " + expected);
+        return this;
+    }
+
+    /**
+     * Read the header of a storage file
+     */
+    public static FloatStorageHeader read(FileChannel fileChannel) throws IOException {
+        long fileSize = fileChannel.size();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+        if (fileSize >= HEADER_SIZE) {
+            while (buffer.hasRemaining()) {
+                if (fileChannel.read(buffer, buffer.position()) < 0)
+                    break;
+            }
+        }
+        return parse(buffer.flip(), fileSize);
+    }
+
+    /**
+     * Parse the header read from the start of a storage file
+     *
+     * @param buffer   the bytes read from file start (at most {@link #HEADER_SIZE}), from position to limit
+     * @param fileSize the size of the file
+     */
+    public static FloatStorageHeader parse(ByteBuffer buffer, long fileSize) throws IOException {
+        buffer = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < HEADER_SIZE || !Arrays.equals(MAGIC, 0, MAGIC.length, bytes(buffer, MAGIC.length), 0, MAGIC.length))
+            return legacy(fileSize);
+        int version = buffer.getInt(8);
+        if (version > VERSION)
+            throw new IOException("unsupported storage version " + version + ", max supported " + VERSION);
+        ElementType elementType = ElementType.of(buffer.getInt(12));
+        if (elementType == null)
+            throw new IOException("unknown element type " + buffer.getInt(12));
+        ByteOrder byteOrder = switch (buffer.getInt(16)) {
+            case 0 -> ByteOrder.LITTLE_ENDIAN;
+            case 1 -> ByteOrder.BIG_ENDIAN;
+            default -> throw new IOException("invalid byte order " + buffer.getInt(16));
+        };
+        Compression compression = Compression.of(buffer.getInt(36));
+        if (compression == null)
+            throw new IOException("unknown compression " + buffer.getInt(36));
+        return new FloatStorageHeader(version, elementType, byteOrder, buffer.getInt(20), buffer.getLong(24), buffer.getInt(32),
+                compression);
+    }
+
+    /**
+     * Write this header at the start of a storage file
+     */
+    public void write(FileChannel fileChannel) throws IOException {
+        if (isLegacy())
+            throw new IllegalStateException("legacy storage has no header");
+        ByteBuffer buffer = toBytes();
+        while (buffer.hasRemaining())
+            fileChannel.write(buffer, buffer.position());
+    }
+
+    /**
+     * @return the bytes of this header
+     */
+    public ByteBuffer toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(MAGIC)
+                .putInt(version)
+                .putInt(elementType.code())
+                .putInt(byteOrder == ByteOrder.LITTLE_ENDIAN ? 0 : 1)
+                .putInt(blockSize)
+                .putLong(elementCount)
+                .putInt(dataOffset)
+                .putInt(compression.code());
+        return buffer.clear();
+    }
+
+    private static byte[] bytes(ByteBuffer buffer, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(0, bytes);
+        return bytes;
+    }
+}
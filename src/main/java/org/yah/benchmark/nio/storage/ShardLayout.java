@@ -0,0 +1,167 @@
+package org.yah.benchmark.nio.storage;
+
+import java.util.Arrays;
+
+/**
+ * Layout of a logical array of floats split across shards (storage files, possibly on different devices):
+ * <ul>
+ *     <li>concatenated: each shard stores a contiguous range of the array, after the range of the previous shard</li>
+ *     <li>striped: the array is split in stripes of stripeLength floats, assigned to shards round robin (stripe k is
+ *     stored in shard k % shardCount, as its (k / shardCount)th stripe)</li>
+ * </ul>
+ */
+public final class ShardLayout {
+
+    /**
+     * Consumer of the pieces of a range of the array, in array order
+     */
+    @FunctionalInterface
+    public interface PieceConsumer<E extends Exception> {
+        /**
+         * @param shard      the shard of the piece
+         * @param localIndex the index in the shard of the first float of the piece
+         * @param offset     the offset of the piece from the range start
+         * @param length     the number of floats of the piece
+         */
+        void accept(int shard, long localIndex, long offset, long length) throws E;
+    }
+
+    private final long[] shardLengths;
+    /**
+     * index of the first float of each shard (concatenated), and the array length
+     */
+    private final long[] shardStarts;
+    private final long stripeLength;
+
+    private ShardLayout(long[] shardLengths, long stripeLength) {
+        this.shardLengths = shardLengths;
+        this.stripeLength = stripeLength;
+        shardStarts = new long[shardLengths.length + 1];
+        for (int i = 0; i < shardLengths.length; i++)
+            shardStarts[i + 1] = shardStarts[i] + shardLengths[i];
+    }
+
+    /**
+     * @param shardLengths the number of floats of each shard
+     */
+    public static ShardLayout concatenated(long... shardLengths) {
+        if (shardLengths.length == 0)
+            throw new IllegalArgumentException("no shard");
+        for (long shardLength : shardLengths) {
+            if (shardLength < 0)
+                throw new IllegalArgumentException("invalid shard length " + shardLength + " must be >= 0");
+        }
+        return new ShardLayout(shardLengths.clone(), 0);
+    }
+
+    /**
+     * @param shardCount   the number of shards
+     * @param stripeLength the number of floats per stripe
+     * @param length       the number of floats of the array
+     */
+    public static ShardLayout striped(int shardCount, long stripeLength, long length) {
+        if (shardCount <= 0)
+            throw new IllegalArgumentException("invalid shard count " + shardCount + " must be > 0");
+        if (stripeLength <= 0)
+            throw new IllegalArgumentException("invalid stripe length " + stripeLength + " must be > 0");
+        if (length < 0)
+            throw new IllegalArgumentException("invalid length " + length + " must be >= 0");
+        long fullStripes = length / stripeLength;
+        long[] shardLengths = new long[shardCount];
+        for (int shard = 0; shard < shardCount; shard++) {
+            long stripes = fullStripes / shardCount + (shard < fullStripes % shardCount ? 1 : 0);
+            shardLengths[shard] = stripes * stripeLength;
+        }
+        // partial last stripe
+        shardLengths[(int) (fullStripes % shardCount)] += length % stripeLength;
+        return new ShardLayout(shardLengths, stripeLength);
+    }
+
+    public int shardCount() {
+        return shardLengths.length;
+    }
+
+    public boolean striped() {
+        return stripeLength > 0;
+    }
+
+    /**
+     * @return the number of floats per stripe, 0 if concatenated
+     */
+    public long stripeLength() {
+        return stripeLength;
+    }
+
+    /**
+     * @return the number of floats of the array
+     */
+    public long length() {
+        return shardStarts[shardLengths.length];
+    }
+
+    public long shardLength(int shard) {
+        return shardLengths[shard];
+    }
+
+    /**
+     * @return the index in the array of a float of a shard
+     */
+    public long globalIndex(int shard, long localIndex) {
+        if (!striped())
+            return shardStarts[shard] + localIndex;
+        long stripe = localIndex / stripeLength;
+        return (stripe * shardLengths.length + shard) * stripeLength + localIndex % stripeLength;
+    }
+
+    /**
+     * Split the floats of the array in [start, start + length[ in pieces stored contiguously in a shard.
+     */
+    public <E extends Exception> void forEachPiece(long start, long length, PieceConsumer<E> consumer) throws E {
+        long offset = 0;
+        while (offset < length) {
+            long index = start + offset;
+            int shard;
+            long localIndex, pieceLength;
+            if (striped()) {
+                long stripe = index / stripeLength;
+                long indexInStripe = index - stripe * stripeLength;
+                shard = (int) (stripe % shardLengths.length);
+                localIndex = stripe / shardLengths.length * stripeLength + indexInStripe;
+                pieceLength = Math.min(length - offset, stripeLength - indexInStripe);
+            } else {
+                int found = Arrays.binarySearch(shardStarts, index);
+                // first shard starting after index, skipping empty shards
+                shard = found >= 0 ? found : -found - 2;
+                while (shardLengths[shard] == 0)
+                    shard++;
+                localIndex = index - shardStarts[shard];
+                pieceLength = Math.min(length - offset, shardLengths[shard] - localIndex);
+            }
+            consumer.accept(shard, localIndex, offset, pieceLength);
+            offset += pieceLength;
+        }
+    }
+
+    /**
+     * Split the floats of a shard in [localStart, localStart + length[ in pieces contiguous in the array.
+     *
+     * @param consumer called with the shard, the index in the array of the first float of each piece (as localIndex),
+     *                 its offset from localStart and its length
+     */
+    public <E extends Exception> void forEachShardPiece(int shard, long localStart, long length, PieceConsumer<E> consumer) throws E {
+        long offset = 0;
+        while (offset < length) {
+            long localIndex = localStart + offset;
+            long pieceLength = striped()
+                    ? Math.min(length - offset, stripeLength - localIndex % stripeLength)
+                    : length - offset;
+            consumer.accept(shard, globalIndex(shard, localIndex), offset, pieceLength);
+            offset += pieceLength;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return (striped() ? "striped(" + stripeLength + ") " : "concatenated ") + Arrays.toString(shardLengths);
+    }
+}
@@ -0,0 +1,201 @@
+package org.yah.benchmark.nio.writer;
+
+import org.yah.benchmark.nio.storage.Compression;
+import org.yah.benchmark.nio.storage.ElementType;
+import org.yah.benchmark.nio.storage.FloatStorageHeader;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Support class for all implementations of {@link FloatChunkWriter}.<br/>
+ * Opens an existing {@link ElementType#FLOAT32} storage (keeping its floats) or creates a new one, and preallocates
+ * the file for capacity floats ({@link FileAllocation}). When a write goes beyond the capacity, the file grows by at
+ * least half its capacity.<br/>
+ * If construction fails, the file is restored: deleted if it was created, or truncated to its size when opened.
+ */
+public abstract class BaseFloatChunkWriter implements FloatChunkWriter {
+
+    /**
+     * min number of floats allocated when the file grows
+     */
+    private static final long MIN_GROWTH = 16 * 1024 * 1024;
+
+    protected final Path filePath;
+
+    protected final FileChannel fileChannel;
+
+    /**
+     * storage header, read or created when opened (its element count is the one of the opened storage)
+     */
+    protected final FloatStorageHeader header;
+
+    /**
+     * true if the file was created by this writer, else its size when opened
+     */
+    private final boolean created;
+    private final long openedSize;
+
+    private final AtomicLong length;
+    private final Object growLock = new Object();
+    private volatile long capacity;
+    private volatile boolean closed;
+
+    /**
+     * @param filePath  the storage file path
+     * @param capacity  the number of floats to allocate
+     * @param byteOrder the byte order of floats, must be the order of the existing storage
+     */
+    protected BaseFloatChunkWriter(Path filePath, long capacity, ByteOrder byteOrder) throws IOException {
+        Objects.requireNonNull(byteOrder, "byteOrder is null");
+        if (capacity < 0)
+            throw new IllegalArgumentException("invalid capacity " + capacity + " must be >= 0");
+        this.filePath = filePath;
+        created = !Files.exists(filePath);
+        openedSize = created ? 0 : Files.size(filePath);
+        fileChannel = FileChannel.open(filePath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (fileChannel.size() > 0) {
+                FloatStorageHeader existing = FloatStorageHeader.read(fileChannel)
+                        .requireElementType(ElementType.FLOAT32)
+                        .requireCompression(Compression.NONE);
+                if (existing.isLegacy())
+                    throw new IOException("can not write legacy storage " + filePath + " without header");
+                if (existing.byteOrder() != byteOrder)
+                    throw new IllegalArgumentException("can not write " + byteOrder + " floats to " + existing.byteOrder() + " storage " + filePath);
+                header = existing;
+            } else {
+                header = FloatStorageHeader.create(ElementType.FLOAT32, byteOrder, FloatStorageHeader.DEFAULT_BLOCK_SIZE, 0);
+                header.write(fileChannel);
+            }
+            length = new AtomicLong(header.elementCount());
+            this.capacity = Math.max(capacity, header.elementCount());
+            FileAllocation.allocate(filePath, fileChannel, header.position(this.capacity));
+        } catch (IOException | RuntimeException e) {
+            abort(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public final long length() {
+        return length.get();
+    }
+
+    @Override
+    public final long capacity() {
+        return capacity;
+    }
+
+    @Override
+    public final void write(float[] src, long dstIndex, int srcIndex, int length) throws IOException {
+        Objects.checkFromIndexSize(srcIndex, length, src.length);
+        if (dstIndex < 0)
+            throw new IndexOutOfBoundsException("invalid dstIndex " + dstIndex);
+        if (length == 0)
+            return;
+        long end = dstIndex + length;
+        ensureCapacity(end);
+        write0(src, dstIndex, srcIndex, length);
+        this.length.accumulateAndGet(end, Math::max);
+    }
+
+    @Override
+    public final long append(float[] src, int srcIndex, int length) throws IOException {
+        Objects.checkFromIndexSize(srcIndex, length, src.length);
+        long dstIndex = this.length.getAndAdd(length);
+        if (length > 0) {
+            ensureCapacity(dstIndex + length);
+            write0(src, dstIndex, srcIndex, length);
+        }
+        return dstIndex;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        force();
+        header.withElementCount(length()).write(fileChannel);
+        fileChannel.force(true);
+    }
+
+    /**
+     * Write floats to the allocated storage (capacity is at least dstIndex + length)
+     */
+    protected abstract void write0(float[] src, long dstIndex, int srcIndex, int length) throws IOException;
+
+    /**
+     * Force written floats to the storage device
+     */
+    protected abstract void force() throws IOException;
+
+    /**
+     * Called with the new capacity once the file is allocated for it, before any write to the new floats.
+     */
+    protected void grown(long capacity) throws IOException {
+    }
+
+    /**
+     * Restore the file when construction fails (here or in a subclass constructor): close the channel, and delete the
+     * file if it was created, or truncate it to its size when opened (releasing the preallocated space).
+     *
+     * @param cause the construction failure, any error restoring the file is added to it
+     */
+    protected final void abort(Exception cause) {
+        closed = true;
+        try {
+            try {
+                if (!created && fileChannel.isOpen())
+                    fileChannel.truncate(openedSize);
+            } finally {
+                fileChannel.close();
+            }
+            if (created)
+                Files.deleteIfExists(filePath);
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    /**
+     * @return the position in file of the float at index
+     */
+    protected final long position(long index) {
+        return header.position(index);
+    }
+
+    private void ensureCapacity(long end) throws IOException {
+        if (end <= capacity)
+            return;
+        synchronized (growLock) {
+            long current = capacity;
+            if (end <= current)
+                return;
+            long newCapacity = Math.max(end, current + Math.max(current / 2, MIN_GROWTH));
+            FileAllocation.allocate(filePath, fileChannel, position(newCapacity));
+            grown(newCapacity);
+            capacity = newCapacity;
+        }
+    }
+
+    /**
+     * Subclasses must release any mapping of the file before. Closing a closed writer has no effect.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed)
+            return;
+        closed = true;
+        try {
+            header.withElementCount(length()).write(fileChannel);
+            fileChannel.truncate(header.withElementCount(length()).endPosition());
+        } finally {
+            fileChannel.close();
+        }
+    }
+}
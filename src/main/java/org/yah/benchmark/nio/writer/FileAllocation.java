@@ -0,0 +1,104 @@
+package org.yah.benchmark.nio.writer;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.MethodHandle;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+/**
+ * Preallocation of storage files.<br/>
+ * On Linux, disk blocks are reserved with {@code posix_fallocate} from the C library (downcall handles, on a second
+ * file descriptor of the file): a full disk fails the allocation instead of a later write (or a mapped write, that
+ * would crash the JVM), and blocks written concurrently by many threads are not interleaved on disk.<br/>
+ * Elsewhere (or if the file system does not support it), the file is only extended by writing its last byte (sparse
+ * on most file systems).
+ */
+final class FileAllocation {
+
+    private static final int O_WRONLY = 1; // linux value
+    private static final int ENOSPC = 28;
+    private static final int EFBIG = 27;
+
+    private static final MethodHandle OPEN;
+    private static final MethodHandle CLOSE;
+    private static final MethodHandle POSIX_FALLOCATE;
+
+    static {
+        MethodHandle open = null, close = null, fallocate = null;
+        if (System.getProperty("os.name", "").startsWith("Linux")) {
+            try {
+                Linker linker = Linker.nativeLinker();
+                open = linker.defaultLookup().find("open")
+                        .map(address -> linker.downcallHandle(address, FunctionDescriptor.of(ValueLayout.JAVA_INT,
+                                ValueLayout.ADDRESS, ValueLayout.JAVA_INT)))
+                        .orElse(null);
+                close = linker.defaultLookup().find("close")
+                        .map(address -> linker.downcallHandle(address, FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.JAVA_INT)))
+                        .orElse(null);
+                fallocate = linker.defaultLookup().find("posix_fallocate")
+                        .map(address -> linker.downcallHandle(address, FunctionDescriptor.of(ValueLayout.JAVA_INT,
+                                ValueLayout.JAVA_INT, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG)))
+                        .orElse(null);
+            } catch (Throwable e) {
+                fallocate = null;
+            }
+        }
+        OPEN = open;
+        CLOSE = close;
+        POSIX_FALLOCATE = open != null && close != null ? fallocate : null;
+    }
+
+    private FileAllocation() {
+    }
+
+    /**
+     * Grow a file to size bytes, allocating its new blocks if possible. Does nothing if the file is not smaller.
+     *
+     * @param file        the file path
+     * @param fileChannel a writable channel of the file
+     * @param size        the new file size
+     * @throws IOException if there is not enough space on the device
+     */
+    static void allocate(Path file, FileChannel fileChannel, long size) throws IOException {
+        long fileSize = fileChannel.size();
+        if (size <= fileSize)
+            return;
+        if (!fallocate(file, fileSize, size - fileSize)) {
+            // extend the file by writing a single byte at its new end position
+            ByteBuffer lastByte = ByteBuffer.allocate(1);
+            while (lastByte.hasRemaining())
+                fileChannel.write(lastByte, size - 1);
+        }
+    }
+
+    /**
+     * @return true if blocks were allocated, false if posix_fallocate is not available or not supported
+     */
+    private static boolean fallocate(Path file, long offset, long length) throws IOException {
+        if (POSIX_FALLOCATE == null)
+            return false;
+        int error;
+        try (Arena arena = Arena.ofConfined()) {
+            int fd = (int) OPEN.invokeExact(arena.allocateUtf8String(file.toAbsolutePath().toString()), O_WRONLY);
+            if (fd < 0)
+                return false;
+            try {
+                error = (int) POSIX_FALLOCATE.invokeExact(fd, offset, length);
+            } finally {
+                int ignored = (int) CLOSE.invokeExact(fd);
+            }
+        } catch (Throwable e) {
+            return false;
+        }
+        if (error == ENOSPC || error == EFBIG)
+            throw new IOException("can not allocate " + length + " bytes at " + offset + " of " + file + ": "
+                    + (error == ENOSPC ? "no space left on device" : "file too large"));
+        return error == 0;
+    }
+}
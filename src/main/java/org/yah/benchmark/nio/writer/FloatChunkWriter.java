@@ -0,0 +1,63 @@
+package org.yah.benchmark.nio.writer;
+
+import org.yah.benchmark.nio.reader.FloatChunkReader;
+import org.yah.benchmark.nio.storage.FloatStorageHeader;
+
+import java.io.IOException;
+
+/**
+ * Write chunks of floats to a storage file (the counterpart of {@link FloatChunkReader}), for producers pushing floats
+ * in arrays rather than being pulled by {@link FloatStorageGenerator}.<br/>
+ * The storage length is the end of the furthest written chunk. The {@link FloatStorageHeader} element count is updated
+ * by {@link #flush()} and {@link #close()}: readers opened before only see the floats of the previous header.<br/>
+ * Implementations are thread safe: many threads can write disjoint ranges, or append, at the same time.
+ */
+public interface FloatChunkWriter extends AutoCloseable {
+
+    /**
+     * @return the number of floats in the storage (written or reserved by {@link #append})
+     */
+    long length();
+
+    /**
+     * @return the number of floats the file is allocated for, writing beyond grows the file
+     */
+    long capacity();
+
+    /**
+     * Write length floats of src, starting at srcIndex, to the storage at float index dstIndex.
+     *
+     * @param src      the source array
+     * @param dstIndex the index of the first float written in the storage (can be beyond the storage length)
+     * @param srcIndex the index in src of the first float to write
+     * @param length   the number of floats to write
+     */
+    void write(float[] src, long dstIndex, int srcIndex, int length) throws IOException;
+
+    default void write(float[] src, long dstIndex) throws IOException {
+        write(src, dstIndex, 0, src.length);
+    }
+
+    /**
+     * Write length floats of src, starting at srcIndex, at the end of the storage. The range of concurrent appends is
+     * reserved atomically, so they never overlap.
+     *
+     * @return the storage index of the first written float
+     */
+    long append(float[] src, int srcIndex, int length) throws IOException;
+
+    default long append(float[] src) throws IOException {
+        return append(src, 0, src.length);
+    }
+
+    /**
+     * Force written floats to the storage device and update the storage header.
+     */
+    void flush() throws IOException;
+
+    /**
+     * Update the storage header and release the space allocated beyond the storage length.
+     */
+    @Override
+    void close() throws IOException;
+}
@@ -1,6 +1,16 @@
 package org.yah.benchmark.nio.writer;
 
+import org.yah.benchmark.nio.index.ZoneMap;
+import org.yah.benchmark.nio.reader.CompressedFloatChunkReader;
+import org.yah.benchmark.nio.reader.FileChannelFloatChunkReader;
 import org.yah.benchmark.nio.reader.FloatChunkReader;
+import org.yah.benchmark.nio.reader.ShardedFloatChunkReader;
+import org.yah.benchmark.nio.storage.Compression;
+import org.yah.benchmark.nio.storage.ElementNarrowing;
+import org.yah.benchmark.nio.storage.ElementType;
+import org.yah.benchmark.nio.storage.FloatBlockCodec;
+import org.yah.benchmark.nio.storage.FloatStorageHeader;
+import org.yah.benchmark.nio.storage.ShardLayout;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
@@ -8,12 +18,15 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.file.Files;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -22,7 +35,8 @@ import java.util.function.IntFunction;
 
 /**
  * Utility class to generate float for testing {@link FloatChunkReader}.
- * A float storage file is simply an array of float. Number of float can be computed from file size.
+ * A float storage file is a {@link FloatStorageHeader} followed by an array of float, or by a block index and
+ * compressed blocks of floats.
  */
 public final class FloatStorageGenerator {
 
@@ -31,6 +45,16 @@ public final class FloatStorageGenerator {
 
         float produce(long index);
 
+        /**
+         * Produce the floats of length indices from startIndex, to dst from offset.<br/>
+         * Generation always calls this method, the default calls {@link #produce(long)} for each index: override it
+         * with a loop the JIT can unroll and vectorize, instead of an interface call per float.
+         */
+        default void produce(long startIndex, float[] dst, int offset, int length) {
+            for (int i = 0; i < length; i++)
+                dst[offset + i] = produce(startIndex + i);
+        }
+
         /**
          * called after chunk generation, allowing to release/close stuff
          */
@@ -49,6 +73,29 @@ public final class FloatStorageGenerator {
         generate(file, count, unused -> producer, append, 1);
     }
 
+    /**
+     * {@link #generate(Path, long, IntFunction, boolean, int, ByteOrder)} using native byte order
+     */
+    public static void generate(Path file, long count, IntFunction<FloatProducer> producerFactory, boolean append, int maxThreads) throws IOException {
+        generate(file, count, producerFactory, append, maxThreads, ByteOrder.nativeOrder());
+    }
+
+    /**
+     * {@link #generate(Path, long, IntFunction, boolean, int, ByteOrder, ElementType)} of {@link ElementType#FLOAT32}
+     */
+    public static void generate(Path file, long count, IntFunction<FloatProducer> producerFactory, boolean append, int maxThreads,
+                                ByteOrder byteOrder) throws IOException {
+        generate(file, count, producerFactory, append, maxThreads, byteOrder, ElementType.FLOAT32);
+    }
+
+    /**
+     * {@link #generate(Path, long, IntFunction, boolean, int, ByteOrder, ElementType, boolean)} without zone map
+     */
+    public static void generate(Path file, long count, IntFunction<FloatProducer> producerFactory, boolean append, int maxThreads,
+                                ByteOrder byteOrder, ElementType elementType) throws IOException {
+        generate(file, count, producerFactory, append, maxThreads, byteOrder, elementType, false);
+    }
+
     /**
      * Generate a file usable by {@link FloatChunkReader}
      *
@@ -59,17 +106,31 @@ public final class FloatStorageGenerator {
      *                        must be thread safe is maxThreads > 1
      * @param append          if true, will append to any existing file, otherwise will truncate existing file or create a new file.
      * @param maxThreads      the number of thread to use (producer must be thread safe if > 1).
+     * @param byteOrder       the byte order of floats, must be the order of the existing file when appending
+     * @param elementType     the type of stored elements (floats are narrowed by {@link ElementNarrowing}), must be the
+     *                        type of the existing file when appending
+     * @param buildZoneMap    true to build the {@link ZoneMap} of generated floats while generating them, written to
+     *                        {@link ZoneMap#path(Path)} (only for {@link ElementType#FLOAT32}, when appending, the zone
+     *                        map of the existing floats is read from its file, or built if missing or outdated)
      */
-    public static void generate(Path file, long count, IntFunction<FloatProducer> producerFactory, boolean append, int maxThreads) throws IOException {
+    public static void generate(Path file, long count, IntFunction<FloatProducer> producerFactory, boolean append, int maxThreads,
+                                ByteOrder byteOrder, ElementType elementType, boolean buildZoneMap) throws IOException {
         if (count == 0)
             return;
         if (maxThreads <= 0)
             throw new IllegalArgumentException("Invalid maxThreads count " + maxThreads + ", must be > 0");
+        if (buildZoneMap && elementType != ElementType.FLOAT32)
+            throw new IllegalArgumentException("zone map of " + elementType + " storage must be built with ZoneMap.build");
 
-        long startIndex = allocateFile(file, count, append);
+        ZoneMap existingZoneMap = buildZoneMap && append ? existingZoneMap(file, maxThreads) : null;
+        FloatStorageHeader header = allocateFile(file, count, append, byteOrder, elementType);
+        long startIndex = header.elementCount() - count;
+        ZoneMap.Builder zoneMap = buildZoneMap ? zoneMapBuilder(existingZoneMap, header, count) : null;
 
         long threadChunkSize = Math.max(1000, ceil_div(count, maxThreads)); // at least 1000 floats per thread
-        int threadsCount = ceil_div(count, threadChunkSize) < maxThreads ? (int) (count / threadChunkSize) : maxThreads;
+        if (elementType.blockScaled()) // chunks of whole blocks
+            threadChunkSize = ceil_div(threadChunkSize, header.blockSize()) * header.blockSize();
+        int threadsCount = (int) Math.min(maxThreads, ceil_div(count, threadChunkSize));
         if (threadsCount > 1) {
             ExecutorService executorService = Executors.newFixedThreadPool(threadsCount);
             try {
@@ -77,7 +138,7 @@ public final class FloatStorageGenerator {
                 for (int chunkIndex = 0; chunkIndex < threadsCount; chunkIndex++) {
                     long currentChunkSize = Math.min(threadChunkSize, count - chunkIndex * threadChunkSize);
                     long chunkStartIndex = startIndex + chunkIndex * threadChunkSize;
-                    Future<?> future = submit(file, producerFactory, executorService, chunkIndex, chunkStartIndex, currentChunkSize);
+                    Future<?> future = submit(file, header, zoneMap, producerFactory, executorService, chunkIndex, chunkStartIndex, currentChunkSize);
                     futures.add(future);
                 }
                 waitAndCheck(futures);
@@ -86,15 +147,238 @@ public final class FloatStorageGenerator {
             }
         } else {
             FloatProducer producer = producerFactory.apply(0);
-            generateChunk(file, producer, startIndex, count);
+            generateChunk(file, header, zoneMap, producer, startIndex, count);
+        }
+        publish(file, header);
+        if (zoneMap != null)
+            zoneMap.build().write(ZoneMap.path(file));
+    }
+
+    /**
+     * {@link #generatePipelined(Path, long, IntFunction, boolean, int, int, ByteOrder, ElementType, boolean)} of native
+     * order {@link ElementType#FLOAT32}, without zone map
+     */
+    public static void generatePipelined(Path file, long count, IntFunction<FloatProducer> producerFactory, boolean append,
+                                         int producerThreads, int writerThreads) throws IOException {
+        generatePipelined(file, count, producerFactory, append, producerThreads, writerThreads, ByteOrder.nativeOrder(),
+                ElementType.FLOAT32, false);
+    }
+
+    /**
+     * Generate a file like {@link #generate(Path, long, IntFunction, boolean, int, ByteOrder, ElementType, boolean)},
+     * with producing and writing decoupled: producer threads fill pooled direct buffers with chunks of floats, handed
+     * by a bounded queue to writer threads, that coalesce consecutive chunks in larger writes (see
+     * {@link GenerationPipeline}). Producing and writing overlap, so generation is bound by the slowest of both.
+     *
+     * @param producerThreads the number of producer threads (producerFactory is called with each thread index, it
+     *                        must be thread safe if &gt; 1)
+     * @param writerThreads   the number of writer threads
+     */
+    public static void generatePipelined(Path file, long count, IntFunction<FloatProducer> producerFactory, boolean append,
+                                         int producerThreads, int writerThreads, ByteOrder byteOrder, ElementType elementType,
+                                         boolean buildZoneMap) throws IOException {
+        if (count == 0)
+            return;
+        if (producerThreads <= 0)
+            throw new IllegalArgumentException("Invalid producerThreads count " + producerThreads + ", must be > 0");
+        if (writerThreads <= 0)
+            throw new IllegalArgumentException("Invalid writerThreads count " + writerThreads + ", must be > 0");
+        if (buildZoneMap && elementType != ElementType.FLOAT32)
+            throw new IllegalArgumentException("zone map of " + elementType + " storage must be built with ZoneMap.build");
+
+        ZoneMap existingZoneMap = buildZoneMap && append ? existingZoneMap(file, producerThreads) : null;
+        FloatStorageHeader header = allocateFile(file, count, append, byteOrder, elementType);
+        ZoneMap.Builder zoneMap = buildZoneMap ? zoneMapBuilder(existingZoneMap, header, count) : null;
+        new GenerationPipeline(file, header, zoneMap, producerFactory, header.elementCount() - count, count)
+                .run(producerThreads, writerThreads);
+        publish(file, header);
+        if (zoneMap != null)
+            zoneMap.build().write(ZoneMap.path(file));
+    }
+
+    /**
+     * Generate the shards of a logical array of floats laid out by a {@link ShardLayout} (readable by
+     * {@link ShardedFloatChunkReader}), in native order. Shards are generated at the same time (they are usually on
+     * different devices), each by {@link #generatePipelined(Path, long, IntFunction, boolean, int, int)} with its own
+     * producers and writer.
+     *
+     * @param shardFiles      the storage file of each shard (truncated if it exists)
+     * @param layout          the layout of floats in shards
+     * @param producerFactory the factory of {@link FloatProducer} per thread index (shard * producerThreads + thread),
+     *                        producers are called with indices of floats in the logical array
+     * @param producerThreads the number of producer threads per shard
+     */
+    public static void generateSharded(List<Path> shardFiles, ShardLayout layout, IntFunction<FloatProducer> producerFactory,
+                                       int producerThreads) throws IOException {
+        if (shardFiles.size() != layout.shardCount())
+            throw new IllegalArgumentException("expecting " + layout.shardCount() + " shard files, got " + shardFiles.size());
+        if (producerThreads <= 0)
+            throw new IllegalArgumentException("Invalid producerThreads count " + producerThreads + ", must be > 0");
+        ExecutorService executorService = Executors.newFixedThreadPool(layout.shardCount());
+        try {
+            LinkedList<Future<?>> futures = new LinkedList<>();
+            for (int shard = 0; shard < layout.shardCount(); shard++) {
+                int shardIndex = shard;
+                futures.add(executorService.submit(() -> {
+                    try {
+                        generateShard(shardFiles.get(shardIndex), layout, shardIndex, producerFactory, producerThreads);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+            }
+            for (Future<?> future : futures)
+                get(future);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private static void generateShard(Path file, ShardLayout layout, int shard, IntFunction<FloatProducer> producerFactory,
+                                      int producerThreads) throws IOException {
+        long shardLength = layout.shardLength(shard);
+        if (shardLength == 0) { // a storage without floats
+            allocateFile(file, 0, false, ByteOrder.nativeOrder(), ElementType.FLOAT32);
+            return;
+        }
+        generatePipelined(file, shardLength,
+                thread -> shardProducer(layout, shard, producerFactory.apply(shard * producerThreads + thread)),
+                false, producerThreads, 1);
+    }
+
+    /**
+     * @return a producer of the floats of a shard, from a producer of the floats of the logical array
+     */
+    private static FloatProducer shardProducer(ShardLayout layout, int shard, FloatProducer producer) {
+        return new FloatProducer() {
+            @Override
+            public float produce(long index) {
+                return producer.produce(layout.globalIndex(shard, index));
+            }
+
+            @Override
+            public void produce(long startIndex, float[] dst, int offset, int length) {
+                layout.forEachShardPiece(shard, startIndex, length, (unused, globalIndex, pieceOffset, pieceLength) ->
+                        producer.produce(globalIndex, dst, offset + (int) pieceOffset, (int) pieceLength));
+            }
+
+            @Override
+            public void close() throws IOException {
+                producer.close();
+            }
+        };
+    }
+
+    /**
+     * @return the builder of the zone map of a file with count floats generated
+     */
+    private static ZoneMap.Builder zoneMapBuilder(ZoneMap existingZoneMap, FloatStorageHeader header, long count) {
+        return existingZoneMap != null
+                ? existingZoneMap.append(count)
+                : new ZoneMap.Builder(header.blockSize(), header.elementCount());
+    }
+
+    /**
+     * @return the zone map of the floats of an existing file (read from its file, or built if missing or outdated), null
+     * if the file does not exist or is empty
+     */
+    private static ZoneMap existingZoneMap(Path file, int maxThreads) throws IOException {
+        if (!Files.exists(file) || Files.size(file) == 0)
+            return null;
+        FloatStorageHeader header;
+        try (FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.READ)) {
+            header = FloatStorageHeader.read(fileChannel);
+        }
+        Path zoneMapPath = ZoneMap.path(file);
+        if (Files.exists(zoneMapPath)) {
+            ZoneMap zoneMap = ZoneMap.read(zoneMapPath);
+            if (zoneMap.elementCount() == header.elementCount())
+                return zoneMap;
         }
+        return ZoneMap.build(file, FileChannelFloatChunkReader::new, header.blockSize(), maxThreads);
     }
 
-    private static Future<?> submit(Path file, IntFunction<FloatProducer> producerFactory, ExecutorService executorService,
+    /**
+     * Generate a compressed ({@link Compression#XOR_SHUFFLE_DEFLATE}) file usable by {@link CompressedFloatChunkReader}.<br/>
+     * Blocks are produced and encoded by up to maxThreads threads (one producer per thread), and written in order after
+     * the block index. Compressed files can not be appended.
+     *
+     * @param file            the file to generate (truncated if it exists)
+     * @param count           the number of float to generate, if 0, file will not be created or touched
+     * @param producerFactory the factory of {@link FloatProducer} per thread index
+     * @param blockSize       the number of floats per compressed block
+     * @param maxThreads      the number of thread to use
+     */
+    public static void generateCompressed(Path file, long count, IntFunction<FloatProducer> producerFactory, int blockSize,
+                                          int maxThreads) throws IOException {
+        if (count == 0)
+            return;
+        if (maxThreads <= 0)
+            throw new IllegalArgumentException("Invalid maxThreads count " + maxThreads + ", must be > 0");
+        FloatStorageHeader header = FloatStorageHeader.create(ElementType.FLOAT32, ByteOrder.LITTLE_ENDIAN, blockSize, count)
+                .withCompression(Compression.XOR_SHUFFLE_DEFLATE);
+        long blockCount = header.blockCount();
+        if (blockCount >= Integer.MAX_VALUE / Long.BYTES)
+            throw new IllegalArgumentException("too many blocks " + blockCount + ", use a larger block size than " + blockSize);
+        int threadsCount = (int) Math.min(maxThreads, blockCount);
+
+        FloatProducer[] producers = new FloatProducer[threadsCount];
+        FloatBlockCodec[] codecs = new FloatBlockCodec[threadsCount];
+        float[][] blocksData = new float[threadsCount][blockSize];
+        ExecutorService executorService = threadsCount > 1 ? Executors.newFixedThreadPool(threadsCount) : null;
+        try (FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (int i = 0; i < threadsCount; i++) {
+                producers[i] = producerFactory.apply(i);
+                codecs[i] = new FloatBlockCodec();
+            }
+            ByteBuffer index = ByteBuffer.allocate((int) (blockCount + 1) * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            long position = header.dataOffset() + index.capacity();
+            // blocks are encoded by rounds of threadsCount blocks, written in order at the end of each round
+            for (long roundStart = 0; roundStart < blockCount; roundStart += threadsCount) {
+                int roundBlocks = (int) Math.min(threadsCount, blockCount - roundStart);
+                @SuppressWarnings("unchecked") Future<byte[]>[] futures = new Future[roundBlocks];
+                for (int i = 0; i < roundBlocks; i++) {
+                    long blockIndex = roundStart + i;
+                    int slot = i;
+                    if (executorService != null)
+                        futures[i] = executorService.submit(() -> encodeBlock(header, blockIndex, producers[slot], codecs[slot], blocksData[slot]));
+                    else
+                        futures[i] = CompletableFuture.completedFuture(encodeBlock(header, blockIndex, producers[slot], codecs[slot], blocksData[slot]));
+                }
+                for (Future<byte[]> future : futures) {
+                    byte[] block = get(future);
+                    index.putLong(position);
+                    write(fileChannel.position(position), ByteBuffer.wrap(block));
+                    position += block.length;
+                }
+            }
+            index.putLong(position);
+            write(fileChannel.position(header.dataOffset()), index.flip());
+            header.write(fileChannel);
+        } finally {
+            if (executorService != null)
+                executorService.shutdownNow();
+            for (int i = 0; i < threadsCount; i++) {
+                if (codecs[i] != null) codecs[i].close();
+                if (producers[i] != null) producers[i].close();
+            }
+        }
+    }
+
+    private static byte[] encodeBlock(FloatStorageHeader header, long blockIndex, FloatProducer producer, FloatBlockCodec codec,
+                                      float[] blockData) {
+        long startIndex = blockIndex * header.blockSize();
+        int length = (int) Math.min(header.blockSize(), header.elementCount() - startIndex);
+        producer.produce(startIndex, blockData, 0, length);
+        return codec.encode(blockData, 0, length);
+    }
+
+    private static Future<?> submit(Path file, FloatStorageHeader header, ZoneMap.Builder zoneMap, IntFunction<FloatProducer> producerFactory, ExecutorService executorService,
                                     int chunkIndex, long chunkStartIndex, long currentChunkSize) {
         return executorService.submit(() -> {
             try (FloatProducer producer = producerFactory.apply(chunkIndex)) {
-                generateChunk(file, producer, chunkStartIndex, currentChunkSize);
+                generateChunk(file, header, zoneMap, producer, chunkStartIndex, currentChunkSize);
             } catch (IOException e) {
                 throw new UncheckedIOException(e);
             }
@@ -103,49 +387,111 @@ public final class FloatStorageGenerator {
 
     /**
      * reserve new space for count floats to existing file or create a new file
+     *
+     * @return the header of the allocated file
      */
-    private static long allocateFile(Path file, long count, boolean append) throws IOException {
+    private static FloatStorageHeader allocateFile(Path file, long count, boolean append, ByteOrder byteOrder,
+                                                   ElementType elementType) throws IOException {
         Set<OpenOption> options = new HashSet<>();
         options.add(StandardOpenOption.CREATE);
+        options.add(StandardOpenOption.READ);
         options.add(StandardOpenOption.WRITE);
-        if (append) options.add(StandardOpenOption.APPEND);
-        long startIndex;
-        try (FileChannel fileChannel = FileChannel.open(file, options)){
-            startIndex = fileChannel.position() / Float.BYTES;
-            // reserve space by writing as single byte at new end position
-            long endPosition = fileChannel.position() + count * Float.BYTES;
-            fileChannel.position(endPosition - 1);
-            write(fileChannel, ByteBuffer.allocate(1));
+        if (!append) options.add(StandardOpenOption.TRUNCATE_EXISTING);
+        FloatStorageHeader header;
+        try (FileChannel fileChannel = FileChannel.open(file, options)) {
+            if (fileChannel.size() > 0) {
+                FloatStorageHeader existing = FloatStorageHeader.read(fileChannel)
+                        .requireElementType(elementType)
+                        .requireCompression(Compression.NONE);
+                if (existing.byteOrder() != byteOrder)
+                    throw new IllegalArgumentException("can not append " + byteOrder + " floats to " + existing.byteOrder() + " storage " + file);
+                if (elementType.blockScaled() && existing.elementCount() % existing.blockSize() != 0)
+                    throw new IllegalArgumentException("can not append to partial last block of " + elementType + " storage " + file);
+                header = existing.withElementCount(existing.elementCount() + count);
+            } else {
+                header = FloatStorageHeader.create(elementType, byteOrder, FloatStorageHeader.DEFAULT_BLOCK_SIZE, count);
+            }
+            // allocate the blocks of new floats, before chunks are written concurrently
+            FileAllocation.allocate(file, fileChannel, header.endPosition());
+            // the element count is updated once floats are generated (see publish), so that readers following the
+            // storage never see floats not written yet
+            if (!header.isLegacy())
+                header.withElementCount(header.elementCount() - count).write(fileChannel);
         }
-        return startIndex;
+        return header;
     }
 
-    @SuppressWarnings("PointlessArithmeticExpression") // pointless but explicit :-)
-    private static void generateChunk(Path file, FloatProducer producer, long startIndex, long count) throws IOException {
+    /**
+     * write the header of the generated storage, with the count of generated floats
+     */
+    private static void publish(Path file, FloatStorageHeader header) throws IOException {
+        if (header.isLegacy())
+            return;
+        try (FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            header.write(fileChannel);
+        }
+    }
+
+    private static void generateChunk(Path file, FloatStorageHeader header, ZoneMap.Builder zoneMap, FloatProducer producer,
+                                      long startIndex, long count) throws IOException {
         // one file channel per thread to avoid concurrent update of position and allow concurrent write
         // (is this a good idea to write concurrently on a disk ? not sure)
-        long startPosition = startIndex * Float.BYTES;
-        float[] chunkData = new float[1 * MB / Float.BYTES]; // stage 1MB of float on heap before writing
-        ByteBuffer stagingBuffer = ByteBuffer.allocate(1 * MB).order(ByteOrder.nativeOrder());
+        float[] chunkData = new float[chunkLength(header)];
+        ByteBuffer stagingBuffer = ByteBuffer.allocate(ElementNarrowing.narrowedSize(header, chunkData.length)).order(header.byteOrder());
         FloatBuffer floatBuffer = stagingBuffer.asFloatBuffer(); // for bulk write
         try (FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.WRITE)) {
-            fileChannel.position(startPosition);
+            fileChannel.position(chunkPosition(header, startIndex));
             long remaining = count, index = startIndex;
             while (remaining > 0) {
                 int chunkSize = remaining < chunkData.length ? (int) remaining : chunkData.length;
-                for (int i = 0; i < chunkSize; i++)
-                    chunkData[i] = producer.produce(index + i);
-                floatBuffer.put(0, chunkData);
-                // keep staging in sync with new float buffer size
-                stagingBuffer.limit(chunkSize * Float.BYTES);
+                stageChunk(header, zoneMap, producer, index, chunkSize, chunkData, stagingBuffer, floatBuffer);
                 write(fileChannel, stagingBuffer);
-                stagingBuffer.position(0); // restore position
                 index += chunkSize;
                 remaining -= chunkSize;
             }
         }
     }
 
+    /**
+     * @return the number of floats staged before writing them (whole blocks of block scaled storage)
+     */
+    @SuppressWarnings("PointlessArithmeticExpression") // pointless but explicit :-)
+    static int chunkLength(FloatStorageHeader header) {
+        int chunkLength = 1 * MB / Float.BYTES; // stage 1MB of float before writing
+        if (header.elementType().blockScaled()) // whole blocks per chunk
+            chunkLength = Math.max(1, chunkLength / header.blockSize()) * header.blockSize();
+        return chunkLength;
+    }
+
+    /**
+     * @return the position in file of a chunk starting at index (at its block scale for block scaled storage)
+     */
+    static long chunkPosition(FloatStorageHeader header, long index) {
+        return header.elementType().blockScaled() ? header.scalePosition(index / header.blockSize()) : header.position(index);
+    }
+
+    /**
+     * Produce chunkSize floats from index to chunkData, and stage them (narrowed to the storage element type) in
+     * stagingBuffer, from 0 to its limit.
+     *
+     * @param floatBuffer the float view of stagingBuffer
+     */
+    static void stageChunk(FloatStorageHeader header, ZoneMap.Builder zoneMap, FloatProducer producer, long index,
+                           int chunkSize, float[] chunkData, ByteBuffer stagingBuffer, FloatBuffer floatBuffer) {
+        producer.produce(index, chunkData, 0, chunkSize);
+        if (zoneMap != null)
+            zoneMap.accept(index, chunkData, 0, chunkSize);
+        if (header.elementType() == ElementType.FLOAT32) {
+            floatBuffer.put(0, chunkData, 0, chunkSize);
+            // keep staging in sync with new float buffer size
+            stagingBuffer.position(0).limit(chunkSize * Float.BYTES);
+        } else {
+            stagingBuffer.clear();
+            ElementNarrowing.narrow(header, chunkData, 0, chunkSize, index, stagingBuffer);
+            stagingBuffer.flip();
+        }
+    }
+
     // perhaps JEP 462 will make it cleaner, simpler
     private static void waitAndCheck(LinkedList<Future<?>> futures) throws IOException {
         Future<?> future;
@@ -165,6 +511,18 @@ public final class FloatStorageGenerator {
         }
     }
 
+    private static <T> T get(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException uncheckedIOException)
+                throw uncheckedIOException.getCause();
+            throw new RuntimeException(e);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     // write fully
     @SuppressWarnings("ResultOfMethodCallIgnored")
     private static void write(FileChannel dst, ByteBuffer src) throws IOException {
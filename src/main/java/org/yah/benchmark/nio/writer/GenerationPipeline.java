@@ -0,0 +1,240 @@
+package org.yah.benchmark.nio.writer;
+
+import org.yah.benchmark.nio.index.ZoneMap;
+import org.yah.benchmark.nio.storage.ElementNarrowing;
+import org.yah.benchmark.nio.storage.FloatStorageHeader;
+import org.yah.benchmark.nio.writer.FloatStorageGenerator.FloatProducer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntFunction;
+
+/**
+ * Pipelined generation of the floats of an allocated storage file:
+ * <ul>
+ *     <li>producer threads take the next chunk of floats to generate from a shared counter, and stage it in a direct
+ *     buffer taken from a bounded pool (waiting for a free buffer when writers lag behind)</li>
+ *     <li>staged chunks are handed to writer threads by a queue</li>
+ *     <li>each writer takes all queued chunks (up to {@link #MAX_COALESCED_CHUNKS}), and writes chunks consecutive in
+ *     file with a single gathering write on its own channel, before returning buffers to the pool</li>
+ * </ul>
+ * The first failure of any task cancels all others, and is thrown by {@link #run(int, int)}.
+ */
+final class GenerationPipeline {
+
+    private static final int MAX_COALESCED_CHUNKS = 16;
+    private static final int BUFFERS_PER_THREAD = 4;
+
+    /**
+     * queued once per writer after the last chunk
+     */
+    private static final StagedChunk END = new StagedChunk(ByteBuffer.allocate(0));
+
+    private final Path file;
+    private final FloatStorageHeader header;
+    private final ZoneMap.Builder zoneMap;
+    private final IntFunction<FloatProducer> producerFactory;
+    private final long startIndex;
+    private final long count;
+    private final int chunkLength;
+    private final long chunkCount;
+    private final AtomicLong nextChunk = new AtomicLong();
+    private final AtomicReference<Throwable> error = new AtomicReference<>();
+    private final List<Future<?>> tasks = new CopyOnWriteArrayList<>();
+
+    private BlockingQueue<StagedChunk> freeChunks;
+    private BlockingQueue<StagedChunk> stagedChunks;
+    private ExecutorService executorService;
+
+    /**
+     * @param file            the allocated storage file
+     * @param header          the header of the allocated storage
+     * @param zoneMap         the builder of zone map of generated floats, or null
+     * @param producerFactory the factory of producers per thread index
+     * @param startIndex      the index of the first float to generate
+     * @param count           the number of floats to generate
+     */
+    GenerationPipeline(Path file, FloatStorageHeader header, ZoneMap.Builder zoneMap, IntFunction<FloatProducer> producerFactory,
+                       long startIndex, long count) {
+        this.file = file;
+        this.header = header;
+        this.zoneMap = zoneMap;
+        this.producerFactory = producerFactory;
+        this.startIndex = startIndex;
+        this.count = count;
+        chunkLength = FloatStorageGenerator.chunkLength(header);
+        chunkCount = (count + chunkLength - 1) / chunkLength;
+    }
+
+    void run(int producerThreads, int writerThreads) throws IOException {
+        producerThreads = (int) Math.min(producerThreads, chunkCount);
+        int bufferCount = BUFFERS_PER_THREAD * (producerThreads + writerThreads);
+        freeChunks = new ArrayBlockingQueue<>(bufferCount);
+        // room for all buffers and end markers, so putting a staged chunk never waits
+        stagedChunks = new ArrayBlockingQueue<>(bufferCount + writerThreads);
+        int bufferSize = ElementNarrowing.narrowedSize(header, chunkLength);
+        for (int i = 0; i < bufferCount; i++)
+            freeChunks.add(new StagedChunk(ByteBuffer.allocateDirect(bufferSize).order(header.byteOrder())));
+
+        executorService = Executors.newFixedThreadPool(producerThreads + writerThreads);
+        try {
+            List<Future<?>> producers = new ArrayList<>(producerThreads);
+            for (int thread = 0; thread < producerThreads; thread++) {
+                int producerIndex = thread;
+                producers.add(submit(() -> produce(producerIndex)));
+            }
+            List<Future<?>> writers = new ArrayList<>(writerThreads);
+            for (int thread = 0; thread < writerThreads; thread++)
+                writers.add(submit(this::write));
+            for (Future<?> producer : producers)
+                await(producer);
+            for (int thread = 0; thread < writerThreads; thread++)
+                stagedChunks.add(END);
+            for (Future<?> writer : writers)
+                await(writer);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private Void produce(int producerIndex) throws IOException, InterruptedException {
+        try (FloatProducer producer = producerFactory.apply(producerIndex)) {
+            float[] chunkData = new float[chunkLength];
+            long chunk;
+            while ((chunk = nextChunk.getAndIncrement()) < chunkCount) {
+                long index = startIndex + chunk * chunkLength;
+                int chunkSize = (int) Math.min(chunkLength, count - chunk * chunkLength);
+                StagedChunk stagedChunk = freeChunks.take();
+                FloatStorageGenerator.stageChunk(header, zoneMap, producer, index, chunkSize, chunkData,
+                        stagedChunk.buffer, stagedChunk.floatBuffer);
+                stagedChunk.position = FloatStorageGenerator.chunkPosition(header, index);
+                stagedChunks.add(stagedChunk);
+            }
+        }
+        return null;
+    }
+
+    private Void write() throws IOException, InterruptedException {
+        // one file channel per writer, the position of gathering writes is the channel position
+        try (FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            List<StagedChunk> batch = new ArrayList<>(MAX_COALESCED_CHUNKS);
+            boolean end = false;
+            while (!end) {
+                batch.add(stagedChunks.take());
+                stagedChunks.drainTo(batch, MAX_COALESCED_CHUNKS - 1);
+                int ends = (int) batch.stream().filter(chunk -> chunk == END).count();
+                if (ends > 0) {
+                    batch.removeIf(chunk -> chunk == END);
+                    // leave the end markers of other writers
+                    for (int i = 1; i < ends; i++)
+                        stagedChunks.add(END);
+                    end = true;
+                }
+                batch.sort(Comparator.comparingLong(chunk -> chunk.position));
+                int from = 0;
+                while (from < batch.size()) {
+                    int to = from + 1;
+                    long runEnd = batch.get(from).end();
+                    while (to < batch.size() && batch.get(to).position == runEnd) {
+                        runEnd = batch.get(to).end();
+                        to++;
+                    }
+                    write(fileChannel, batch.subList(from, to));
+                    from = to;
+                }
+                freeChunks.addAll(batch);
+                batch.clear();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * write chunks consecutive in file
+     */
+    private static void write(FileChannel fileChannel, List<StagedChunk> chunks) throws IOException {
+        ByteBuffer[] buffers = new ByteBuffer[chunks.size()];
+        long remaining = 0;
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = chunks.get(i).buffer;
+            remaining += buffers[i].remaining();
+        }
+        fileChannel.position(chunks.get(0).position);
+        while (remaining > 0)
+            remaining -= fileChannel.write(buffers);
+    }
+
+    private Future<?> submit(Callable<Void> task) {
+        Future<?> future = executorService.submit(() -> {
+            try {
+                return task.call();
+            } catch (Throwable e) {
+                // stop all other tasks, waiting for a buffer, a chunk or a write (or not started yet)
+                if (error.compareAndSet(null, e))
+                    tasks.forEach(t -> t.cancel(true));
+                throw e;
+            }
+        });
+        tasks.add(future);
+        // a task may have failed before this one was registered
+        if (error.get() != null)
+            future.cancel(true);
+        return future;
+    }
+
+    /**
+     * wait for a task, throwing the first failure of any task if it failed or was cancelled
+     */
+    private void await(Future<?> future) throws IOException {
+        try {
+            future.get();
+        } catch (ExecutionException | CancellationException e) {
+            Throwable cause = error.get() != null ? error.get() : e.getCause();
+            if (cause instanceof IOException ioException)
+                throw ioException;
+            if (cause instanceof UncheckedIOException uncheckedIOException)
+                throw uncheckedIOException.getCause();
+            if (cause instanceof RuntimeException runtimeException)
+                throw runtimeException;
+            if (cause instanceof Error err)
+                throw err;
+            throw new RuntimeException(cause);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static final class StagedChunk {
+        private final ByteBuffer buffer;
+        private final FloatBuffer floatBuffer;
+        private long position;
+
+        private StagedChunk(ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.floatBuffer = buffer.asFloatBuffer();
+        }
+
+        private long end() {
+            return position + buffer.remaining();
+        }
+    }
+}
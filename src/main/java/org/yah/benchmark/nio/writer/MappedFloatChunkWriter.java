@@ -0,0 +1,114 @@
+package org.yah.benchmark.nio.writer;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write floats to the allocated storage mapped in a single read/write {@link MemorySegment} owned by a shared
+ * {@link Arena}: floats are copied (and swapped if not in native order) straight to the page cache, the OS writes them
+ * back in the background.<br/>
+ * Writes share a read lock on the mapping, growing the file takes the write lock to remap it.<br/>
+ * Thread safe.
+ */
+public final class MappedFloatChunkWriter extends BaseFloatChunkWriter {
+
+    private final ValueLayout.OfFloat layout;
+    private final ReadWriteLock mappingLock = new ReentrantReadWriteLock();
+    private Arena arena;
+    private MemorySegment segment;
+
+    /**
+     * @param filePath the storage file path
+     * @param capacity the number of floats to allocate and map
+     */
+    public MappedFloatChunkWriter(Path filePath, long capacity) throws IOException {
+        this(filePath, capacity, ByteOrder.nativeOrder());
+    }
+
+    /**
+     * @param filePath  the storage file path
+     * @param capacity  the number of floats to allocate and map
+     * @param byteOrder the byte order of floats, must be the order of the existing storage
+     */
+    public MappedFloatChunkWriter(Path filePath, long capacity, ByteOrder byteOrder) throws IOException {
+        super(filePath, capacity, byteOrder);
+        layout = ValueLayout.JAVA_FLOAT.withOrder(header.byteOrder());
+        try {
+            map(capacity());
+        } catch (IOException | RuntimeException e) {
+            abort(e);
+            throw e;
+        }
+    }
+
+    @Override
+    protected void write0(float[] src, long dstIndex, int srcIndex, int length) throws IOException {
+        mappingLock.readLock().lock();
+        try {
+            if (segment == null)
+                throw new IOException("writer is closed");
+            MemorySegment.copy(src, srcIndex, segment, layout, dstIndex * Float.BYTES, length);
+        } finally {
+            mappingLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    protected void force() {
+        mappingLock.readLock().lock();
+        try {
+            if (segment != null)
+                segment.force();
+        } finally {
+            mappingLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    protected void grown(long capacity) throws IOException {
+        mappingLock.writeLock().lock();
+        try {
+            Arena previous = arena;
+            map(capacity);
+            if (previous != null)
+                previous.close();
+        } finally {
+            mappingLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        mappingLock.writeLock().lock();
+        try {
+            // unmap now, the file is truncated to the storage length
+            if (arena != null)
+                arena.close();
+            arena = null;
+            segment = null;
+        } finally {
+            mappingLock.writeLock().unlock();
+        }
+        super.close();
+    }
+
+    private void map(long capacity) throws IOException {
+        if (capacity == 0)
+            return;
+        Arena newArena = Arena.ofShared();
+        try {
+            segment = fileChannel.map(FileChannel.MapMode.READ_WRITE, position(0), capacity * Float.BYTES, newArena);
+        } catch (IOException | RuntimeException e) {
+            newArena.close();
+            throw e;
+        }
+        arena = newArena;
+    }
+}
@@ -0,0 +1,87 @@
+package org.yah.benchmark.nio.writer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * Write floats with positional writes ({@link java.nio.channels.FileChannel#write(ByteBuffer, long)}, pwrite) to a
+ * single {@link java.nio.channels.FileChannel} shared by all threads: the channel position is never used, so
+ * concurrent writes do not contend on it.<br/>
+ * Floats are staged in direct buffers leased from a lock free pool (at most one per concurrent write).<br/>
+ * Thread safe. Interrupting a thread blocked in a write closes the shared channel (like any interruptible channel).
+ */
+public final class PositionalFloatChunkWriter extends BaseFloatChunkWriter {
+
+    private final int stagingCapacity;
+    private final ConcurrentLinkedDeque<ByteBuffer> stagingBuffers = new ConcurrentLinkedDeque<>();
+
+    /**
+     * @param filePath the storage file path
+     * @param capacity the number of floats to allocate
+     */
+    public PositionalFloatChunkWriter(Path filePath, long capacity) throws IOException {
+        this(filePath, capacity, ByteOrder.nativeOrder(), 256 * 1024);
+    }
+
+    /**
+     * @param filePath        the storage file path
+     * @param capacity        the number of floats to allocate
+     * @param byteOrder       the byte order of floats, must be the order of the existing storage
+     * @param stagingCapacity the capacity (in float count) of each staging buffer
+     */
+    public PositionalFloatChunkWriter(Path filePath, long capacity, ByteOrder byteOrder, int stagingCapacity) throws IOException {
+        super(filePath, capacity, byteOrder);
+        if (stagingCapacity <= 0) {
+            IllegalArgumentException e = new IllegalArgumentException("invalid staging capacity " + stagingCapacity + " must be > 0");
+            abort(e);
+            throw e;
+        }
+        this.stagingCapacity = stagingCapacity;
+    }
+
+    @Override
+    protected void write0(float[] src, long dstIndex, int srcIndex, int length) throws IOException {
+        ByteBuffer stagingBuffer = leaseStagingBuffer();
+        try {
+            FloatBuffer floatBuffer = stagingBuffer.asFloatBuffer();
+            while (length > 0) {
+                int chunkSize = Math.min(stagingCapacity, length);
+                floatBuffer.put(0, src, srcIndex, chunkSize);
+                writeFully(stagingBuffer.position(0).limit(chunkSize * Float.BYTES), position(dstIndex));
+                srcIndex += chunkSize;
+                dstIndex += chunkSize;
+                length -= chunkSize;
+            }
+        } finally {
+            stagingBuffers.push(stagingBuffer);
+        }
+    }
+
+    @Override
+    protected void force() throws IOException {
+        fileChannel.force(false);
+    }
+
+    private ByteBuffer leaseStagingBuffer() {
+        ByteBuffer stagingBuffer = stagingBuffers.poll();
+        if (stagingBuffer == null)
+            stagingBuffer = ByteBuffer.allocateDirect(stagingCapacity * Float.BYTES).order(header.byteOrder());
+        return stagingBuffer.clear();
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining())
+            fileChannel.write(buffer, position + buffer.position());
+    }
+
+    @Override
+    public void close() throws IOException {
+        // release staging buffers
+        stagingBuffers.clear();
+        super.close();
+    }
+}
@@ -10,7 +10,20 @@ import java.util.function.IntFunction;
 public class BaseTest {
 
     protected static FloatStorageGenerator.FloatProducer createProducer(long count) {
-        return index -> count == 1 ? 0 : index / (float) (count - 1);
+        // divide rather than multiply by the inverse, bulk and scalar floats must be equal
+        float divisor = count == 1 ? Float.POSITIVE_INFINITY : count - 1;
+        return new FloatStorageGenerator.FloatProducer() {
+            @Override
+            public float produce(long index) {
+                return index / divisor;
+            }
+
+            @Override
+            public void produce(long startIndex, float[] dst, int offset, int length) {
+                for (int i = 0; i < length; i++)
+                    dst[offset + i] = (startIndex + i) / divisor;
+            }
+        };
     }
 
     protected static IntFunction<FloatStorageGenerator.FloatProducer> createProducerFactory(long count) {
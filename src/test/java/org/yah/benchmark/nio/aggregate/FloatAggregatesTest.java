@@ -0,0 +1,137 @@
+package org.yah.benchmark.nio.aggregate;
+
+import org.junit.jupiter.api.Test;
+import org.yah.benchmark.nio.BaseTest;
+import org.yah.benchmark.nio.reader.CachedMappedFileFloatChunkReader;
+import org.yah.benchmark.nio.reader.FileChannelFloatChunkReader;
+import org.yah.benchmark.nio.reader.FloatChunkReader;
+import org.yah.benchmark.nio.reader.FloatChunkReaderFactory;
+import org.yah.benchmark.nio.reader.MappedFileFloatChunkReader;
+import org.yah.benchmark.nio.reader.MemorySegmentFloatChunkReader;
+import org.yah.benchmark.nio.reader.PositionalFloatChunkReader;
+import org.yah.benchmark.nio.writer.FloatStorageGenerator;
+import org.yah.benchmark.nio.writer.FloatStorageGenerator.FloatProducer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FloatAggregatesTest extends BaseTest {
+
+    private static final long COUNT = 10_000_005;
+
+    @Test
+    void testMemorySegment() throws IOException {
+        test(MemorySegmentFloatChunkReader::new);
+    }
+
+    @Test
+    void testConfinedMemorySegment() throws IOException {
+        test(testFile -> new MemorySegmentFloatChunkReader(testFile, false));
+    }
+
+    @Test
+    void testCachedMapped() throws IOException {
+        test(CachedMappedFileFloatChunkReader::new);
+    }
+
+    @Test
+    void testFileChannel() throws IOException {
+        test(FileChannelFloatChunkReader::new);
+    }
+
+    @Test
+    void testMapped() throws IOException {
+        test(MappedFileFloatChunkReader::new);
+    }
+
+    @Test
+    void testPositional() throws IOException {
+        test(PositionalFloatChunkReader::new);
+    }
+
+    @Test
+    void testEmptyRange() throws IOException {
+        try (FloatChunkReader reader = new MemorySegmentFloatChunkReader(createTestFile())) {
+            FloatAggregates aggregates = FloatAggregates.over(reader, 10, 10);
+            assertEquals(0, aggregates.count());
+            assertEquals(0, aggregates.sum());
+            assertTrue(Double.isNaN(aggregates.mean()));
+        }
+        FloatAggregates aggregates = FloatAggregates.over(FileChannelFloatChunkReader::new, createTestFile(), 10, 10);
+        assertEquals(0, aggregates.count());
+    }
+
+    @Test
+    void testInvalidRange() throws IOException {
+        Path testFile = createTestFile();
+        assertThrows(IllegalArgumentException.class, () -> FloatAggregates.over(FileChannelFloatChunkReader::new, testFile, 10, COUNT + 1));
+        assertThrows(IllegalArgumentException.class, () -> FloatAggregates.over(MappedFileFloatChunkReader::new, testFile, 10, 5));
+    }
+
+    private static void test(FloatChunkReaderFactory factory) throws IOException {
+        Path testFile = createTestFile();
+        FloatProducer producer = createProducer(COUNT);
+        long from = 3, to = COUNT - 2;
+        int bins = 7;
+        float histogramMin = 0.1f, histogramMax = 0.9f;
+        float scale = bins / (histogramMax - histogramMin);
+
+        double sum = 0;
+        float min = Float.POSITIVE_INFINITY, max = Float.NEGATIVE_INFINITY;
+        long[] histogram = new long[bins];
+        for (long i = from; i < to; i++) {
+            float v = producer.produce(i);
+            sum += v;
+            min = Math.min(min, v);
+            max = Math.max(max, v);
+            if (v >= histogramMin && v < histogramMax)
+                histogram[Math.min(bins - 1, (int) ((v - histogramMin) * scale))]++;
+        }
+        long count = to - from;
+        double mean = sum / count;
+        double m2 = 0;
+        for (long i = from; i < to; i++) {
+            double d = producer.produce(i) - mean;
+            m2 += d * d;
+        }
+
+        try (FloatChunkReader reader = factory.create(testFile)) {
+            FloatAggregates aggregates = FloatAggregates.over(reader, from, to, histogramMin, histogramMax, bins);
+            assertEquals(count, aggregates.count());
+            assertEquals(sum, aggregates.sum(), sum * 1E-6);
+            assertEquals(min, aggregates.min());
+            assertEquals(max, aggregates.max());
+            assertEquals(mean, aggregates.mean(), 1E-6);
+            assertEquals(m2 / count, aggregates.variance(), 1E-6);
+            assertArrayEquals(histogram, aggregates.histogram().counts());
+
+            FloatAggregates noHistogram = FloatAggregates.over(reader, from, to);
+            assertEquals(0, noHistogram.histogram().bins());
+            assertEquals(aggregates.sum(), noHistogram.sum(), sum * 1E-9);
+        }
+
+        // parallel, with a reader per split if views are not shared
+        FloatAggregates aggregates = FloatAggregates.over(factory, testFile, from, to, histogramMin, histogramMax, bins);
+        assertEquals(count, aggregates.count());
+        assertEquals(sum, aggregates.sum(), sum * 1E-6);
+        assertEquals(min, aggregates.min());
+        assertEquals(max, aggregates.max());
+        assertEquals(mean, aggregates.mean(), 1E-6);
+        assertEquals(m2 / count, aggregates.variance(), 1E-6);
+        assertArrayEquals(histogram, aggregates.histogram().counts());
+    }
+
+    private static Path createTestFile() throws IOException {
+        Path testFile = Paths.get(String.format("target/test_floats_%d.dat", COUNT));
+        if (!Files.exists(testFile))
+            FloatStorageGenerator.generate(testFile, COUNT, createProducerFactory(COUNT), false, 4);
+        return testFile;
+    }
+}
@@ -1,15 +1,27 @@
 package org.yah.benchmark.nio.bench;
 
+import org.yah.benchmark.nio.reader.AsynchronousFileChannelFloatChunkReader;
+import org.yah.benchmark.nio.reader.BlockCacheFloatChunkReader;
 import org.yah.benchmark.nio.reader.CachedMappedFileFloatChunkReader;
+import org.yah.benchmark.nio.reader.CompressedFloatChunkReader;
 import org.yah.benchmark.nio.reader.ConcurrentFloatChunkReader;
+import org.yah.benchmark.nio.reader.ConcurrentFloatChunkReader.ExecutionMode;
+import org.yah.benchmark.nio.reader.DirectFloatChunkReader;
 import org.yah.benchmark.nio.reader.FileChannelFloatChunkReader;
 import org.yah.benchmark.nio.reader.FloatChunkReader;
 import org.yah.benchmark.nio.reader.FloatChunkReaderFactory;
 import org.yah.benchmark.nio.reader.MappedFileFloatChunkReader;
+import org.yah.benchmark.nio.reader.MemorySegmentFloatChunkReader;
+import org.yah.benchmark.nio.reader.PositionalFloatChunkReader;
+import org.yah.benchmark.nio.reader.ReadAheadFloatChunkReader;
+import org.yah.benchmark.nio.reader.WideningFloatChunkReader;
+import org.yah.benchmark.nio.storage.ElementType;
+import org.yah.benchmark.nio.storage.FloatStorageHeader;
 import org.yah.benchmark.nio.writer.FloatStorageGenerator;
 import org.yah.benchmark.nio.writer.FloatStorageGenerator.FloatProducer;
 
 import java.io.IOException;
+import java.nio.ByteOrder;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -34,6 +46,8 @@ public class FloatChunkReaderBench {
     private static final long BENCH_FILE_FLOATS = BENCH_FILE_SIZE / Float.BYTES;
 
     private static final Path BENCH_STORAGE_FILE = Paths.get("target/bench_storage.dat");
+    private static final Path BENCH_COMPRESSED_STORAGE_FILE = Paths.get("target/bench_storage_compressed.dat");
+    private static final Path BENCH_FLOAT16_STORAGE_FILE = Paths.get("target/bench_storage_float16.dat");
 
     private static final long SEED = 12345;
 
@@ -58,10 +72,36 @@ public class FloatChunkReaderBench {
     }
 
     public void setup() throws IOException {
-        if (!Files.exists(BENCH_STORAGE_FILE) || Files.size(BENCH_STORAGE_FILE) != BENCH_FILE_SIZE) {
+        if (!Files.exists(BENCH_STORAGE_FILE) || Files.size(BENCH_STORAGE_FILE) != FloatStorageHeader.HEADER_SIZE + BENCH_FILE_SIZE) {
             if (logLevel == LogLevel.ALL) System.out.println("Creating bench file " + BENCH_STORAGE_FILE);
-            FloatStorageGenerator.generate(BENCH_STORAGE_FILE, BENCH_FILE_FLOATS, this::createRandomFloatProducer, false, 4);
+            createBenchStorage();
         }
+        if (!Files.exists(BENCH_COMPRESSED_STORAGE_FILE)) {
+            if (logLevel == LogLevel.ALL) System.out.println("Creating bench file " + BENCH_COMPRESSED_STORAGE_FILE);
+            FloatStorageGenerator.generateCompressed(BENCH_COMPRESSED_STORAGE_FILE, BENCH_FILE_FLOATS, FloatChunkReaderBench::createRandomFloatProducer,
+                    FloatStorageHeader.DEFAULT_BLOCK_SIZE, 4);
+        }
+        if (!Files.exists(BENCH_FLOAT16_STORAGE_FILE)) {
+            if (logLevel == LogLevel.ALL) System.out.println("Creating bench file " + BENCH_FLOAT16_STORAGE_FILE);
+            FloatStorageGenerator.generate(BENCH_FLOAT16_STORAGE_FILE, BENCH_FILE_FLOATS, FloatChunkReaderBench::createRandomFloatProducer, false, 4,
+                    ByteOrder.nativeOrder(), ElementType.FLOAT16);
+        }
+    }
+
+    /**
+     * @return the bench storage file of {@link #BENCH_FILE_FLOATS} random floats, created if needed (also used by
+     * JMH benchmarks)
+     */
+    public static Path benchStorage() throws IOException {
+        if (!Files.exists(BENCH_STORAGE_FILE) || Files.size(BENCH_STORAGE_FILE) != FloatStorageHeader.HEADER_SIZE + BENCH_FILE_SIZE)
+            createBenchStorage();
+        return BENCH_STORAGE_FILE;
+    }
+
+    private static void createBenchStorage() throws IOException {
+        FloatStorageGenerator.generatePipelined(BENCH_STORAGE_FILE, BENCH_FILE_FLOATS, FloatChunkReaderBench::createRandomFloatProducer, false, 4, 2);
+        Files.deleteIfExists(BENCH_COMPRESSED_STORAGE_FILE);
+        Files.deleteIfExists(BENCH_FLOAT16_STORAGE_FILE);
     }
 
     public List<BenchResult> run() throws IOException {
@@ -77,9 +117,17 @@ public class FloatChunkReaderBench {
         for (int stagingCapacity : stagingCapacities) {
             results.add(run(String.format("file channel direct staging %.1fMB", stagingCapacity / (double) MB), file -> new FileChannelFloatChunkReader(file, stagingCapacity, true), randomAccess));
             results.add(run(String.format("file channel heap staging %.1fMB", stagingCapacity / (double) MB), file -> new FileChannelFloatChunkReader(file, stagingCapacity, false), randomAccess));
+            results.add(run(String.format("async file channel direct staging %.1fMB", stagingCapacity / (double) MB), file -> new AsynchronousFileChannelFloatChunkReader(file, stagingCapacity, true, null), randomAccess));
         }
+        results.add(run("positional file channel", PositionalFloatChunkReader::new, randomAccess));
+        results.add(run("direct I/O (page cache bypassed)", DirectFloatChunkReader::new, randomAccess));
         results.add(run("mapped buffer", MappedFileFloatChunkReader::new, randomAccess));
         results.add(run("cached mapped buffer", CachedMappedFileFloatChunkReader::new, randomAccess));
+        results.add(run("memory segment", MemorySegmentFloatChunkReader::new, randomAccess));
+        results.add(run("read ahead (file channel)", file -> new ReadAheadFloatChunkReader(file, FileChannelFloatChunkReader::new, maxChunkLength), randomAccess));
+        results.add(run("block cache 256MB (file channel)", file -> new BlockCacheFloatChunkReader(file, FileChannelFloatChunkReader::new, 64 * KB, 1024), randomAccess));
+        results.add(run("compressed", BENCH_COMPRESSED_STORAGE_FILE, CompressedFloatChunkReader::new, randomAccess));
+        results.add(run("widening float16", BENCH_FLOAT16_STORAGE_FILE, WideningFloatChunkReader::new, randomAccess));
 
         int maxThreads = Runtime.getRuntime().availableProcessors();
         final int[] minChunkSizes = {500, 1000, 2000, 4000, 8000, 16000};
@@ -88,6 +136,8 @@ public class FloatChunkReaderBench {
             int threadCount = i;
             for (int minChunkSize : minChunkSizes) {
                 results.add(run(String.format("concurrent reader (%dT) (minChunkSize=%d)", i, minChunkSize), file -> new ConcurrentFloatChunkReader(file, CachedMappedFileFloatChunkReader::new, threadCount, minChunkSize), randomAccess));
+                results.add(run(String.format("concurrent reader (%dVT) (minChunkSize=%d)", i, minChunkSize), file -> new ConcurrentFloatChunkReader(file, CachedMappedFileFloatChunkReader::new, threadCount, minChunkSize, ExecutionMode.VIRTUAL_THREADS), randomAccess));
+                results.add(run(String.format("concurrent direct I/O reader (%dVT) (minChunkSize=%d)", i, minChunkSize), file -> ConcurrentFloatChunkReader.direct(file, threadCount, minChunkSize, ExecutionMode.VIRTUAL_THREADS), randomAccess));
             }
             if (i == maxThreads)
                 break;
@@ -99,7 +149,11 @@ public class FloatChunkReaderBench {
     }
 
     private BenchResult run(String readerName, FloatChunkReaderFactory readerFactory, boolean randomAccess) throws IOException {
-        try (FloatChunkReader reader = readerFactory.create(BENCH_STORAGE_FILE)) {
+        return run(readerName, BENCH_STORAGE_FILE, readerFactory, randomAccess);
+    }
+
+    private BenchResult run(String readerName, Path storageFile, FloatChunkReaderFactory readerFactory, boolean randomAccess) throws IOException {
+        try (FloatChunkReader reader = readerFactory.create(storageFile)) {
             return run(readerName, reader, randomAccess);
         }
     }
@@ -149,9 +203,20 @@ public class FloatChunkReaderBench {
         return result;
     }
 
-    private FloatProducer createRandomFloatProducer(int chunkIndex) {
+    private static FloatProducer createRandomFloatProducer(int chunkIndex) {
         Random random = new Random(SEED + chunkIndex); // random is not performant in multi thread
-        return unused -> random.nextFloat();
+        return new FloatProducer() {
+            @Override
+            public float produce(long index) {
+                return random.nextFloat();
+            }
+
+            @Override
+            public void produce(long startIndex, float[] dst, int offset, int length) {
+                for (int i = 0; i < length; i++)
+                    dst[offset + i] = random.nextFloat();
+            }
+        };
     }
 
     @SuppressWarnings("unused")
@@ -0,0 +1,178 @@
+package org.yah.benchmark.nio.bench;
+
+import org.yah.benchmark.nio.metrics.LatencyHistogram;
+import org.yah.benchmark.nio.reader.CachedMappedFileFloatChunkReader;
+import org.yah.benchmark.nio.reader.DirectFloatChunkReader;
+import org.yah.benchmark.nio.reader.FileChannelFloatChunkReader;
+import org.yah.benchmark.nio.reader.FloatChunkReader;
+import org.yah.benchmark.nio.reader.FloatChunkReaderFactory;
+import org.yah.benchmark.nio.reader.MemorySegmentFloatChunkReader;
+import org.yah.benchmark.nio.reader.PooledFloatChunkReader;
+import org.yah.benchmark.nio.reader.PositionalFloatChunkReader;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Run {@link ReadWorkload}s on readers: each client thread issues its reads back to back, recording the latency of
+ * each read in a {@link LatencyHistogram}. Reports throughput and latency percentiles of all reads.
+ */
+public class ReadLatencyBench {
+
+    public static void main(String[] args) throws IOException {
+        Path storage = FloatChunkReaderBench.benchStorage();
+        int clients = Runtime.getRuntime().availableProcessors();
+        List<ReadWorkload> workloads = List.of(
+                ReadWorkload.uniform(1, 10_000, 1024, 1024),
+                ReadWorkload.uniform(clients, 10_000, 1024, 1024),
+                ReadWorkload.zipfian(clients, 10_000, 1024, 1024, 1.1),
+                ReadWorkload.sequentialBursts(clients, 2_000, 64 * 1024, 256 * 1024, 16));
+        List<BenchedReader> readers = List.of(
+                BenchedReader.perClient("file channel", FileChannelFloatChunkReader::new),
+                BenchedReader.perClient("cached mapped buffer", CachedMappedFileFloatChunkReader::new),
+                BenchedReader.shared("memory segment", MemorySegmentFloatChunkReader::new),
+                BenchedReader.shared("positional file channel", PositionalFloatChunkReader::new),
+                BenchedReader.shared("direct I/O", DirectFloatChunkReader::new),
+                BenchedReader.shared("pooled file channel", file -> new PooledFloatChunkReader(file, FileChannelFloatChunkReader::new, Math.max(1, clients / 2))));
+        ReadLatencyBench bench = new ReadLatencyBench(storage, 1);
+        for (ReadWorkload workload : workloads) {
+            for (BenchedReader reader : readers)
+                System.out.println(bench.run(reader, workload));
+        }
+    }
+
+    /**
+     * A reader factory to bench
+     *
+     * @param name    the reader name
+     * @param factory the reader factory
+     * @param shared  true if a single reader is shared by all clients (thread safe readers), false to create a reader
+     *                per client
+     */
+    public record BenchedReader(String name, FloatChunkReaderFactory factory, boolean shared) {
+        public static BenchedReader shared(String name, FloatChunkReaderFactory factory) {
+            return new BenchedReader(name, factory, true);
+        }
+
+        public static BenchedReader perClient(String name, FloatChunkReaderFactory factory) {
+            return new BenchedReader(name, factory, false);
+        }
+    }
+
+    public record LatencyResult(String readerName, ReadWorkload workload, LatencyHistogram histogram,
+                                double elapsedSeconds, double readMB) {
+        public double opsRate() {
+            return histogram.count() / elapsedSeconds;
+        }
+
+        public double rate() {
+            return readMB / elapsedSeconds;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-30s %-60s : ops=%.0f/s rate=%.2fMB/s p50=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus",
+                    readerName, workload, opsRate(), rate(),
+                    histogram.percentile(50) / 1000.0, histogram.percentile(99) / 1000.0,
+                    histogram.percentile(99.9) / 1000.0, histogram.max() / 1000.0);
+        }
+    }
+
+    private static final long SEED = 12345;
+    private static final double MB = 1024 * 1024;
+
+    private final Path storage;
+    private final int warmups;
+
+    /**
+     * @param storage the storage file read by workloads
+     * @param warmups the number of unrecorded runs of each workload
+     */
+    public ReadLatencyBench(Path storage, int warmups) {
+        this.storage = storage;
+        this.warmups = warmups;
+    }
+
+    public LatencyResult run(BenchedReader benchedReader, ReadWorkload workload) throws IOException {
+        for (int i = 0; i < warmups; i++)
+            run(benchedReader.name(), benchedReader, workload);
+        return run(benchedReader.name(), benchedReader, workload);
+    }
+
+    private LatencyResult run(String readerName, BenchedReader benchedReader, ReadWorkload workload) throws IOException {
+        FloatChunkReader sharedReader = benchedReader.shared() ? benchedReader.factory().create(storage) : null;
+        ExecutorService executorService = Executors.newFixedThreadPool(workload.clients());
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<ClientResult>> futures = new ArrayList<>();
+            for (int client = 0; client < workload.clients(); client++) {
+                long seed = SEED + client;
+                futures.add(executorService.submit(() -> {
+                    start.await();
+                    if (sharedReader != null)
+                        return runClient(sharedReader, workload, seed);
+                    try (FloatChunkReader reader = benchedReader.factory().create(storage)) {
+                        return runClient(reader, workload, seed);
+                    }
+                }));
+            }
+            long startTime = System.nanoTime();
+            start.countDown();
+            LatencyHistogram histogram = new LatencyHistogram();
+            long floatsRead = 0;
+            for (Future<ClientResult> future : futures) {
+                ClientResult result = get(future);
+                histogram.merge(result.histogram());
+                floatsRead += result.floatsRead();
+            }
+            double elapsed = (System.nanoTime() - startTime) * 1E-9;
+            return new LatencyResult(readerName, workload, histogram, elapsed, floatsRead * Float.BYTES / MB);
+        } finally {
+            executorService.shutdownNow();
+            if (sharedReader != null)
+                sharedReader.close();
+        }
+    }
+
+    private record ClientResult(LatencyHistogram histogram, long floatsRead) {
+    }
+
+    private static ClientResult runClient(FloatChunkReader reader, ReadWorkload workload, long seed) throws IOException {
+        ReadWorkload.Reads reads = workload.reads(reader.length(), seed);
+        float[] dst = new float[workload.maxReadLength()];
+        LatencyHistogram histogram = new LatencyHistogram();
+        long floatsRead = 0;
+        for (int i = 0; i < workload.readsPerClient(); i++) {
+            reads.next();
+            long start = System.nanoTime();
+            reader.read(dst, reads.srcIndex(), 0, reads.length());
+            histogram.record(System.nanoTime() - start);
+            reads.completed();
+            floatsRead += reads.length();
+        }
+        return new ClientResult(histogram, floatsRead);
+    }
+
+    private static ClientResult get(Future<ClientResult> future) throws IOException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException)
+                throw ioException;
+            if (e.getCause() instanceof UncheckedIOException uncheckedIOException)
+                throw uncheckedIOException.getCause();
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package org.yah.benchmark.nio.bench;
+
+import java.util.SplittableRandom;
+
+/**
+ * A workload of reads of a storage by concurrent clients.
+ *
+ * @param clients        the number of concurrent clients (threads)
+ * @param readsPerClient the number of reads of each client
+ * @param minReadLength  the min number of floats per read (inclusive)
+ * @param maxReadLength  the max number of floats per read (inclusive)
+ * @param distribution   the distribution of read indices
+ * @param zipfExponent   the exponent of the {@link Distribution#ZIPFIAN} distribution
+ * @param burstLength    the number of consecutive reads of a {@link Distribution#SEQUENTIAL_BURSTS} burst
+ */
+public record ReadWorkload(int clients, int readsPerClient, int minReadLength, int maxReadLength,
+                           Distribution distribution, double zipfExponent, int burstLength) {
+
+    public enum Distribution {
+        /**
+         * uniform random indices
+         */
+        UNIFORM,
+        /**
+         * indices of slots of maxReadLength floats following a zipf law (few hot slots, scattered in the storage)
+         */
+        ZIPFIAN,
+        /**
+         * bursts of burstLength sequential reads, each starting at a uniform random index
+         */
+        SEQUENTIAL_BURSTS
+    }
+
+    public ReadWorkload {
+        if (clients <= 0)
+            throw new IllegalArgumentException("invalid clients " + clients + " must be > 0");
+        if (minReadLength <= 0 || maxReadLength < minReadLength)
+            throw new IllegalArgumentException(String.format("invalid read length [%d, %d]", minReadLength, maxReadLength));
+        if (distribution == Distribution.ZIPFIAN && zipfExponent <= 0)
+            throw new IllegalArgumentException("invalid zipf exponent " + zipfExponent + " must be > 0");
+        if (distribution == Distribution.SEQUENTIAL_BURSTS && burstLength <= 0)
+            throw new IllegalArgumentException("invalid burst length " + burstLength + " must be > 0");
+    }
+
+    public static ReadWorkload uniform(int clients, int readsPerClient, int minReadLength, int maxReadLength) {
+        return new ReadWorkload(clients, readsPerClient, minReadLength, maxReadLength, Distribution.UNIFORM, 0, 0);
+    }
+
+    public static ReadWorkload zipfian(int clients, int readsPerClient, int minReadLength, int maxReadLength, double exponent) {
+        return new ReadWorkload(clients, readsPerClient, minReadLength, maxReadLength, Distribution.ZIPFIAN, exponent, 0);
+    }
+
+    public static ReadWorkload sequentialBursts(int clients, int readsPerClient, int minReadLength, int maxReadLength, int burstLength) {
+        return new ReadWorkload(clients, readsPerClient, minReadLength, maxReadLength, Distribution.SEQUENTIAL_BURSTS, 0, burstLength);
+    }
+
+    /**
+     * @return the generator of reads of a client
+     */
+    Reads reads(long storageLength, long seed) {
+        return new Reads(this, storageLength, new SplittableRandom(seed));
+    }
+
+    @Override
+    public String toString() {
+        String parameter = switch (distribution) {
+            case UNIFORM -> "";
+            case ZIPFIAN -> " s=" + zipfExponent;
+            case SEQUENTIAL_BURSTS -> " burst=" + burstLength;
+        };
+        return String.format("%s%s %d clients, read length [%d, %d]", distribution, parameter, clients, minReadLength, maxReadLength);
+    }
+
+    /**
+     * Generate the reads of a client: {@link #next()} then {@link #srcIndex()} and {@link #length()}
+     */
+    static final class Reads {
+        private final ReadWorkload workload;
+        private final long storageLength;
+        private final SplittableRandom random;
+        private final ZipfSampler zipf;
+
+        private long srcIndex;
+        private int length;
+        private int burstRemaining;
+
+        private Reads(ReadWorkload workload, long storageLength, SplittableRandom random) {
+            if (storageLength <= workload.maxReadLength)
+                throw new IllegalArgumentException("storage length " + storageLength + " <= max read length " + workload.maxReadLength);
+            this.workload = workload;
+            this.storageLength = storageLength;
+            this.random = random;
+            zipf = workload.distribution == Distribution.ZIPFIAN
+                    ? new ZipfSampler(storageLength / workload.maxReadLength, workload.zipfExponent)
+                    : null;
+        }
+
+        void next() {
+            length = workload.minReadLength == workload.maxReadLength
+                    ? workload.minReadLength
+                    : random.nextInt(workload.minReadLength, workload.maxReadLength + 1);
+            switch (workload.distribution) {
+                case UNIFORM -> srcIndex = random.nextLong(storageLength - length);
+                case ZIPFIAN -> {
+                    long slots = storageLength / workload.maxReadLength;
+                    // scramble ranks so hot slots are not all at the start of the storage
+                    long slot = Math.floorMod(mix(zipf.sample(random)), slots);
+                    srcIndex = slot * workload.maxReadLength;
+                }
+                case SEQUENTIAL_BURSTS -> {
+                    if (burstRemaining == 0 || srcIndex + length > storageLength) {
+                        srcIndex = random.nextLong(storageLength - length);
+                        burstRemaining = workload.burstLength;
+                    }
+                    burstRemaining--;
+                }
+            }
+        }
+
+        long srcIndex() {
+            return srcIndex;
+        }
+
+        int length() {
+            return length;
+        }
+
+        /**
+         * advance a sequential burst after the current read
+         */
+        void completed() {
+            if (workload.distribution == Distribution.SEQUENTIAL_BURSTS)
+                srcIndex += length;
+        }
+
+        private static long mix(long value) {
+            value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+            value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+            return value ^ (value >>> 33);
+        }
+    }
+
+    /**
+     * Sample ranks in [1, n] following a zipf law of exponent s, in constant time with the rejection inversion method
+     * of Hörmann and Derflinger ("Rejection-inversion to generate variates from monotone discrete distributions").
+     */
+    static final class ZipfSampler {
+        private final long n;
+        private final double s;
+        private final double hIntegralX1;
+        private final double hIntegralN;
+        private final double threshold;
+
+        ZipfSampler(long n, double s) {
+            this.n = n;
+            this.s = s;
+            hIntegralX1 = hIntegral(1.5) - 1;
+            hIntegralN = hIntegral(n + 0.5);
+            threshold = 2 - hIntegralInverse(hIntegral(2.5) - h(2));
+        }
+
+        long sample(SplittableRandom random) {
+            while (true) {
+                double u = hIntegralN + random.nextDouble() * (hIntegralX1 - hIntegralN);
+                double x = hIntegralInverse(u);
+                long k = Math.max(1, Math.min(n, (long) (x + 0.5)));
+                if (k - x <= threshold || u >= hIntegral(k + 0.5) - h(k))
+                    return k;
+            }
+        }
+
+        private double h(double x) {
+            return Math.exp(-s * Math.log(x));
+        }
+
+        private double hIntegral(double x) {
+            double logX = Math.log(x);
+            return helper2((1 - s) * logX) * logX;
+        }
+
+        private double hIntegralInverse(double x) {
+            double t = Math.max(-1, x * (1 - s));
+            return Math.exp(helper1(t) * x);
+        }
+
+        /**
+         * log(1 + x) / x, accurate near 0
+         */
+        private static double helper1(double x) {
+            return Math.abs(x) > 1e-8 ? Math.log1p(x) / x : 1 - x * (0.5 - x * (1.0 / 3 - 0.25 * x));
+        }
+
+        /**
+         * (exp(x) - 1) / x, accurate near 0
+         */
+        private static double helper2(double x) {
+            return Math.abs(x) > 1e-8 ? Math.expm1(x) / x : 1 + x * 0.5 * (1 + x / 3 * (1 + 0.25 * x));
+        }
+    }
+}
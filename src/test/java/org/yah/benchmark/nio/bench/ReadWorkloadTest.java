@@ -0,0 +1,69 @@
+package org.yah.benchmark.nio.bench;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.yah.benchmark.nio.bench.ReadWorkload.ZipfSampler;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReadWorkloadTest {
+
+    @ParameterizedTest
+    @CsvSource({"1, 1.1", "10, 0.5", "1000, 1", "1000, 3", "1000000000000, 1.1"})
+    void testZipfRange(long n, double s) {
+        ZipfSampler sampler = new ZipfSampler(n, s);
+        SplittableRandom random = new SplittableRandom(12345);
+        for (int i = 0; i < 100_000; i++) {
+            long rank = sampler.sample(random);
+            assertTrue(rank >= 1 && rank <= n, "rank " + rank + " not in [1, " + n + "]");
+        }
+    }
+
+    // frequencies of the first ranks are the ones of the zipf law: k^-s / sum(i^-s, i in [1, n])
+    @ParameterizedTest
+    @CsvSource({"1000, 0.8", "1000, 1", "1000, 1.5", "50, 2"})
+    void testZipfSkew(int n, double s) {
+        ZipfSampler sampler = new ZipfSampler(n, s);
+        SplittableRandom random = new SplittableRandom(12345);
+        int samples = 1_000_000;
+        long[] counts = new long[n + 1];
+        for (int i = 0; i < samples; i++)
+            counts[(int) sampler.sample(random)]++;
+        double normalization = 0;
+        for (int k = 1; k <= n; k++)
+            normalization += Math.pow(k, -s);
+        for (int k : new int[]{1, 2, 3, 10}) {
+            double expected = Math.pow(k, -s) / normalization;
+            double sigma = Math.sqrt(expected * (1 - expected) / samples);
+            assertEquals(expected, counts[k] / (double) samples, 5 * sigma, "frequency of rank " + k);
+        }
+        // ranks are decreasingly frequent
+        assertTrue(counts[1] > counts[2] && counts[2] > counts[10] && counts[10] > counts[n]);
+    }
+
+    @Test
+    void testReadsRange() {
+        long storageLength = 100_000;
+        ReadWorkload[] workloads = {
+                ReadWorkload.uniform(1, 0, 10, 1000),
+                ReadWorkload.zipfian(1, 0, 10, 1000, 1.1),
+                ReadWorkload.sequentialBursts(1, 0, 10, 1000, 16)
+        };
+        for (ReadWorkload workload : workloads) {
+            ReadWorkload.Reads reads = workload.reads(storageLength, 12345);
+            for (int i = 0; i < 100_000; i++) {
+                reads.next();
+                assertTrue(reads.length() >= 10 && reads.length() <= 1000, workload + " length " + reads.length());
+                assertTrue(reads.srcIndex() >= 0 && reads.srcIndex() + reads.length() <= storageLength,
+                        workload + " read [" + reads.srcIndex() + ", " + (reads.srcIndex() + reads.length()) + "[");
+                if (workload.distribution() == ReadWorkload.Distribution.ZIPFIAN)
+                    assertEquals(0, reads.srcIndex() % 1000, "zipf read not aligned on a slot");
+                reads.completed();
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package org.yah.benchmark.nio.bench.jmh;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.yah.benchmark.nio.bench.FloatChunkReaderBench;
+import org.yah.benchmark.nio.reader.FloatChunkReader;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base of JMH benchmarks reading chunks of the bench storage ({@link FloatChunkReaderBench#benchStorage()}) with a
+ * reader created by subclasses.<br/>
+ * Each invocation reads one chunk of chunkLength floats, at a random index or following the previous chunk. The
+ * {@link ReadCounters} report the read throughput in MB/s next to ops/s (add the gc profiler for allocation rates, see
+ * {@link FloatChunkReaderJmh}).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview", "--add-modules", "jdk.incubator.vector",
+        "--enable-native-access=ALL-UNNAMED", "-Xmx4g"})
+public abstract class AbstractReaderBenchmark {
+
+    private static final int MB = 1024 * 1024;
+
+    public enum Access {
+        RANDOM,
+        LINEAR
+    }
+
+    /**
+     * Read throughput, reported as a rate of the iteration
+     */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class ReadCounters {
+        public double megabytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            megabytes = 0;
+        }
+    }
+
+    @Param({"RANDOM", "LINEAR"})
+    public Access access;
+
+    @Param({"1024", "65536", "1048576"})
+    public int chunkLength;
+
+    private FloatChunkReader reader;
+    private long length;
+    private float[] dst;
+    private SplittableRandom random;
+    private long nextIndex;
+
+    @Setup(Level.Trial)
+    public void openReader() throws IOException {
+        reader = createReader(FloatChunkReaderBench.benchStorage());
+        length = reader.length();
+        dst = new float[chunkLength];
+        random = new SplittableRandom(12345);
+        nextIndex = 0;
+    }
+
+    @TearDown(Level.Trial)
+    public void closeReader() throws IOException {
+        reader.close();
+    }
+
+    protected abstract FloatChunkReader createReader(Path storageFile) throws IOException;
+
+    @Benchmark
+    public float read(ReadCounters counters) throws IOException {
+        long srcIndex;
+        if (access == Access.RANDOM) {
+            srcIndex = random.nextLong(length - chunkLength);
+        } else {
+            if (nextIndex + chunkLength > length)
+                nextIndex = 0;
+            srcIndex = nextIndex;
+            nextIndex += chunkLength;
+        }
+        reader.read(dst, srcIndex, 0, chunkLength);
+        counters.megabytes += chunkLength * (double) Float.BYTES / MB;
+        // returned value is consumed by a blackhole, so the copy can not be eliminated
+        return dst[chunkLength - 1];
+    }
+}
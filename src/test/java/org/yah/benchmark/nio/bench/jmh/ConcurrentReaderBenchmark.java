@@ -0,0 +1,43 @@
+package org.yah.benchmark.nio.bench.jmh;
+
+import org.openjdk.jmh.annotations.Param;
+import org.yah.benchmark.nio.reader.CachedMappedFileFloatChunkReader;
+import org.yah.benchmark.nio.reader.ConcurrentFloatChunkReader;
+import org.yah.benchmark.nio.reader.ConcurrentFloatChunkReader.ExecutionMode;
+import org.yah.benchmark.nio.reader.DirectFloatChunkReader;
+import org.yah.benchmark.nio.reader.FloatChunkReader;
+import org.yah.benchmark.nio.reader.FloatChunkReaderFactory;
+import org.yah.benchmark.nio.reader.PositionalFloatChunkReader;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Thread count, min chunk size and execution mode of {@link ConcurrentFloatChunkReader}, with mapped, positional or
+ * direct delegates.
+ */
+public class ConcurrentReaderBenchmark extends AbstractReaderBenchmark {
+
+    @Param({"2", "4", "8"})
+    public int threadCount;
+
+    @Param({"1000", "4000", "16000"})
+    public int minChunkSize;
+
+    @Param({"PLATFORM_THREADS", "VIRTUAL_THREADS"})
+    public ExecutionMode executionMode;
+
+    @Param({"CACHED_MAPPED", "POSITIONAL", "DIRECT"})
+    public String delegate;
+
+    @Override
+    protected FloatChunkReader createReader(Path storageFile) throws IOException {
+        FloatChunkReaderFactory factory = switch (delegate) {
+            case "CACHED_MAPPED" -> CachedMappedFileFloatChunkReader::new;
+            case "POSITIONAL" -> PositionalFloatChunkReader::new;
+            case "DIRECT" -> DirectFloatChunkReader::new;
+            default -> throw new IllegalArgumentException("unknown delegate " + delegate);
+        };
+        return new ConcurrentFloatChunkReader(storageFile, factory, threadCount, minChunkSize, executionMode);
+    }
+}
@@ -0,0 +1,25 @@
+package org.yah.benchmark.nio.bench.jmh;
+
+import org.openjdk.jmh.annotations.Param;
+import org.yah.benchmark.nio.reader.FileChannelFloatChunkReader;
+import org.yah.benchmark.nio.reader.FloatChunkReader;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Staging buffer capacity and kind of {@link FileChannelFloatChunkReader}.
+ */
+public class FileChannelBenchmark extends AbstractReaderBenchmark {
+
+    @Param({"131072", "262144", "524288", "1048576"})
+    public int stagingCapacity;
+
+    @Param({"true", "false"})
+    public boolean directStaging;
+
+    @Override
+    protected FloatChunkReader createReader(Path storageFile) throws IOException {
+        return new FileChannelFloatChunkReader(storageFile, stagingCapacity, directStaging);
+    }
+}
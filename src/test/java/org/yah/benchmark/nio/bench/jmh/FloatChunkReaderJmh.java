@@ -0,0 +1,26 @@
+package org.yah.benchmark.nio.bench.jmh;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Run the JMH benchmarks of readers with the gc profiler (allocation rate per op and per second), using JMH command
+ * line options, for example {@code ReaderBenchmark -p reader=POSITIONAL,DIRECT -p access=RANDOM}.<br/>
+ * Run with {@code mvn -Pjmh test-compile exec:exec -Djmh.args="..."}.
+ */
+public class FloatChunkReaderJmh {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(commandLineOptions);
+        if (commandLineOptions.getIncludes().isEmpty())
+            options.include(FloatChunkReaderJmh.class.getPackageName() + ".*Benchmark");
+        options.addProfiler(GCProfiler.class);
+        new Runner(options.build()).run();
+    }
+}
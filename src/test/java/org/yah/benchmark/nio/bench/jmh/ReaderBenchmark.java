@@ -0,0 +1,42 @@
+package org.yah.benchmark.nio.bench.jmh;
+
+import org.openjdk.jmh.annotations.Param;
+import org.yah.benchmark.nio.reader.AsynchronousFileChannelFloatChunkReader;
+import org.yah.benchmark.nio.reader.BlockCacheFloatChunkReader;
+import org.yah.benchmark.nio.reader.CachedMappedFileFloatChunkReader;
+import org.yah.benchmark.nio.reader.DirectFloatChunkReader;
+import org.yah.benchmark.nio.reader.FileChannelFloatChunkReader;
+import org.yah.benchmark.nio.reader.FloatChunkReader;
+import org.yah.benchmark.nio.reader.MappedFileFloatChunkReader;
+import org.yah.benchmark.nio.reader.MemorySegmentFloatChunkReader;
+import org.yah.benchmark.nio.reader.PositionalFloatChunkReader;
+import org.yah.benchmark.nio.reader.ReadAheadFloatChunkReader;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Compare all single threaded readers with their default configuration.
+ */
+public class ReaderBenchmark extends AbstractReaderBenchmark {
+
+    @Param({"FILE_CHANNEL", "POSITIONAL", "ASYNC_FILE_CHANNEL", "DIRECT", "MAPPED", "CACHED_MAPPED", "MEMORY_SEGMENT",
+            "READ_AHEAD", "BLOCK_CACHE"})
+    public String reader;
+
+    @Override
+    protected FloatChunkReader createReader(Path storageFile) throws IOException {
+        return switch (reader) {
+            case "FILE_CHANNEL" -> new FileChannelFloatChunkReader(storageFile);
+            case "POSITIONAL" -> new PositionalFloatChunkReader(storageFile);
+            case "ASYNC_FILE_CHANNEL" -> new AsynchronousFileChannelFloatChunkReader(storageFile);
+            case "DIRECT" -> new DirectFloatChunkReader(storageFile);
+            case "MAPPED" -> new MappedFileFloatChunkReader(storageFile);
+            case "CACHED_MAPPED" -> new CachedMappedFileFloatChunkReader(storageFile);
+            case "MEMORY_SEGMENT" -> new MemorySegmentFloatChunkReader(storageFile);
+            case "READ_AHEAD" -> new ReadAheadFloatChunkReader(storageFile, FileChannelFloatChunkReader::new, chunkLength);
+            case "BLOCK_CACHE" -> new BlockCacheFloatChunkReader(storageFile, FileChannelFloatChunkReader::new, 64 * 1024, 1024);
+            default -> throw new IllegalArgumentException("unknown reader " + reader);
+        };
+    }
+}
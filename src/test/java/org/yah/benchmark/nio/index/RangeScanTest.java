@@ -0,0 +1,92 @@
+package org.yah.benchmark.nio.index;
+
+import org.junit.jupiter.api.Test;
+import org.yah.benchmark.nio.BaseTest;
+import org.yah.benchmark.nio.index.RangeScan.IndexRange;
+import org.yah.benchmark.nio.reader.FloatChunkReader;
+import org.yah.benchmark.nio.reader.MemorySegmentFloatChunkReader;
+import org.yah.benchmark.nio.storage.ElementType;
+import org.yah.benchmark.nio.writer.FloatStorageGenerator;
+import org.yah.benchmark.nio.writer.FloatStorageGenerator.FloatProducer;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RangeScanTest extends BaseTest {
+
+    private static final long COUNT = 1_000_005;
+
+    @Test
+    void testSelectiveScan() throws IOException {
+        Path testFile = createTestFile();
+        FloatProducer producer = producer();
+        try (FloatChunkReader reader = new MemorySegmentFloatChunkReader(testFile)) {
+            ZoneMap zoneMap = ZoneMap.read(ZoneMap.path(testFile));
+            for (FloatRangePredicate predicate : new FloatRangePredicate[]{
+                    FloatRangePredicate.greaterThan(0.995f),
+                    FloatRangePredicate.lessThan(-0.5f),
+                    FloatRangePredicate.between(0.25f, 0.3f),
+                    FloatRangePredicate.greaterThan(2f)}) {
+                RangeScan.Result result = RangeScan.scan(reader, zoneMap, predicate);
+                assertEquals(bruteForce(producer, predicate), result.ranges(), predicate.toString());
+                assertEquals(zoneMap.blockCount(), result.blocksSkipped() + result.blocksMatched() + result.blocksRead());
+            }
+
+            // a selective query reads a few blocks
+            RangeScan.Result result = RangeScan.scan(reader, zoneMap, FloatRangePredicate.greaterThan(0.995f));
+            assertTrue(result.blocksRead() <= 2, "blocks read " + result.blocksRead());
+            assertTrue(result.matchCount() > 0);
+        }
+    }
+
+    @Test
+    void testOutdatedZoneMap() throws IOException {
+        Path testFile = createTestFile();
+        try (FloatChunkReader reader = new MemorySegmentFloatChunkReader(testFile)) {
+            ZoneMap zoneMap = new ZoneMap.Builder(1000, COUNT - 1).build();
+            assertThrows(IllegalArgumentException.class, () -> RangeScan.scan(reader, zoneMap, FloatRangePredicate.greaterThan(0)));
+        }
+    }
+
+    private static Path createTestFile() throws IOException {
+        Path testFile = Paths.get("target/test_floats_scan_" + COUNT + ".dat");
+        if (!Files.exists(testFile) || !Files.exists(ZoneMap.path(testFile))) {
+            FloatStorageGenerator.generate(testFile, COUNT, unused -> producer(), false, 4, ByteOrder.nativeOrder(),
+                    ElementType.FLOAT32, true);
+        }
+        return testFile;
+    }
+
+    /**
+     * increasing floats in [-1, 1], NaN every 10000 floats
+     */
+    private static FloatProducer producer() {
+        return index -> index % 10000 == 5 ? Float.NaN : -1 + 2 * index / (float) (COUNT - 1);
+    }
+
+    private static List<IndexRange> bruteForce(FloatProducer producer, FloatRangePredicate predicate) {
+        List<IndexRange> ranges = new ArrayList<>();
+        long runStart = -1;
+        for (long i = 0; i < COUNT; i++) {
+            boolean match = predicate.test(producer.produce(i));
+            if (match && runStart < 0)
+                runStart = i;
+            else if (!match && runStart >= 0) {
+                ranges.add(new IndexRange(runStart, i));
+                runStart = -1;
+            }
+        }
+        if (runStart >= 0)
+            ranges.add(new IndexRange(runStart, COUNT));
+        return ranges;
+    }
+}
@@ -0,0 +1,106 @@
+package org.yah.benchmark.nio.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.yah.benchmark.nio.BaseTest;
+import org.yah.benchmark.nio.reader.FileChannelFloatChunkReader;
+import org.yah.benchmark.nio.reader.MemorySegmentFloatChunkReader;
+import org.yah.benchmark.nio.storage.ElementType;
+import org.yah.benchmark.nio.storage.FloatStorageHeader;
+import org.yah.benchmark.nio.writer.FloatStorageGenerator;
+import org.yah.benchmark.nio.writer.FloatStorageGenerator.FloatProducer;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ZoneMapTest extends BaseTest {
+
+    private static final Path testFile = Paths.get("target/test_floats_zones.dat");
+    private static final int BLOCK_SIZE = FloatStorageHeader.DEFAULT_BLOCK_SIZE;
+
+    @BeforeEach
+    void setup() throws IOException {
+        Files.deleteIfExists(testFile);
+        Files.deleteIfExists(ZoneMap.path(testFile));
+    }
+
+    @Test
+    void testGeneratedZoneMap() throws IOException {
+        long count = 3 * BLOCK_SIZE + 1234;
+        FloatStorageGenerator.generate(testFile, count, unused -> producer(), false, 4, ByteOrder.nativeOrder(),
+                ElementType.FLOAT32, true);
+        ZoneMap zoneMap = ZoneMap.read(ZoneMap.path(testFile));
+        checkZoneMap(zoneMap, count);
+        assertZoneMapEquals(zoneMap, ZoneMap.build(testFile, MemorySegmentFloatChunkReader::new, BLOCK_SIZE, 3));
+    }
+
+    @Test
+    void testAppendedZoneMap() throws IOException {
+        long count = BLOCK_SIZE + 1000; // partial last block
+        FloatStorageGenerator.generate(testFile, count, unused -> producer(), true, 4, ByteOrder.nativeOrder(),
+                ElementType.FLOAT32, true);
+        FloatStorageGenerator.generate(testFile, count, unused -> producer(), true, 4, ByteOrder.nativeOrder(),
+                ElementType.FLOAT32, true);
+        checkZoneMap(ZoneMap.read(ZoneMap.path(testFile)), 2 * count);
+
+        // missing zone map of existing floats is built
+        Files.delete(ZoneMap.path(testFile));
+        FloatStorageGenerator.generate(testFile, count, unused -> producer(), true, 1, ByteOrder.nativeOrder(),
+                ElementType.FLOAT32, true);
+        checkZoneMap(ZoneMap.read(ZoneMap.path(testFile)), 3 * count);
+    }
+
+    @Test
+    void testWriteRead() throws IOException {
+        long count = 2 * BLOCK_SIZE + 5;
+        FloatStorageGenerator.generate(testFile, count, unused -> producer(), false, 1);
+        ZoneMap zoneMap = ZoneMap.build(testFile, FileChannelFloatChunkReader::new, 1000, 4);
+        checkZoneMap(zoneMap, count);
+        zoneMap.write(ZoneMap.path(testFile));
+        assertZoneMapEquals(zoneMap, ZoneMap.read(ZoneMap.path(testFile)));
+    }
+
+    /**
+     * floats in [-1, 1], NaN every 1000 floats
+     */
+    private static FloatProducer producer() {
+        return index -> index % 1000 == 999 ? Float.NaN : (float) Math.sin(index * 0.0001);
+    }
+
+    private static void checkZoneMap(ZoneMap zoneMap, long count) {
+        FloatProducer producer = producer();
+        assertEquals(count, zoneMap.elementCount());
+        assertEquals((count + zoneMap.blockSize() - 1) / zoneMap.blockSize(), zoneMap.blockCount());
+        for (int block = 0; block < zoneMap.blockCount(); block++) {
+            float min = Float.POSITIVE_INFINITY, max = Float.NEGATIVE_INFINITY;
+            int nans = 0;
+            for (int i = 0; i < zoneMap.blockLength(block); i++) {
+                float v = producer.produce(zoneMap.blockStart(block) + i);
+                if (Float.isNaN(v)) {
+                    nans++;
+                } else {
+                    min = Math.min(min, v);
+                    max = Math.max(max, v);
+                }
+            }
+            assertEquals(min, zoneMap.min(block), "min of block " + block);
+            assertEquals(max, zoneMap.max(block), "max of block " + block);
+            assertEquals(nans, zoneMap.nanCount(block), "NaN count of block " + block);
+        }
+    }
+
+    private static void assertZoneMapEquals(ZoneMap expected, ZoneMap actual) {
+        assertEquals(expected.blockSize(), actual.blockSize());
+        assertEquals(expected.elementCount(), actual.elementCount());
+        for (int block = 0; block < expected.blockCount(); block++) {
+            assertEquals(expected.min(block), actual.min(block));
+            assertEquals(expected.max(block), actual.max(block));
+            assertEquals(expected.nanCount(block), actual.nanCount(block));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package org.yah.benchmark.nio.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 1_000_000; value++)
+            histogram.record(value);
+        assertEquals(1_000_000, histogram.count());
+        assertEquals(1, histogram.min());
+        assertEquals(1_000_000, histogram.max());
+        assertEquals(500_000.5, histogram.mean(), 1e-6);
+        double error = 1.0 / 128;
+        assertEquals(500_000, histogram.percentile(50), 500_000 * error);
+        assertEquals(990_000, histogram.percentile(99), 990_000 * error);
+        assertEquals(999_000, histogram.percentile(99.9), 999_000 * error);
+        assertEquals(1_000_000, histogram.percentile(100));
+        assertEquals(1, histogram.percentile(0));
+    }
+
+    // values spread over many powers of 2 are reported with a relative error < 2^-precisionBits
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4, 7, 10})
+    void testRelativeError(int precisionBits) {
+        LatencyHistogram histogram = new LatencyHistogram(precisionBits);
+        Random random = new Random(12345);
+        // log uniform values in [1, 2^40[
+        long[] values = LongStream.generate(() -> (long) Math.pow(2, random.nextDouble() * 40)).limit(10_000).sorted().toArray();
+        LongStream.of(values).forEach(histogram::record);
+        double maxError = Math.pow(2, -precisionBits);
+        for (int i = 0; i < values.length; i++) {
+            // rank i + 1
+            long reported = histogram.percentile(100.0 * (i + 0.5) / values.length);
+            assertTrue(reported >= values[i], reported + " < " + values[i]);
+            assertTrue(reported - values[i] < values[i] * maxError,
+                    reported + " is not within " + maxError + " of " + values[i]);
+        }
+    }
+
+    // values around each power of 2, up to Long.MAX_VALUE
+    @Test
+    void testRange() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int bit = 0; bit < 63; bit++) {
+            for (long value : new long[]{(1L << bit) - 1, 1L << bit, (1L << bit) + 1})
+                histogram.record(value);
+        }
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(190, histogram.count());
+        assertEquals(0, histogram.min());
+        assertEquals(Long.MAX_VALUE, histogram.max());
+        assertEquals(Long.MAX_VALUE, histogram.percentile(100));
+        long previous = -1;
+        for (int i = 1; i <= 190; i++) {
+            long percentile = histogram.percentile(100.0 * (i - 0.5) / 190);
+            assertTrue(percentile >= previous, "percentiles are not monotonic");
+            previous = percentile;
+        }
+    }
+
+    @Test
+    void testExactSmallValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        LongStream.of(3, 0, 127, 5).forEach(histogram::record);
+        assertEquals(0, histogram.percentile(25));
+        assertEquals(3, histogram.percentile(50));
+        assertEquals(5, histogram.percentile(75));
+        assertEquals(127, histogram.percentile(100));
+        assertThrows(IllegalArgumentException.class, () -> histogram.record(-1));
+    }
+
+    @Test
+    void testConcurrentRecordAndMerge() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        LongStream.range(0, 1_000_000).parallel().forEach(value -> histogram.record(value % 1000));
+        assertEquals(1_000_000, histogram.count());
+        assertEquals(999, histogram.max());
+
+        LatencyHistogram merged = new LatencyHistogram();
+        merged.record(Long.MAX_VALUE);
+        merged.merge(histogram);
+        assertEquals(1_000_001, merged.count());
+        assertEquals(0, merged.min());
+        assertEquals(Long.MAX_VALUE, merged.percentile(100));
+        assertEquals(500, merged.percentile(50), 500 / 128.0);
+    }
+}
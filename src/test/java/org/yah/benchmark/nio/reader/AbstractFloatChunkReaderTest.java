@@ -5,20 +5,29 @@ import org.yah.benchmark.nio.writer.FloatStorageGenerator;
 import org.yah.benchmark.nio.writer.FloatStorageGenerator.FloatProducer;
 
 import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 abstract class AbstractFloatChunkReaderTest extends BaseTest {
 
     // test when reading after end of file
     protected final void testReadOverflow(FloatChunkReaderFactory factory) throws IOException {
         long count = 50;
-        Path testFile = getTestFilePath(count);
-        if (!Files.exists(testFile))
-            FloatStorageGenerator.generate(testFile, count, createProducerFactory(count), false, 4);
+        Path testFile = testFile(count);
         FloatStorageGenerator.FloatProducer producer = createProducer(count);
         try (FloatChunkReader reader = factory.create(testFile)) {
             float[] dst = new float[100];
@@ -27,12 +36,200 @@ abstract class AbstractFloatChunkReaderTest extends BaseTest {
         }
     }
 
+    // test reading to buffers and segments, and views if supported
+    protected final void testDestinations(FloatChunkReaderFactory factory, boolean supportsView) throws IOException {
+        long count = 2000;
+        Path testFile = testFile(count);
+        FloatProducer producer = createProducer(count);
+        try (FloatChunkReader reader = factory.create(testFile); Arena arena = Arena.ofConfined()) {
+            FloatBuffer floatBuffer = ByteBuffer.allocateDirect(100 * Float.BYTES).order(ByteOrder.nativeOrder()).asFloatBuffer();
+            floatBuffer.position(10);
+            assertEquals(90, reader.read(floatBuffer, 500));
+            assertEquals(100, floatBuffer.position());
+            checkFloats(producer, 500, floatBuffer.flip().position(10), 90);
+
+            FloatBuffer heapFloatBuffer = FloatBuffer.allocate(100);
+            assertEquals(100, reader.read(heapFloatBuffer, 500));
+            checkFloats(producer, 500, heapFloatBuffer.flip(), 100);
+
+            for (ByteOrder order : new ByteOrder[]{ByteOrder.LITTLE_ENDIAN, ByteOrder.BIG_ENDIAN}) {
+                ByteBuffer byteBuffer = ByteBuffer.allocateDirect(100 * Float.BYTES).order(order);
+                assertEquals(100, reader.read(byteBuffer, 500));
+                assertEquals(byteBuffer.capacity(), byteBuffer.position());
+                checkFloats(producer, 500, byteBuffer.flip().asFloatBuffer(), 100);
+
+                ByteBuffer heapByteBuffer = ByteBuffer.allocate(100 * Float.BYTES).order(order);
+                assertEquals(100, reader.read(heapByteBuffer, 500));
+                checkFloats(producer, 500, heapByteBuffer.flip().asFloatBuffer(), 100);
+            }
+
+            MemorySegment segment = arena.allocate(100L * Float.BYTES, Float.BYTES);
+            assertEquals(50, reader.read(segment, 500, 50, 50));
+            checkFloats(producer, 500, segment.asSlice(50L * Float.BYTES), 50);
+
+            // overflow file length
+            assertEquals(20, reader.read(segment, count - 20, 0, 100));
+            checkFloats(producer, count - 20, segment, 20);
+
+            // heap segment not backed by a byte[]
+            float[] floats = new float[100];
+            MemorySegment heapSegment = MemorySegment.ofArray(floats);
+            assertEquals(50, reader.read(heapSegment, 500, 50, 50));
+            checkFloats(producer, 500, floats, 50, 50);
+
+            if (supportsView) {
+                MemorySegment view = reader.view(500, 100);
+                assertEquals(100L * Float.BYTES, view.byteSize());
+                assertTrue(view.isReadOnly());
+                checkFloats(producer, 500, view, 100);
+                assertEquals(reader.sharedViews(), readableByOtherThread(view));
+            } else {
+                assertFalse(reader.sharedViews());
+            }
+        }
+    }
+
+    private static boolean readableByOtherThread(MemorySegment view) {
+        CompletableFuture<Boolean> readable = new CompletableFuture<>();
+        Thread.ofPlatform().start(() -> {
+            try {
+                view.get(ValueLayout.JAVA_FLOAT_UNALIGNED, 0);
+                readable.complete(true);
+            } catch (WrongThreadException e) {
+                readable.complete(false);
+            }
+        });
+        return readable.join();
+    }
+
+    // test many asynchronous reads in flight
+    protected final void testReadAsync(FloatChunkReaderFactory factory) throws IOException {
+        long count = 2000;
+        Path testFile = testFile(count);
+        FloatProducer producer = createProducer(count);
+        try (FloatChunkReader reader = factory.create(testFile)) {
+            Random random = new Random(12345);
+            int reads = 100;
+            long[] srcIndices = new long[reads];
+            float[][] dsts = new float[reads][];
+            CompletableFuture<?>[] futures = new CompletableFuture[reads];
+            for (int i = 0; i < reads; i++) {
+                dsts[i] = new float[random.nextInt(1, 300)];
+                srcIndices[i] = random.nextLong(count - dsts[i].length);
+                futures[i] = reader.readAsync(dsts[i], srcIndices[i], 0, dsts[i].length);
+            }
+            CompletableFuture.allOf(futures).join();
+            for (int i = 0; i < reads; i++)
+                checkFloats(producer, srcIndices[i], dsts[i], 0, dsts[i].length);
+        }
+    }
+
+    // test batches with overlapping, adjacent, distant and out of file requests, and points gather
+    protected final void testReadBatch(FloatChunkReaderFactory factory) throws IOException {
+        long count = 2000;
+        Path testFile = testFile(count);
+        FloatProducer producer = createProducer(count);
+        try (FloatChunkReader reader = factory.create(testFile)) {
+            float[] dst = new float[1000];
+            ReadRequest[] requests = {
+                    new ReadRequest(dst, 1500, 0, 100),
+                    new ReadRequest(dst, 10, 100, 50),
+                    new ReadRequest(dst, 40, 150, 50), // overlap previous
+                    new ReadRequest(dst, 90, 200, 10), // adjacent
+                    new ReadRequest(dst, 120, 210, 10), // in gap
+                    new ReadRequest(dst, 1000, 220, 300), // distant
+                    new ReadRequest(dst, 1990, 520, 20), // overflow file
+            };
+            for (int maxGap : new int[]{0, 30, 1024}) {
+                reader.readBatch(requests, maxGap);
+                checkFloats(producer, 1500, dst, 0, 100);
+                checkFloats(producer, 10, dst, 100, 50);
+                checkFloats(producer, 40, dst, 150, 50);
+                checkFloats(producer, 90, dst, 200, 10);
+                checkFloats(producer, 120, dst, 210, 10);
+                checkFloats(producer, 1000, dst, 220, 300);
+                checkFloats(producer, 1990, dst, 520, 10);
+            }
+
+            Random random = new Random(12345);
+            long[] indices = new long[500];
+            for (int i = 0; i < indices.length; i++)
+                indices[i] = random.nextLong(count);
+            float[] points = new float[indices.length];
+            reader.readBatch(indices, points);
+            for (int i = 0; i < indices.length; i++)
+                assertEquals(producer.produce(indices[i]), points[i], "at index " + indices[i]);
+        }
+    }
+
+    // test storages in non native byte order, and legacy storages without header
+    protected final void testByteOrders(FloatChunkReaderFactory factory) throws IOException {
+        long count = 2000;
+        FloatProducer producer = createProducer(count);
+        ByteOrder swapped = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+        Path swappedFile = Paths.get(String.format("target/test_floats_swapped_%d.dat", count));
+        if (!Files.exists(swappedFile))
+            FloatStorageGenerator.generate(swappedFile, count, createProducerFactory(count), false, 4, swapped);
+        Path legacyFile = Paths.get(String.format("target/test_floats_legacy_%d.dat", count));
+        if (!Files.exists(legacyFile)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) count * Float.BYTES).order(ByteOrder.nativeOrder());
+            for (long i = 0; i < count; i++)
+                buffer.putFloat(producer.produce(i));
+            Files.write(legacyFile, buffer.array());
+        }
+
+        for (Path testFile : new Path[]{swappedFile, legacyFile}) {
+            try (FloatChunkReader reader = factory.create(testFile); Arena arena = Arena.ofConfined()) {
+                assertEquals(count, reader.length());
+                float[] dst = new float[(int) count];
+                reader.read(dst, 0);
+                checkFloats(producer, 0, dst, 0, dst.length);
+
+                reader.read(dst, 3, 5, 1001); // unaligned, with a vector tail
+                checkFloats(producer, 3, dst, 5, 1001);
+
+                MemorySegment segment = arena.allocate(100L * Float.BYTES, Float.BYTES);
+                assertEquals(100, reader.read(segment, 1234, 0, 100));
+                checkFloats(producer, 1234, segment, 100);
+
+                long[] indices = {0, 17, 1999, 512};
+                float[] points = new float[indices.length];
+                reader.readBatch(indices, points);
+                for (int i = 0; i < indices.length; i++)
+                    assertEquals(producer.produce(indices[i]), points[i], "at index " + indices[i]);
+            }
+        }
+    }
+
+    public interface MappedFloatChunkReaderFactory {
+        MappedFloatChunkReader create(Path storageFile) throws IOException;
+    }
+
+    // test reads after access hints and preloading (hints effects are not observable)
+    protected final void testHintsAndPreload(MappedFloatChunkReaderFactory factory) throws IOException {
+        long count = 2_000_000;
+        Path testFile = testFile(count);
+        FloatProducer producer = createProducer(count);
+        try (MappedFloatChunkReader reader = factory.create(testFile)) {
+            for (AccessHint hint : AccessHint.values())
+                reader.advise(1000, 500_000, hint);
+            reader.advise(AccessHint.RANDOM);
+            reader.preload(0, count, 4);
+            reader.preload(1_234_567, count + 100, 3); // capped to storage length
+            reader.preload(10, 10, 2);
+            float[] dst = new float[1000];
+            for (long srcIndex : new long[]{0, 1_234_567, count - dst.length}) {
+                reader.read(dst, srcIndex);
+                checkFloats(producer, srcIndex, dst, 0, dst.length);
+            }
+            assertThrows(IllegalArgumentException.class, () -> reader.preload(100, 10, 1));
+        }
+    }
+
     private static final int MAX_DST_LENGTH = 5000;
 
     protected final void test(FloatChunkReaderFactory factory, long count) throws IOException {
-        Path testFile = getTestFilePath(count);
-        if (!Files.exists(testFile))
-            FloatStorageGenerator.generate(testFile, count, createProducerFactory(count), false, 4);
+        Path testFile = testFile(count);
         FloatProducer producer = createProducer(count);
         try (FloatChunkReader reader = factory.create(testFile)) {
             assertEquals(count, reader.length());
@@ -54,6 +251,16 @@ abstract class AbstractFloatChunkReaderTest extends BaseTest {
         }
     }
 
+    /**
+     * @return the storage of count floats read by the tests, generated if needed
+     */
+    protected Path testFile(long count) throws IOException {
+        Path testFile = getTestFilePath(count);
+        if (!Files.exists(testFile))
+            FloatStorageGenerator.generate(testFile, count, createProducerFactory(count), false, 4);
+        return testFile;
+    }
+
     protected static Path getTestFilePath(long count) {
         return Paths.get(String.format("target/test_floats_%d.dat", count));
     }
@@ -65,4 +272,18 @@ abstract class AbstractFloatChunkReaderTest extends BaseTest {
             assertEquals(expected, dst[dstIndex + i], "at index " + idx);
         }
     }
+
+    protected static void checkFloats(FloatProducer producer, long startIndex, FloatBuffer dst, int length) {
+        for (int i = 0; i < length; i++) {
+            long idx = startIndex + i;
+            assertEquals(producer.produce(idx), dst.get(dst.position() + i), "at index " + idx);
+        }
+    }
+
+    protected static void checkFloats(FloatProducer producer, long startIndex, MemorySegment dst, int length) {
+        for (int i = 0; i < length; i++) {
+            long idx = startIndex + i;
+            assertEquals(producer.produce(idx), dst.getAtIndex(ValueLayout.JAVA_FLOAT_UNALIGNED, i), "at index " + idx);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+package org.yah.benchmark.nio.reader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AsynchronousFileChannelFloatChunkReaderTest extends AbstractFloatChunkReaderTest {
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2000, Integer.MAX_VALUE + 5000L})
+    void testHeapBuffer(long count) throws IOException {
+        test(testFile -> new AsynchronousFileChannelFloatChunkReader(testFile, 300, false, null), count);
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2000, Integer.MAX_VALUE + 5000L})
+    void testDirectBuffer(long count) throws IOException {
+        test(testFile -> new AsynchronousFileChannelFloatChunkReader(testFile, 300, true, null), count);
+    }
+
+    @Test
+    public void testReadOverflow() throws IOException {
+        testReadOverflow(AsynchronousFileChannelFloatChunkReader::new);
+    }
+
+    @Test
+    void testReadAsync() throws IOException {
+        testReadAsync(testFile -> new AsynchronousFileChannelFloatChunkReader(testFile, 100, true, null));
+    }
+
+    @Test
+    void testDestinations() throws IOException {
+        testDestinations(AsynchronousFileChannelFloatChunkReader::new, false);
+    }
+
+    @Test
+    void testReadBatch() throws IOException {
+        testReadBatch(AsynchronousFileChannelFloatChunkReader::new);
+    }
+
+    @Test
+    void testByteOrders() throws IOException {
+        testByteOrders(AsynchronousFileChannelFloatChunkReader::new);
+    }
+
+    // invalid arguments fail the future, instead of failing in the completion handler
+    @Test
+    void testInvalidArguments() throws Exception {
+        Path testFile = testFile(2000);
+        try (FloatChunkReader reader = new AsynchronousFileChannelFloatChunkReader(testFile, 100, true, null)) {
+            float[] dst = new float[100];
+            for (CompletableFuture<Void> future : List.of(reader.readAsync(dst, 0, -1, 10),
+                    reader.readAsync(dst, 0, 101, 10),
+                    reader.readAsync(dst, -1, 0, 10))) {
+                ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+                assertInstanceOf(IndexOutOfBoundsException.class, e.getCause());
+            }
+            assertThrows(IndexOutOfBoundsException.class, () -> reader.read(dst, 0, -1, 10));
+        }
+    }
+}
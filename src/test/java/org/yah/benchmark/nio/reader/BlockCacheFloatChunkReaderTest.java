@@ -0,0 +1,262 @@
+package org.yah.benchmark.nio.reader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.yah.benchmark.nio.writer.FloatStorageGenerator;
+import org.yah.benchmark.nio.writer.FloatStorageGenerator.FloatProducer;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BlockCacheFloatChunkReaderTest extends AbstractFloatChunkReaderTest {
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2000, Integer.MAX_VALUE + 5000L})
+    void test(long count) throws IOException {
+        test(testFile -> new BlockCacheFloatChunkReader(testFile, FileChannelFloatChunkReader::new, 256, 4), count);
+    }
+
+    @Test
+    public void testReadOverflow() throws IOException {
+        testReadOverflow(testFile -> new BlockCacheFloatChunkReader(testFile, FileChannelFloatChunkReader::new, 16, 2));
+    }
+
+    @Test
+    void testDestinations() throws IOException {
+        testDestinations(testFile -> new BlockCacheFloatChunkReader(testFile, MemorySegmentFloatChunkReader::new, 64, 8), false);
+    }
+
+    @Test
+    void testReadBatch() throws IOException {
+        testReadBatch(testFile -> new BlockCacheFloatChunkReader(testFile, FileChannelFloatChunkReader::new, 64, 8));
+    }
+
+    @Test
+    void testStats() throws IOException {
+        Path testFile = createTestFile(2000);
+        try (BlockCacheFloatChunkReader reader = new BlockCacheFloatChunkReader(testFile, FileChannelFloatChunkReader::new, 100, 3)) {
+            float[] dst = new float[250];
+            reader.read(dst, 0, 0, 250); // 3 blocks loaded
+            assertEquals(new BlockCacheFloatChunkReader.Stats(0, 3, 0), reader.stats());
+            reader.read(dst, 50, 0, 100); // 2 hits
+            assertEquals(new BlockCacheFloatChunkReader.Stats(2, 3, 0), reader.stats());
+            reader.read(dst, 300, 0, 10); // 1 miss, 1 eviction
+            assertEquals(new BlockCacheFloatChunkReader.Stats(2, 4, 1), reader.stats());
+        }
+    }
+
+    @Test
+    void testConcurrentReads() throws Exception {
+        long count = 2000;
+        Path testFile = createTestFile(count);
+        FloatProducer producer = createProducer(count);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (BlockCacheFloatChunkReader reader = new BlockCacheFloatChunkReader(testFile, FileChannelFloatChunkReader::new, 32, 8)) {
+            @SuppressWarnings("unchecked") Future<Void>[] futures = new Future[4];
+            for (int t = 0; t < futures.length; t++) {
+                Random random = new Random(12345 + t);
+                futures[t] = executor.submit(() -> {
+                    float[] dst = new float[100];
+                    for (int i = 0; i < 1000; i++) {
+                        int length = random.nextInt(1, dst.length);
+                        long srcIndex = random.nextLong(count - length);
+                        reader.read(dst, srcIndex, 0, length);
+                        checkFloats(producer, srcIndex, dst, 0, length);
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> future : futures)
+                future.get();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    // a miss is not blocked by the load of another block
+    @Test
+    void testConcurrentMisses() throws Exception {
+        long count = 2000;
+        Path testFile = createTestFile(count);
+        FloatProducer producer = createProducer(count);
+        CountDownLatch firstBlockLoading = new CountDownLatch(1);
+        CountDownLatch releaseFirstBlock = new CountDownLatch(1);
+        FloatChunkReaderFactory factory = blockingFactory(Set.of(0L), firstBlockLoading, releaseFirstBlock, new AtomicInteger());
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try (BlockCacheFloatChunkReader reader = new BlockCacheFloatChunkReader(testFile, factory, 100, 4, 4)) {
+            Future<float[]> firstBlock = executor.submit(() -> {
+                float[] dst = new float[100];
+                reader.read(dst, 0, 0, 100);
+                return dst;
+            });
+            assertTrue(firstBlockLoading.await(10, TimeUnit.SECONDS));
+            // same block: waits for the pending load
+            Future<float[]> sameBlock = executor.submit(() -> {
+                float[] dst = new float[10];
+                reader.read(dst, 50, 0, 10);
+                return dst;
+            });
+            // other block: loaded while the first block is loading
+            Future<float[]> otherBlock = executor.submit(() -> {
+                float[] dst = new float[100];
+                reader.read(dst, 500, 0, 100);
+                return dst;
+            });
+            checkFloats(producer, 500, otherBlock.get(10, TimeUnit.SECONDS), 0, 100);
+            assertFalse(firstBlock.isDone());
+            releaseFirstBlock.countDown();
+            checkFloats(producer, 0, firstBlock.get(10, TimeUnit.SECONDS), 0, 100);
+            checkFloats(producer, 50, sameBlock.get(10, TimeUnit.SECONDS), 0, 10);
+            assertEquals(new BlockCacheFloatChunkReader.Stats(1, 2, 0), reader.stats());
+        } finally {
+            releaseFirstBlock.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    // a miss waits for a pending load when all slots are loading, without holding the load lock
+    @Test
+    void testAllSlotsLoading() throws Exception {
+        long count = 2000;
+        Path testFile = createTestFile(count);
+        FloatProducer producer = createProducer(count);
+        CountDownLatch loading = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        FloatChunkReaderFactory factory = blockingFactory(Set.of(0L, 100L), loading, release, new AtomicInteger());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (BlockCacheFloatChunkReader reader = new BlockCacheFloatChunkReader(testFile, factory, 100, 2, 4)) {
+            List<Future<float[]>> loads = new ArrayList<>();
+            for (long srcIndex : new long[]{0, 100})
+                loads.add(executor.submit(() -> read(reader, srcIndex, 100)));
+            assertTrue(loading.await(10, TimeUnit.SECONDS));
+
+            CompletableFuture<Thread> missThread = new CompletableFuture<>();
+            Future<float[]> miss = executor.submit(() -> {
+                missThread.complete(Thread.currentThread());
+                return read(reader, 500, 100);
+            });
+            // waiting for a pending load, not spinning
+            Thread thread = missThread.get(10, TimeUnit.SECONDS);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (thread.getState() != Thread.State.WAITING && System.nanoTime() < deadline)
+                Thread.sleep(1);
+            assertEquals(Thread.State.WAITING, thread.getState());
+            // same block as a pending load: waits for it
+            Future<float[]> sameBlock = executor.submit(() -> read(reader, 150, 10));
+            assertFalse(miss.isDone());
+
+            release.countDown();
+            checkFloats(producer, 0, loads.get(0).get(10, TimeUnit.SECONDS), 0, 100);
+            checkFloats(producer, 100, loads.get(1).get(10, TimeUnit.SECONDS), 0, 100);
+            checkFloats(producer, 500, miss.get(10, TimeUnit.SECONDS), 0, 100);
+            checkFloats(producer, 150, sameBlock.get(10, TimeUnit.SECONDS), 0, 10);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    // loads wait for a delegate when maxDelegates are leased
+    @Test
+    void testMaxDelegates() throws Exception {
+        long count = 2000;
+        Path testFile = createTestFile(count);
+        FloatProducer producer = createProducer(count);
+        CountDownLatch loading = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger created = new AtomicInteger();
+        FloatChunkReaderFactory factory = blockingFactory(Set.of(0L, 100L), loading, release, created);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try (BlockCacheFloatChunkReader reader = new BlockCacheFloatChunkReader(testFile, factory, 100, 8, 2)) {
+            List<Future<float[]>> loads = new ArrayList<>();
+            for (long srcIndex : new long[]{0, 100})
+                loads.add(executor.submit(() -> read(reader, srcIndex, 100)));
+            assertTrue(loading.await(10, TimeUnit.SECONDS));
+            Future<float[]> waiting = executor.submit(() -> read(reader, 500, 100));
+            Thread.sleep(100);
+            assertFalse(waiting.isDone());
+            assertEquals(2, created.get());
+
+            release.countDown();
+            checkFloats(producer, 0, loads.get(0).get(10, TimeUnit.SECONDS), 0, 100);
+            checkFloats(producer, 100, loads.get(1).get(10, TimeUnit.SECONDS), 0, 100);
+            checkFloats(producer, 500, waiting.get(10, TimeUnit.SECONDS), 0, 100);
+            assertEquals(2, created.get());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private static float[] read(FloatChunkReader reader, long srcIndex, int length) throws IOException {
+        float[] dst = new float[length];
+        reader.read(dst, srcIndex, 0, length);
+        return dst;
+    }
+
+    /**
+     * @return a factory of file channel readers, loads of blocks starting at blockedSrcIndices wait for release
+     */
+    private static FloatChunkReaderFactory blockingFactory(Set<Long> blockedSrcIndices, CountDownLatch loading,
+                                                           CountDownLatch release, AtomicInteger created) {
+        return path -> {
+            FloatChunkReader delegate = new FileChannelFloatChunkReader(path);
+            created.incrementAndGet();
+            return new FloatChunkReader() {
+                @Override
+                public long length() throws IOException {
+                    return delegate.length();
+                }
+
+                @Override
+                public void read(float[] dst, long srcIndex, int dstIndex, int length) throws IOException {
+                    delegate.read(dst, srcIndex, dstIndex, length);
+                }
+
+                @Override
+                public long read(MemorySegment dst, long srcIndex, long dstIndex, long length) throws IOException {
+                    if (blockedSrcIndices.contains(srcIndex)) {
+                        loading.countDown();
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            throw new InterruptedIOException();
+                        }
+                    }
+                    return delegate.read(dst, srcIndex, dstIndex, length);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    delegate.close();
+                }
+            };
+        };
+    }
+
+    private static Path createTestFile(long count) throws IOException {
+        Path testFile = getTestFilePath(count);
+        if (!Files.exists(testFile))
+            FloatStorageGenerator.generate(testFile, count, createProducerFactory(count), false, 4);
+        return testFile;
+    }
+}
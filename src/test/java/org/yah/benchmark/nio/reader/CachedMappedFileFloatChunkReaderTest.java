@@ -36,4 +36,23 @@ class CachedMappedFileFloatChunkReaderTest extends AbstractFloatChunkReaderTest
         testReadOverflow(FileChannelFloatChunkReader::new);
     }
 
-}
\ No newline at end of file
+    @Test
+    void testDestinations() throws IOException {
+        testDestinations(CachedMappedFileFloatChunkReader::new, true);
+    }
+
+    @Test
+    void testReadBatch() throws IOException {
+        testReadBatch(CachedMappedFileFloatChunkReader::new);
+    }
+
+    @Test
+    void testByteOrders() throws IOException {
+        testByteOrders(CachedMappedFileFloatChunkReader::new);
+    }
+
+    @Test
+    void testHintsAndPreload() throws IOException {
+        testHintsAndPreload(CachedMappedFileFloatChunkReader::new);
+    }
+}
@@ -0,0 +1,90 @@
+package org.yah.benchmark.nio.reader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.yah.benchmark.nio.writer.FloatStorageGenerator;
+import org.yah.benchmark.nio.writer.FloatStorageGenerator.FloatProducer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompressedFloatChunkReaderTest extends AbstractFloatChunkReaderTest {
+
+    private static final int BLOCK_SIZE = 1000;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4})
+    void test(int parallelism) throws IOException {
+        long count = 100_005;
+        Path testFile = testFile(count);
+        FloatProducer producer = createProducer(count);
+        try (FloatChunkReader reader = new CompressedFloatChunkReader(testFile, parallelism)) {
+            assertEquals(count, reader.length());
+            float[] dst = new float[(int) count];
+            reader.read(dst, 0);
+            checkFloats(producer, 0, dst, 0, dst.length);
+
+            // partial first and last blocks
+            reader.read(dst, 1500, 10, 20_000);
+            checkFloats(producer, 1500, dst, 10, 20_000);
+
+            // sequential reads in blocks
+            for (int srcIndex = 0; srcIndex < 5000; srcIndex += 300) {
+                reader.read(dst, srcIndex, 0, 300);
+                checkFloats(producer, srcIndex, dst, 0, 300);
+            }
+
+            // overflow file length
+            reader.read(dst, count - 10, 0, 100);
+            checkFloats(producer, count - 10, dst, 0, 10);
+        }
+    }
+
+    @Test
+    public void testReadOverflow() throws IOException {
+        testReadOverflow(CompressedFloatChunkReader::new);
+    }
+
+    @Test
+    void testDestinations() throws IOException {
+        testDestinations(CompressedFloatChunkReader::new, false);
+    }
+
+    @Test
+    void testReadBatch() throws IOException {
+        testReadBatch(testFile -> new CompressedFloatChunkReader(testFile, 2));
+    }
+
+    @Test
+    void testCompression() throws IOException {
+        long count = 100_005;
+        Path testFile = testFile(count);
+        assertTrue(Files.size(testFile) < count * Float.BYTES / 2, "poor compression: " + Files.size(testFile));
+    }
+
+    @Test
+    void testRawReaderRejectsCompressedStorage() throws IOException {
+        Path testFile = testFile(2000);
+        assertThrows(IOException.class, () -> new FileChannelFloatChunkReader(testFile));
+        assertThrows(IOException.class, () -> new MemorySegmentFloatChunkReader(testFile));
+        assertThrows(IOException.class, () -> new AsynchronousFileChannelFloatChunkReader(testFile));
+
+        Path rawFile = super.testFile(50);
+        assertThrows(IOException.class, () -> new CompressedFloatChunkReader(rawFile));
+    }
+
+    @Override
+    protected Path testFile(long count) throws IOException {
+        Path testFile = Paths.get(String.format("target/test_floats_compressed_%d.dat", count));
+        if (!Files.exists(testFile))
+            FloatStorageGenerator.generateCompressed(testFile, count, createProducerFactory(count), BLOCK_SIZE, 4);
+        return testFile;
+    }
+}
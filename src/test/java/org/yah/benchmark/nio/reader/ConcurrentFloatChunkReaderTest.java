@@ -1,9 +1,20 @@
 package org.yah.benchmark.nio.reader;
 
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.ValueSource;
+import org.yah.benchmark.nio.reader.ConcurrentFloatChunkReader.ExecutionMode;
+import org.yah.benchmark.nio.writer.FloatStorageGenerator.FloatProducer;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class ConcurrentFloatChunkReaderTest extends AbstractFloatChunkReaderTest {
 
@@ -12,4 +23,128 @@ class ConcurrentFloatChunkReaderTest extends AbstractFloatChunkReaderTest {
     void test(long count) throws IOException {
         test(testFile -> new ConcurrentFloatChunkReader(testFile, CachedMappedFileFloatChunkReader::new, 4, 1000), count);
     }
-}
\ No newline at end of file
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2000, Integer.MAX_VALUE + 5000L})
+    void testVirtualThreads(long count) throws IOException {
+        test(testFile -> new ConcurrentFloatChunkReader(testFile, CachedMappedFileFloatChunkReader::new, 4, 1000,
+                ExecutionMode.VIRTUAL_THREADS), count);
+    }
+
+    @Test
+    void testDestinations() throws IOException {
+        testDestinations(testFile -> new ConcurrentFloatChunkReader(testFile, CachedMappedFileFloatChunkReader::new, 4, 1000), false);
+    }
+
+    @Test
+    void testReadBatch() throws IOException {
+        testReadBatch(testFile -> new ConcurrentFloatChunkReader(testFile, CachedMappedFileFloatChunkReader::new, 4, 1000));
+    }
+
+    @ParameterizedTest
+    @EnumSource(ExecutionMode.class)
+    void testChunks(ExecutionMode executionMode) throws IOException {
+        long count = 2000;
+        Path testFile = testFile(count);
+        FloatProducer producer = createProducer(count);
+        try (FloatChunkReader reader = new ConcurrentFloatChunkReader(testFile, FileChannelFloatChunkReader::new, 4, 2, executionMode)) {
+            float[] dst = new float[1000];
+            // last chunks would start after length
+            reader.read(dst, 100, 10, 5);
+            checkFloats(producer, 100, dst, 10, 5);
+            // dstIndex does not shorten chunks
+            reader.read(dst, 100, 600, 400);
+            checkFloats(producer, 100, dst, 600, 400);
+            // overflow file length and dst
+            reader.read(dst, count - 50, 990, 100);
+            checkFloats(producer, count - 50, dst, 990, 10);
+            reader.read(dst, 0, 0, 0);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(ExecutionMode.class)
+    void testFailure(ExecutionMode executionMode) throws IOException {
+        long count = 2000;
+        Path testFile = testFile(count);
+        FloatProducer producer = createProducer(count);
+        AtomicBoolean fail = new AtomicBoolean(true);
+        FloatChunkReaderFactory factory = file -> new FailingReader(new FileChannelFloatChunkReader(file), fail);
+        try (FloatChunkReader reader = new ConcurrentFloatChunkReader(testFile, factory, 4, 100, executionMode)) {
+            float[] dst = new float[1000];
+            IOException error = assertThrows(IOException.class, () -> reader.read(dst, 0, 0, 1000));
+            assertEquals("read failure", error.getMessage());
+
+            fail.set(false);
+            reader.read(dst, 0, 0, 1000);
+            checkFloats(producer, 0, dst, 0, 1000);
+        }
+    }
+
+    // a failed read returns once other chunks are done
+    @ParameterizedTest
+    @EnumSource(ExecutionMode.class)
+    void testFailureWaitsForChunks(ExecutionMode executionMode) throws IOException {
+        long count = 2000;
+        Path testFile = testFile(count);
+        AtomicInteger inFlight = new AtomicInteger();
+        FloatChunkReaderFactory factory = file -> {
+            FloatChunkReader delegate = new FileChannelFloatChunkReader(file);
+            return new FloatChunkReader() {
+                @Override
+                public long length() throws IOException {
+                    return delegate.length();
+                }
+
+                @Override
+                public void read(float[] dst, long srcIndex, int dstIndex, int length) throws IOException {
+                    if (srcIndex >= 750)
+                        throw new IOException("read failure");
+                    inFlight.incrementAndGet();
+                    try {
+                        // slow read, ignoring interrupts
+                        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200);
+                        while (System.nanoTime() < deadline)
+                            Thread.onSpinWait();
+                        delegate.read(dst, srcIndex, dstIndex, length);
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                }
+
+                @Override
+                public void close() throws IOException {
+                    delegate.close();
+                }
+            };
+        };
+        try (FloatChunkReader reader = new ConcurrentFloatChunkReader(testFile, factory, 4, 100, executionMode)) {
+            float[] dst = new float[1000];
+            IOException error = assertThrows(IOException.class, () -> reader.read(dst, 0, 0, 1000));
+            assertEquals("read failure", error.getMessage());
+            assertEquals(0, inFlight.get());
+        }
+    }
+
+    /**
+     * fails reads of the second half of storage
+     */
+    private record FailingReader(FloatChunkReader delegate, AtomicBoolean fail) implements FloatChunkReader {
+        @Override
+        public long length() throws IOException {
+            return delegate.length();
+        }
+
+        @Override
+        public void read(float[] dst, long srcIndex, int dstIndex, int length) throws IOException {
+            if (fail.get() && srcIndex >= 500)
+                throw new IOException("read failure");
+            delegate.read(dst, srcIndex, dstIndex, length);
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package org.yah.benchmark.nio.reader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.yah.benchmark.nio.reader.ConcurrentFloatChunkReader.ExecutionMode;
+import org.yah.benchmark.nio.writer.FloatStorageGenerator.FloatProducer;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DirectFloatChunkReaderTest extends AbstractFloatChunkReaderTest {
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2000, Integer.MAX_VALUE + 5000L})
+    void test(long count) throws IOException {
+        test(DirectFloatChunkReader::new, count);
+    }
+
+    @Test
+    void testReadOverflow() throws IOException {
+        testReadOverflow(DirectFloatChunkReader::new);
+    }
+
+    @Test
+    void testDestinations() throws IOException {
+        testDestinations(testFile -> new DirectFloatChunkReader(testFile, 300), false);
+    }
+
+    @Test
+    void testReadBatch() throws IOException {
+        testReadBatch(DirectFloatChunkReader::new);
+    }
+
+    @Test
+    void testByteOrders() throws IOException {
+        testByteOrders(testFile -> new DirectFloatChunkReader(testFile, 300));
+    }
+
+    // unaligned reads, crossing blocks and staging refills
+    @Test
+    void testUnalignedReads() throws IOException {
+        long count = 2000;
+        Path testFile = testFile(count);
+        FloatProducer producer = createProducer(count);
+        try (DirectFloatChunkReader reader = new DirectFloatChunkReader(testFile, 1)) {
+            int blockFloats = reader.blockSize() / Float.BYTES;
+            float[] dst = new float[(int) count];
+            for (long srcIndex : new long[]{0, 1, blockFloats - 16 - 1, blockFloats - 16, count - 7}) {
+                for (int length : new int[]{1, 7, blockFloats - 1, blockFloats + 3, 3 * blockFloats}) {
+                    int read = (int) Math.min(length, count - srcIndex);
+                    reader.read(dst, srcIndex, 5, length);
+                    checkFloats(producer, srcIndex, dst, 5, Math.min(read, dst.length - 5));
+                }
+            }
+        }
+    }
+
+    // a short read before the requested range end is the end of file, not retried at an unaligned position
+    @Test
+    void testTruncated() throws IOException {
+        long count = 10_000;
+        Path truncatedFile = Path.of("target/test_direct_truncated.dat");
+        Files.copy(testFile(count), truncatedFile, StandardCopyOption.REPLACE_EXISTING);
+        try (DirectFloatChunkReader reader = new DirectFloatChunkReader(truncatedFile)) {
+            long truncatedSize = reader.position(5000) + 6;
+            try (FileChannel channel = FileChannel.open(truncatedFile, StandardOpenOption.WRITE)) {
+                channel.truncate(truncatedSize);
+            }
+            float[] dst = new float[100];
+            assertThrows(EOFException.class, () -> reader.read(dst, 4990));
+            reader.read(dst, 4900);
+            checkFloats(createProducer(count), 4900, dst, 0, dst.length);
+        } finally {
+            Files.deleteIfExists(truncatedFile);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(ExecutionMode.class)
+    void testConcurrent(ExecutionMode executionMode) throws IOException {
+        long count = 2000;
+        FloatProducer producer = createProducer(count);
+        try (FloatChunkReader reader = ConcurrentFloatChunkReader.direct(testFile(count), 4, 100, executionMode)) {
+            assertEquals(count, reader.length());
+            float[] dst = new float[(int) count];
+            reader.read(dst, 0);
+            checkFloats(producer, 0, dst, 0, dst.length);
+            reader.read(dst, 333, 3, 1111);
+            checkFloats(producer, 333, dst, 3, 1111);
+        }
+    }
+}
@@ -32,6 +32,11 @@ public class FileChannelFloatChunkReaderTest extends AbstractFloatChunkReaderTes
         testReadOverflow(FileChannelFloatChunkReader::new);
     }
 
+    @Test
+    void testReadAsync() throws IOException {
+        testReadAsync(FileChannelFloatChunkReader::new);
+    }
+
     // test when staging buffer gets refilled
     @Test
     void testRefillStagingBuffer() throws IOException {
@@ -53,4 +58,19 @@ public class FileChannelFloatChunkReaderTest extends AbstractFloatChunkReaderTes
     private FileChannelFloatChunkReader createReader(Path testFile, boolean direct) throws IOException {
         return new FileChannelFloatChunkReader(testFile, STAGING_CAPACITY, direct);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testDestinations() throws IOException {
+        testDestinations(FileChannelFloatChunkReader::new, false);
+    }
+
+    @Test
+    void testReadBatch() throws IOException {
+        testReadBatch(testFile -> new FileChannelFloatChunkReader(testFile, 300, true));
+    }
+
+    @Test
+    void testByteOrders() throws IOException {
+        testByteOrders(testFile -> new FileChannelFloatChunkReader(testFile, 300, false));
+    }
+}
@@ -0,0 +1,123 @@
+package org.yah.benchmark.nio.reader;
+
+import org.junit.jupiter.api.Test;
+import org.yah.benchmark.nio.BaseTest;
+import org.yah.benchmark.nio.writer.FloatStorageGenerator;
+import org.yah.benchmark.nio.writer.FloatStorageGenerator.FloatProducer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.DoubleStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FloatChunkSpliteratorTest extends BaseTest {
+
+    private static final long COUNT = 10000;
+
+    @Test
+    void testReaderStream() throws IOException {
+        Path testFile = createTestFile();
+        FloatProducer producer = createProducer(COUNT);
+        try (FloatChunkReader reader = new FileChannelFloatChunkReader(testFile)) {
+            double[] actual = reader.stream(100, 2100).toArray();
+            assertArrayEquals(expected(producer, 100, 2100), actual);
+        }
+    }
+
+    @Test
+    void testParallelStream() throws IOException {
+        Path testFile = createTestFile();
+        FloatProducer producer = createProducer(COUNT);
+        CountingFactory factory = new CountingFactory(CachedMappedFileFloatChunkReader::new);
+        try (DoubleStream stream = factory.stream(testFile, 15, COUNT - 7, 256)) {
+            double[] actual = stream.parallel().toArray();
+            assertArrayEquals(expected(producer, 15, COUNT - 7), actual);
+        }
+        assertTrue(factory.created.get() > 2, "expecting a reader per split");
+        assertEquals(0, factory.opened.get(), "readers not closed");
+    }
+
+    @Test
+    void testChunks() throws IOException {
+        Path testFile = createTestFile();
+        FloatProducer producer = createProducer(COUNT);
+        CountingFactory factory = new CountingFactory(FileChannelFloatChunkReader::new);
+        try (Stream<FloatChunk> chunks = factory.chunks(testFile, 10, COUNT, 1000)) {
+            List<long[]> ranges = chunks.parallel().map(chunk -> {
+                for (int i = 0; i < chunk.length(); i++)
+                    assertEquals(producer.produce(chunk.srcIndex() + i), chunk.data()[i]);
+                return new long[]{chunk.srcIndex(), chunk.length()};
+            }).toList();
+            assertEquals(10, ranges.size());
+            assertArrayEquals(new long[]{10, 990}, ranges.get(0));
+            for (int i = 1; i < ranges.size(); i++)
+                assertArrayEquals(new long[]{i * 1000L, 1000}, ranges.get(i));
+        }
+        assertEquals(0, factory.opened.get(), "readers not closed");
+    }
+
+    @Test
+    void testShortCircuit() throws IOException {
+        Path testFile = createTestFile();
+        CountingFactory factory = new CountingFactory(FileChannelFloatChunkReader::new);
+        try (DoubleStream stream = factory.stream(testFile, 0, COUNT, 100)) {
+            assertNotNull(stream.parallel().filter(v -> v > 0.5).findFirst());
+        }
+        assertEquals(0, factory.opened.get(), "readers not closed");
+    }
+
+    private static double[] expected(FloatProducer producer, long from, long to) {
+        return LongStream.range(from, to).mapToDouble(producer::produce).toArray();
+    }
+
+    private static Path createTestFile() throws IOException {
+        Path testFile = Paths.get(String.format("target/test_floats_%d.dat", COUNT));
+        if (!Files.exists(testFile))
+            FloatStorageGenerator.generate(testFile, COUNT, createProducerFactory(COUNT), false, 4);
+        return testFile;
+    }
+
+    private static final class CountingFactory implements FloatChunkReaderFactory {
+        private final FloatChunkReaderFactory delegate;
+        private final AtomicInteger created = new AtomicInteger();
+        private final AtomicInteger opened = new AtomicInteger();
+
+        private CountingFactory(FloatChunkReaderFactory delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public FloatChunkReader create(Path storageFile) throws IOException {
+            FloatChunkReader reader = delegate.create(storageFile);
+            created.incrementAndGet();
+            opened.incrementAndGet();
+            return new FloatChunkReader() {
+                @Override
+                public long length() throws IOException {
+                    return reader.length();
+                }
+
+                @Override
+                public void read(float[] dst, long srcIndex, int dstIndex, int length) throws IOException {
+                    reader.read(dst, srcIndex, dstIndex, length);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    opened.decrementAndGet();
+                    reader.close();
+                }
+            };
+        }
+    }
+}
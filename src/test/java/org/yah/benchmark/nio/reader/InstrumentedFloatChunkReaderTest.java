@@ -0,0 +1,144 @@
+package org.yah.benchmark.nio.reader;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.yah.benchmark.nio.metrics.ReaderMetrics;
+import org.yah.benchmark.nio.writer.FloatStorageGenerator.FloatProducer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InstrumentedFloatChunkReaderTest extends AbstractFloatChunkReaderTest {
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2000, Integer.MAX_VALUE + 5000L})
+    void test(long count) throws IOException {
+        test(instrumented(FileChannelFloatChunkReader::new, new ReaderMetrics()), count);
+    }
+
+    @Test
+    void testDestinations() throws IOException {
+        testDestinations(instrumented(MemorySegmentFloatChunkReader::new, new ReaderMetrics()), true);
+    }
+
+    @Test
+    void testReadBatch() throws IOException {
+        testReadBatch(instrumented(FileChannelFloatChunkReader::new, new ReaderMetrics()));
+    }
+
+    @Test
+    void testReadAsync() throws IOException {
+        testReadAsync(instrumented(AsynchronousFileChannelFloatChunkReader::new, new ReaderMetrics()));
+    }
+
+    @Test
+    void testMetrics() throws IOException {
+        long count = 2000;
+        Path testFile = testFile(count);
+        ReaderMetrics metrics = new ReaderMetrics();
+        try (FloatChunkReader reader = instrumented(FileChannelFloatChunkReader::new, metrics).create(testFile)) {
+            float[] dst = new float[100];
+            reader.read(dst, 0);
+            reader.read(dst, count - 10); // capped to 10 floats
+            reader.readBatch(new long[]{1, 2, 3}, new float[3]);
+            assertThrows(RuntimeException.class, () -> reader.read(dst, 0, -5, 10));
+        }
+        assertEquals(3, metrics.reads());
+        assertEquals(113, metrics.floats());
+        assertEquals(113 * Float.BYTES, metrics.bytes());
+        assertEquals(1, metrics.errors());
+        assertEquals(3, metrics.latency().count());
+        assertTrue(metrics.readNanos() > 0);
+        // staged reads: every float is read then copied, the failed read is read but not copied
+        assertEquals(123 * Float.BYTES, metrics.ioBytes());
+        assertEquals(113 * Float.BYTES, metrics.copyBytes());
+        assertTrue(metrics.ioNanos() > 0);
+        assertTrue(metrics.copyNanos() > 0);
+        assertTrue(metrics.ioNanos() + metrics.copyNanos() <= metrics.readNanos());
+    }
+
+    @Test
+    void testPhaseEvents() throws IOException {
+        long count = 2000;
+        Path testFile = testFile(count);
+        FloatProducer producer = createProducer(count);
+        Path recordingFile = Files.createTempFile("float-reader", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("org.yah.benchmark.nio.ReadPhase").withThreshold(java.time.Duration.ZERO);
+            recording.start();
+            float[] dst = new float[1000];
+            try (FloatChunkReader reader = new PositionalFloatChunkReader(testFile, 400)) {
+                reader.read(dst, 10);
+                checkFloats(producer, 10, dst, 0, dst.length);
+            }
+            recording.stop();
+            recording.dump(recordingFile);
+            Map<String, List<RecordedEvent>> phases = RecordingFile.readAllEvents(recordingFile).stream()
+                    .filter(event -> event.getEventType().getName().equals("org.yah.benchmark.nio.ReadPhase"))
+                    .collect(Collectors.groupingBy(event -> event.getString("phase")));
+            // 3 chunks of staging capacity
+            for (String phase : List.of("io", "copy")) {
+                assertEquals(3, phases.get(phase).size(), phase);
+                assertEquals(dst.length * Float.BYTES, phases.get(phase).stream().mapToLong(event -> event.getLong("bytes")).sum());
+                assertEquals(testFile.toString(), phases.get(phase).getFirst().getString("file"));
+            }
+            assertFalse(phases.get("io").getFirst().hasField("startNanos"));
+        } finally {
+            Files.deleteIfExists(recordingFile);
+        }
+    }
+
+    @Test
+    void testEvents() throws IOException {
+        long count = 2000;
+        Path testFile = testFile(count);
+        FloatProducer producer = createProducer(count);
+        Path recordingFile = Files.createTempFile("float-reader", ".jfr");
+        try (Recording recording = new Recording()) {
+            for (String event : List.of("Read", "Mapping", "FanOut", "ChunkRead"))
+                recording.enable("org.yah.benchmark.nio." + event).withThreshold(java.time.Duration.ZERO);
+            recording.start();
+            float[] dst = new float[1000];
+            FloatChunkReaderFactory factory = instrumented(MemorySegmentFloatChunkReader::new, new ReaderMetrics());
+            try (FloatChunkReader reader = new ConcurrentFloatChunkReader(testFile, factory, 4, 100)) {
+                reader.read(dst, 10);
+                checkFloats(producer, 10, dst, 0, dst.length);
+            }
+            recording.stop();
+            recording.dump(recordingFile);
+            Map<String, List<RecordedEvent>> events = RecordingFile.readAllEvents(recordingFile).stream()
+                    .collect(Collectors.groupingBy(event -> event.getEventType().getName()));
+
+            List<RecordedEvent> fanOuts = events.get("org.yah.benchmark.nio.FanOut");
+            assertEquals(1, fanOuts.size());
+            assertEquals(4, fanOuts.getFirst().getInt("chunks"));
+            assertEquals(250, fanOuts.getFirst().getInt("chunkSize"));
+            assertEquals(4, events.get("org.yah.benchmark.nio.ChunkRead").size());
+
+            List<RecordedEvent> reads = events.get("org.yah.benchmark.nio.Read");
+            assertEquals(4, reads.size());
+            assertEquals(dst.length * Float.BYTES, reads.stream().mapToLong(event -> event.getLong("bytes")).sum());
+            // one mapping per delegate
+            assertEquals(4, events.get("org.yah.benchmark.nio.Mapping").size());
+        } finally {
+            Files.deleteIfExists(recordingFile);
+        }
+    }
+
+    private static FloatChunkReaderFactory instrumented(FloatChunkReaderFactory factory, ReaderMetrics metrics) {
+        return InstrumentedFloatChunkReader.factory(factory, metrics, "test");
+    }
+}
@@ -19,4 +19,18 @@ public class MappedFileFloatChunkReaderTest extends AbstractFloatChunkReaderTest
         testReadOverflow(FileChannelFloatChunkReader::new);
     }
 
-}
\ No newline at end of file
+    @Test
+    void testDestinations() throws IOException {
+        testDestinations(MappedFileFloatChunkReader::new, true);
+    }
+
+    @Test
+    void testReadBatch() throws IOException {
+        testReadBatch(MappedFileFloatChunkReader::new);
+    }
+
+    @Test
+    void testByteOrders() throws IOException {
+        testByteOrders(MappedFileFloatChunkReader::new);
+    }
+}
@@ -0,0 +1,52 @@
+package org.yah.benchmark.nio.reader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+
+class MemorySegmentFloatChunkReaderTest extends AbstractFloatChunkReaderTest {
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2000, Integer.MAX_VALUE + 5000L})
+    void testShared(long count) throws IOException {
+        test(MemorySegmentFloatChunkReader::new, count);
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2000, Integer.MAX_VALUE + 5000L})
+    void testConfined(long count) throws IOException {
+        test(testFile -> new MemorySegmentFloatChunkReader(testFile, false), count);
+    }
+
+    @Test
+    public void testReadOverflow() throws IOException {
+        testReadOverflow(MemorySegmentFloatChunkReader::new);
+    }
+
+    @Test
+    void testDestinations() throws IOException {
+        testDestinations(MemorySegmentFloatChunkReader::new, true);
+    }
+
+    @Test
+    void testConfinedDestinations() throws IOException {
+        testDestinations(testFile -> new MemorySegmentFloatChunkReader(testFile, false), true);
+    }
+
+    @Test
+    void testReadBatch() throws IOException {
+        testReadBatch(MemorySegmentFloatChunkReader::new);
+    }
+
+    @Test
+    void testByteOrders() throws IOException {
+        testByteOrders(MemorySegmentFloatChunkReader::new);
+    }
+
+    @Test
+    void testHintsAndPreload() throws IOException {
+        testHintsAndPreload(MemorySegmentFloatChunkReader::new);
+    }
+}
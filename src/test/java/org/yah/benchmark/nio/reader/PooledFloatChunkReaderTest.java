@@ -0,0 +1,137 @@
+package org.yah.benchmark.nio.reader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.yah.benchmark.nio.writer.FloatStorageGenerator.FloatProducer;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PooledFloatChunkReaderTest extends AbstractFloatChunkReaderTest {
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2000, Integer.MAX_VALUE + 5000L})
+    void test(long count) throws IOException {
+        test(testFile -> new PooledFloatChunkReader(testFile, FileChannelFloatChunkReader::new, 4), count);
+    }
+
+    @Test
+    void testDestinations() throws IOException {
+        testDestinations(testFile -> new PooledFloatChunkReader(testFile, MemorySegmentFloatChunkReader::new, 4), true);
+    }
+
+    @Test
+    void testReadBatch() throws IOException {
+        testReadBatch(testFile -> new PooledFloatChunkReader(testFile, FileChannelFloatChunkReader::new, 4));
+    }
+
+    @Test
+    void testConcurrentClients() throws Exception {
+        long count = 2000;
+        Path testFile = testFile(count);
+        FloatProducer producer = createProducer(count);
+        int clients = 16, maxReaders = 3;
+        ExecutorService executorService = Executors.newFixedThreadPool(clients);
+        try (PooledFloatChunkReader reader = new PooledFloatChunkReader(testFile, FileChannelFloatChunkReader::new, maxReaders)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int client = 0; client < clients; client++) {
+                int seed = client;
+                futures.add(executorService.submit(() -> {
+                    Random random = new Random(seed);
+                    float[] dst = new float[300];
+                    for (int i = 0; i < 200; i++) {
+                        int length = random.nextInt(1, dst.length);
+                        long srcIndex = random.nextLong(count - length);
+                        reader.read(dst, srcIndex, 0, length);
+                        checkFloats(producer, srcIndex, dst, 0, length);
+                        assertTrue(reader.openReaders() <= maxReaders, "open readers " + reader.openReaders());
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures)
+                future.get();
+            assertTrue(reader.openReaders() <= maxReaders);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    void testLease() throws IOException {
+        long count = 2000;
+        Path testFile = testFile(count);
+        FloatProducer producer = createProducer(count);
+        PooledFloatChunkReader reader = new PooledFloatChunkReader(testFile, FileChannelFloatChunkReader::new, 2);
+        PooledFloatChunkReader.Lease first = reader.lease();
+        PooledFloatChunkReader.Lease second = reader.lease();
+        assertEquals(2, reader.openReaders());
+        float[] dst = new float[100];
+        second.reader().read(dst, 1000);
+        checkFloats(producer, 1000, dst, 0, dst.length);
+        second.close();
+        assertThrows(IllegalStateException.class, second::reader);
+
+        // leased delegate is closed on release after the pool is closed
+        reader.close();
+        assertEquals(1, reader.openReaders());
+        assertThrows(IOException.class, reader::lease);
+        first.close();
+        assertEquals(0, reader.openReaders());
+    }
+
+    // a caller waiting for a delegate fails if the pool is closed meanwhile
+    @Test
+    void testCloseWhileWaiting() throws Exception {
+        PooledFloatChunkReader reader = new PooledFloatChunkReader(testFile(2000), FileChannelFloatChunkReader::new, 1);
+        PooledFloatChunkReader.Lease lease = reader.lease();
+        CompletableFuture<PooledFloatChunkReader.Lease> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return reader.lease();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        Thread.sleep(50);
+        reader.close();
+        lease.close();
+        ExecutionException error = assertThrows(ExecutionException.class, () -> waiting.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(UncheckedIOException.class, error.getCause());
+        assertEquals(0, reader.openReaders());
+    }
+
+    @Test
+    void testInterruptWhileWaiting() throws Exception {
+        try (PooledFloatChunkReader reader = new PooledFloatChunkReader(testFile(2000), FileChannelFloatChunkReader::new, 1);
+             PooledFloatChunkReader.Lease ignored = reader.lease()) {
+            CompletableFuture<Throwable> error = new CompletableFuture<>();
+            Thread thread = Thread.ofPlatform().start(() -> {
+                try {
+                    reader.lease().close();
+                    error.complete(null);
+                } catch (IOException e) {
+                    error.complete(Thread.currentThread().isInterrupted() ? e : new AssertionError("interrupt flag cleared", e));
+                }
+            });
+            thread.interrupt();
+            assertInstanceOf(InterruptedIOException.class, error.get(10, TimeUnit.SECONDS));
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.yah.benchmark.nio.reader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.yah.benchmark.nio.writer.FloatStorageGenerator.FloatProducer;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PositionalFloatChunkReaderTest extends AbstractFloatChunkReaderTest {
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2000, Integer.MAX_VALUE + 5000L})
+    void test(long count) throws IOException {
+        test(PositionalFloatChunkReader::new, count);
+    }
+
+    @Test
+    void testReadOverflow() throws IOException {
+        testReadOverflow(PositionalFloatChunkReader::new);
+    }
+
+    @Test
+    void testDestinations() throws IOException {
+        testDestinations(PositionalFloatChunkReader::new, false);
+    }
+
+    @Test
+    void testReadBatch() throws IOException {
+        testReadBatch(testFile -> new PositionalFloatChunkReader(testFile, 300));
+    }
+
+    @Test
+    void testByteOrders() throws IOException {
+        testByteOrders(testFile -> new PositionalFloatChunkReader(testFile, 300));
+    }
+
+    // heap segments not backed by a byte[] are read through staging buffers
+    @Test
+    void testHeapSegment() throws IOException {
+        long count = 2000;
+        Path testFile = testFile(count);
+        FloatProducer producer = createProducer(count);
+        try (FloatChunkReader reader = new PositionalFloatChunkReader(testFile, 300)) {
+            float[] floats = new float[(int) count + 10];
+            assertEquals(count, reader.read(MemorySegment.ofArray(floats), 0, 10, count));
+            checkFloats(producer, 0, floats, 10, (int) count);
+        }
+    }
+
+    // a single reader shared by many threads, with staging buffer refills
+    @Test
+    void testSharedReader() throws Exception {
+        long count = 2000;
+        Path testFile = testFile(count);
+        FloatProducer producer = createProducer(count);
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        try (FloatChunkReader reader = new PositionalFloatChunkReader(testFile, 100)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int client = 0; client < 16; client++) {
+                int seed = client;
+                futures.add(executorService.submit(() -> {
+                    Random random = new Random(seed);
+                    float[] dst = new float[500];
+                    for (int i = 0; i < 200; i++) {
+                        int length = random.nextInt(1, dst.length);
+                        long srcIndex = random.nextLong(count - length);
+                        reader.read(dst, srcIndex, 0, length);
+                        checkFloats(producer, srcIndex, dst, 0, length);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures)
+                future.get();
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.yah.benchmark.nio.reader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.yah.benchmark.nio.writer.FloatStorageGenerator;
+import org.yah.benchmark.nio.writer.FloatStorageGenerator.FloatProducer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReadAheadFloatChunkReaderTest extends AbstractFloatChunkReaderTest {
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2000, Integer.MAX_VALUE + 5000L})
+    void test(long count) throws IOException {
+        test(testFile -> new ReadAheadFloatChunkReader(testFile, FileChannelFloatChunkReader::new, 300), count);
+    }
+
+    @Test
+    public void testReadOverflow() throws IOException {
+        testReadOverflow(testFile -> new ReadAheadFloatChunkReader(testFile, FileChannelFloatChunkReader::new, 30));
+    }
+
+    // sequential scans with reads smaller and larger than the window, interleaved with random reads
+    @ParameterizedTest
+    @ValueSource(ints = {7, 100, 450})
+    void testSequentialScan(int readLength) throws IOException {
+        long count = 2000;
+        Path testFile = getTestFilePath(count);
+        if (!Files.exists(testFile))
+            FloatStorageGenerator.generate(testFile, count, createProducerFactory(count), false, 4);
+        FloatProducer producer = createProducer(count);
+        Random random = new Random(12345);
+        try (FloatChunkReader reader = new ReadAheadFloatChunkReader(testFile, CachedMappedFileFloatChunkReader::new, 200)) {
+            float[] dst = new float[readLength];
+            for (int scan = 0; scan < 3; scan++) {
+                for (long srcIndex = scan * 10L; srcIndex < count; srcIndex += readLength) {
+                    int length = (int) Math.min(readLength, count - srcIndex);
+                    reader.read(dst, srcIndex, 0, length);
+                    checkFloats(producer, srcIndex, dst, 0, length);
+                    if (random.nextInt(20) == 0) { // random access
+                        long randomIndex = random.nextLong(count - readLength);
+                        reader.read(dst, randomIndex, 0, readLength);
+                        checkFloats(producer, randomIndex, dst, 0, readLength);
+                    }
+                }
+            }
+        }
+    }
+
+    // a failed prefetch is read again synchronously, and read ahead goes on
+    @Test
+    void testPrefetchFailure() throws IOException {
+        long count = 2000;
+        Path testFile = testFile(count);
+        FloatProducer producer = createProducer(count);
+        AtomicInteger createdReaders = new AtomicInteger();
+        AtomicInteger prefetchReads = new AtomicInteger();
+        FloatChunkReaderFactory factory = path -> {
+            FloatChunkReader delegate = new FileChannelFloatChunkReader(path);
+            if (createdReaders.getAndIncrement() == 0)
+                return delegate;
+            // the prefetch reader, failing once
+            return new FloatChunkReader() {
+                @Override
+                public long length() throws IOException {
+                    return delegate.length();
+                }
+
+                @Override
+                public void read(float[] dst, long srcIndex, int dstIndex, int length) throws IOException {
+                    if (prefetchReads.getAndIncrement() == 0)
+                        throw new IOException("prefetch failure");
+                    delegate.read(dst, srcIndex, dstIndex, length);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    delegate.close();
+                }
+            };
+        };
+        try (FloatChunkReader reader = new ReadAheadFloatChunkReader(testFile, factory, 200)) {
+            float[] dst = new float[50];
+            for (long srcIndex = 0; srcIndex < count; srcIndex += dst.length) {
+                reader.read(dst, srcIndex, 0, dst.length);
+                checkFloats(producer, srcIndex, dst, 0, dst.length);
+            }
+        }
+        assertTrue(prefetchReads.get() > 1, "read ahead stopped after failure");
+    }
+}
@@ -0,0 +1,119 @@
+package org.yah.benchmark.nio.reader;
+
+import org.junit.jupiter.api.Test;
+import org.yah.benchmark.nio.storage.ShardLayout;
+import org.yah.benchmark.nio.writer.FloatStorageGenerator;
+import org.yah.benchmark.nio.writer.FloatStorageGenerator.FloatProducer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ShardedFloatChunkReaderTest extends AbstractFloatChunkReaderTest {
+
+    private static final long COUNT = 100_003;
+
+    @Test
+    void testConcatenated() throws IOException {
+        // with an empty shard
+        ShardLayout layout = ShardLayout.concatenated(30_000, 0, 50_000, 20_003);
+        List<Path> shardFiles = generateShards("concatenated", layout);
+        try (ShardedFloatChunkReader reader = new ShardedFloatChunkReader(shardFiles, FileChannelFloatChunkReader::new)) {
+            assertEquals(COUNT, reader.length());
+            checkReads(reader);
+        }
+    }
+
+    @Test
+    void testStriped() throws IOException {
+        ShardLayout layout = ShardLayout.striped(3, 1000, COUNT);
+        assertEquals(COUNT, layout.length());
+        // 100 full stripes: 34, 33, 33, and the partial last stripe in shard 1
+        assertEquals(34_000, layout.shardLength(0));
+        assertEquals(33_003, layout.shardLength(1));
+        assertEquals(33_000, layout.shardLength(2));
+        List<Path> shardFiles = generateShards("striped", layout);
+        try (ShardedFloatChunkReader reader = new ShardedFloatChunkReader(shardFiles, MemorySegmentFloatChunkReader::new, 1000)) {
+            assertEquals(COUNT, reader.length());
+            checkReads(reader);
+        }
+        // shard lengths are not the ones of the stripe length
+        assertThrows(IOException.class, () -> new ShardedFloatChunkReader(shardFiles, FileChannelFloatChunkReader::new, 500));
+    }
+
+    // many threads sharing a reader of not thread safe delegates
+    @Test
+    void testSharedReader() throws Exception {
+        ShardLayout layout = ShardLayout.striped(4, 700, COUNT);
+        List<Path> shardFiles = generateShards("shared", layout);
+        FloatProducer producer = createProducer(COUNT);
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        try (FloatChunkReader reader = new ShardedFloatChunkReader(shardFiles, FileChannelFloatChunkReader::new, 700)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int client = 0; client < 16; client++) {
+                int seed = client;
+                futures.add(executorService.submit(() -> {
+                    Random random = new Random(seed);
+                    float[] dst = new float[5000];
+                    for (int i = 0; i < 100; i++) {
+                        int length = random.nextInt(1, dst.length);
+                        long srcIndex = random.nextLong(COUNT - length);
+                        reader.read(dst, srcIndex, 0, length);
+                        checkFloats(producer, srcIndex, dst, 0, length);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures)
+                future.get();
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private static void checkReads(FloatChunkReader reader) throws IOException {
+        FloatProducer producer = createProducer(COUNT);
+        float[] dst = new float[(int) COUNT];
+        reader.read(dst, 0);
+        checkFloats(producer, 0, dst, 0, dst.length);
+
+        Random random = new Random(12345);
+        for (int i = 0; i < 200; i++) {
+            int length = random.nextInt(1, 5000);
+            long srcIndex = random.nextLong(COUNT - length);
+            int dstIndex = random.nextInt(10);
+            reader.read(dst, srcIndex, dstIndex, length);
+            checkFloats(producer, srcIndex, dst, dstIndex, length);
+        }
+
+        // overflow array length
+        reader.read(dst, COUNT - 10, 0, 100);
+        checkFloats(producer, COUNT - 10, dst, 0, 10);
+
+        ReadRequest[] requests = {
+                new ReadRequest(new float[100], 29_950, 0, 100),
+                new ReadRequest(new float[10], 5, 0, 10),
+                new ReadRequest(new float[2000], 79_000, 0, 2000)
+        };
+        reader.readBatch(requests);
+        for (ReadRequest request : requests)
+            checkFloats(producer, request.srcIndex(), request.dst(), 0, request.length());
+    }
+
+    private static List<Path> generateShards(String name, ShardLayout layout) throws IOException {
+        List<Path> shardFiles = new ArrayList<>();
+        for (int i = 0; i < layout.shardCount(); i++)
+            shardFiles.add(Paths.get("target/test_shard_" + name + "_" + i + ".dat"));
+        FloatStorageGenerator.generateSharded(shardFiles, layout, createProducerFactory(COUNT), 2);
+        return shardFiles;
+    }
+}
@@ -0,0 +1,175 @@
+package org.yah.benchmark.nio.reader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.yah.benchmark.nio.writer.FloatChunkWriter;
+import org.yah.benchmark.nio.writer.FloatStorageGenerator;
+import org.yah.benchmark.nio.writer.FloatStorageGenerator.FloatProducer;
+import org.yah.benchmark.nio.writer.MappedFloatChunkWriter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TailingFloatChunkReaderTest extends AbstractFloatChunkReaderTest {
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2000, Integer.MAX_VALUE + 5000L})
+    void test(long count) throws IOException {
+        test(TailingFloatChunkReader::new, count);
+    }
+
+    // reads crossing windows
+    @Test
+    void testWindows() throws IOException {
+        test(testFile -> new TailingFloatChunkReader(testFile, 300, Duration.ofSeconds(1)), 2000);
+    }
+
+    @Test
+    void testReadOverflow() throws IOException {
+        testReadOverflow(TailingFloatChunkReader::new);
+    }
+
+    @Test
+    void testDestinations() throws IOException {
+        testDestinations(testFile -> new TailingFloatChunkReader(testFile, 300, Duration.ofSeconds(1)), false);
+    }
+
+    @Test
+    void testReadBatch() throws IOException {
+        testReadBatch(TailingFloatChunkReader::new);
+    }
+
+    @Test
+    void testByteOrders() throws IOException {
+        testByteOrders(testFile -> new TailingFloatChunkReader(testFile, 300, Duration.ofSeconds(1)));
+    }
+
+    // a consumer processing floats appended by the generator, as soon as they are published
+    @Test
+    void testTailGenerator() throws Exception {
+        int batches = 20, batchLength = 1000;
+        long count = (long) batches * batchLength;
+        FloatProducer producer = createProducer(count);
+        Path file = Paths.get("target/test_tail_generator.dat");
+        Files.deleteIfExists(file);
+        FloatStorageGenerator.generate(file, batchLength, producer, false);
+        // long refresh interval: growth must be detected from file changes
+        try (TailingFloatChunkReader reader = new TailingFloatChunkReader(file, 4096, Duration.ofSeconds(30))) {
+            assertEquals(batchLength, reader.length());
+            AtomicLong listened = new AtomicLong();
+            reader.addGrowthListener(length -> listened.accumulateAndGet(length, Math::max));
+            CompletableFuture<Void> appender = CompletableFuture.runAsync(() -> {
+                try {
+                    for (int i = 1; i < batches; i++) {
+                        Thread.sleep(5);
+                        FloatStorageGenerator.generate(file, batchLength, producer, true);
+                    }
+                } catch (IOException | InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            float[] dst = new float[(int) count];
+            long consumed = 0;
+            while (consumed < count) {
+                long length = reader.awaitLength(consumed + 1, 10, TimeUnit.SECONDS);
+                assertTrue(length > consumed, "no growth detected after " + consumed);
+                reader.read(dst, consumed, (int) consumed, (int) (length - consumed));
+                checkFloats(producer, consumed, dst, (int) consumed, (int) (length - consumed));
+                consumed = length;
+            }
+            appender.get();
+            assertEquals(count, reader.length());
+            // listeners are called by the watcher thread after waiters are woken up
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (listened.get() < count && System.nanoTime() < deadline)
+                Thread.sleep(1);
+            assertEquals(count, listened.get());
+        }
+    }
+
+    // floats written by a writer are visible once flushed
+    @Test
+    void testTailWriter() throws Exception {
+        long count = 5000;
+        FloatProducer producer = createProducer(count);
+        Path file = Paths.get("target/test_tail_writer.dat");
+        Files.deleteIfExists(file);
+        try (FloatChunkWriter writer = new MappedFloatChunkWriter(file, count);
+             TailingFloatChunkReader reader = new TailingFloatChunkReader(file, 4096, Duration.ofSeconds(30))) {
+            assertEquals(0, reader.length());
+            float[] src = new float[(int) count];
+            producer.produce(0, src, 0, src.length);
+            writer.append(src, 0, 3000);
+            // not published yet
+            assertEquals(0, reader.awaitLength(3000, 50, TimeUnit.MILLISECONDS));
+            writer.flush();
+            assertEquals(3000, reader.awaitLength(3000, 10, TimeUnit.SECONDS));
+            writer.append(src, 3000, 2000);
+            writer.flush();
+            assertEquals(count, reader.awaitLength(count, 10, TimeUnit.SECONDS));
+            float[] dst = new float[(int) count];
+            reader.read(dst, 0);
+            checkFloats(producer, 0, dst, 0, dst.length);
+        }
+    }
+
+    // a failing listener does not stop the watcher, nor the other listeners
+    @Test
+    void testFailingListener() throws Exception {
+        long count = 3000;
+        FloatProducer producer = createProducer(count);
+        Path file = Paths.get("target/test_tail_failing_listener.dat");
+        Files.deleteIfExists(file);
+        FloatStorageGenerator.generate(file, 1000, producer, false);
+        try (TailingFloatChunkReader reader = new TailingFloatChunkReader(file, 4096, Duration.ofMillis(20))) {
+            AtomicInteger failures = new AtomicInteger();
+            AtomicLong listened = new AtomicLong();
+            reader.addGrowthListener(length -> {
+                failures.incrementAndGet();
+                throw new IllegalStateException("listener failure");
+            });
+            reader.addGrowthListener(length -> listened.accumulateAndGet(length, Math::max));
+            FloatStorageGenerator.generate(file, 1000, producer, true);
+            assertEquals(2000, reader.awaitLength(2000, 10, TimeUnit.SECONDS));
+            FloatStorageGenerator.generate(file, 1000, producer, true);
+            assertEquals(count, reader.awaitLength(count, 10, TimeUnit.SECONDS));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (listened.get() < count && System.nanoTime() < deadline)
+                Thread.sleep(1);
+            assertEquals(count, listened.get());
+            assertTrue(failures.get() >= 2, "failing listener not called again");
+        }
+    }
+
+    @Test
+    void testCloseWakesWaiters() throws Exception {
+        Path testFile = testFile(10);
+        TailingFloatChunkReader reader = new TailingFloatChunkReader(testFile);
+        CompletableFuture<Long> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return reader.awaitLength(100);
+            } catch (IOException | InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        assertThrows(TimeoutException.class, () -> waiter.get(50, TimeUnit.MILLISECONDS));
+        reader.close();
+        ExecutionException e = assertThrows(ExecutionException.class, () -> waiter.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(IOException.class, e.getCause().getCause());
+    }
+}
@@ -0,0 +1,127 @@
+package org.yah.benchmark.nio.reader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.yah.benchmark.nio.storage.ElementType;
+import org.yah.benchmark.nio.storage.FloatStorageHeader;
+import org.yah.benchmark.nio.writer.FloatStorageGenerator;
+import org.yah.benchmark.nio.writer.FloatStorageGenerator.FloatProducer;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class WideningFloatChunkReaderTest extends AbstractFloatChunkReaderTest {
+
+    private static final long COUNT = 3 * FloatStorageHeader.DEFAULT_BLOCK_SIZE + 5;
+
+    @ParameterizedTest
+    @EnumSource(value = ElementType.class, names = {"FLOAT16", "BFLOAT16", "INT8"})
+    void test(ElementType elementType) throws IOException {
+        for (ByteOrder byteOrder : new ByteOrder[]{ByteOrder.LITTLE_ENDIAN, ByteOrder.BIG_ENDIAN}) {
+            Path testFile = createTestFile(elementType, byteOrder);
+            FloatProducer producer = createSignedProducer();
+            try (WideningFloatChunkReader reader = new WideningFloatChunkReader(testFile)) {
+                assertEquals(elementType, reader.elementType());
+                assertEquals(COUNT, reader.length());
+                assertEquals(COUNT * elementType.bytes() + (elementType.blockScaled() ? 4 * FloatStorageHeader.SCALE_BYTES : 0),
+                        Files.size(testFile) - FloatStorageHeader.HEADER_SIZE);
+
+                float[] dst = new float[(int) COUNT];
+                reader.read(dst, 0);
+                checkWidened(elementType, producer, 0, dst, 0, dst.length);
+
+                // unaligned, crossing blocks, with a vector tail
+                reader.read(dst, FloatStorageHeader.DEFAULT_BLOCK_SIZE - 7, 3, 1001);
+                checkWidened(elementType, producer, FloatStorageHeader.DEFAULT_BLOCK_SIZE - 7, dst, 3, 1001);
+
+                // overflow file length
+                reader.read(dst, COUNT - 3, 0, 100);
+                checkWidened(elementType, producer, COUNT - 3, dst, 0, 3);
+            }
+        }
+    }
+
+    @Test
+    void testSpecialValues() throws IOException {
+        float[] values = {0f, -0f, 1f, -2.5f, 65504f, 1e-7f /* subnormal half */, 6.1e-5f, Float.POSITIVE_INFINITY,
+                Float.NEGATIVE_INFINITY, Float.NaN, 1e6f /* half overflow */};
+        for (ElementType elementType : new ElementType[]{ElementType.FLOAT16, ElementType.BFLOAT16}) {
+            Path testFile = Paths.get("target/test_floats_special_" + elementType + ".dat");
+            // repeat values to use vector and scalar loops
+            int count = values.length * 10;
+            FloatStorageGenerator.generate(testFile, count, unused -> index -> values[(int) (index % values.length)],
+                    false, 1, ByteOrder.nativeOrder(), elementType);
+            try (FloatChunkReader reader = new WideningFloatChunkReader(testFile)) {
+                float[] dst = new float[count];
+                reader.read(dst, 0);
+                for (int i = 0; i < count; i++) {
+                    float value = values[i % values.length];
+                    float expected = elementType == ElementType.FLOAT16
+                            ? Float.float16ToFloat(Float.floatToFloat16(value))
+                            : bfloat16(value);
+                    assertEquals(expected, dst[i], "at index " + i + " (" + value + ")");
+                }
+            }
+        }
+    }
+
+    @Test
+    void testRejectedStorages() throws IOException {
+        Path rawFile = testFile(50);
+        assertThrows(IOException.class, () -> new WideningFloatChunkReader(rawFile));
+        Path int8File = createTestFile(ElementType.INT8, ByteOrder.nativeOrder());
+        assertThrows(IOException.class, () -> new FileChannelFloatChunkReader(int8File));
+        // partial last block
+        assertThrows(IllegalArgumentException.class, () -> FloatStorageGenerator.generate(int8File, 10,
+                unused -> createSignedProducer(), true, 1, ByteOrder.nativeOrder(), ElementType.INT8));
+    }
+
+    private static Path createTestFile(ElementType elementType, ByteOrder byteOrder) throws IOException {
+        Path testFile = Paths.get(String.format("target/test_floats_%s_%s_%d.dat", elementType, byteOrder, COUNT));
+        if (!Files.exists(testFile))
+            FloatStorageGenerator.generate(testFile, COUNT, unused -> createSignedProducer(), false, 4, byteOrder, elementType);
+        return testFile;
+    }
+
+    /**
+     * floats in [-1, 1]
+     */
+    private static FloatProducer createSignedProducer() {
+        return index -> (float) Math.sin(index * 0.001);
+    }
+
+    private static void checkWidened(ElementType elementType, FloatProducer producer, long startIndex, float[] dst, int dstIndex, int length) {
+        for (int i = 0; i < length; i++) {
+            long idx = startIndex + i;
+            float value = producer.produce(idx);
+            float actual = dst[dstIndex + i];
+            switch (elementType) {
+                case FLOAT16 -> assertEquals(Float.float16ToFloat(Float.floatToFloat16(value)), actual, "at index " + idx);
+                case BFLOAT16 -> {
+                    assertEquals(bfloat16(value), actual, "at index " + idx);
+                    assertEquals(value, actual, Math.abs(value) / 256, "at index " + idx);
+                }
+                // block max is ~1, quantization error is at most half a step
+                case INT8 -> assertEquals(value, actual, 0.5f / 127 + 1e-6f, "at index " + idx);
+                default -> throw new IllegalArgumentException(elementType.toString());
+            }
+        }
+    }
+
+    /**
+     * @return value rounded to nearest even bfloat16
+     */
+    private static float bfloat16(float value) {
+        if (Float.isNaN(value))
+            return value;
+        int bits = Float.floatToRawIntBits(value);
+        return Float.intBitsToFloat(((bits + 0x7FFF + ((bits >>> 16) & 1)) >>> 16) << 16);
+    }
+}
@@ -0,0 +1,190 @@
+package org.yah.benchmark.nio.writer;
+
+import org.yah.benchmark.nio.BaseTest;
+import org.yah.benchmark.nio.reader.FileChannelFloatChunkReader;
+import org.yah.benchmark.nio.reader.FloatChunkReader;
+import org.yah.benchmark.nio.storage.FloatStorageHeader;
+import org.yah.benchmark.nio.writer.FloatStorageGenerator.FloatProducer;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+abstract class AbstractFloatChunkWriterTest extends BaseTest {
+
+    @FunctionalInterface
+    protected interface FloatChunkWriterFactory {
+        FloatChunkWriter create(Path file, long capacity, ByteOrder byteOrder) throws IOException;
+    }
+
+    // write chunks in any order, with an unwritten gap, then read them back
+    protected final void testWrite(FloatChunkWriterFactory factory) throws IOException {
+        long count = 10_000;
+        FloatProducer producer = createProducer(count);
+        Path file = testFile("write");
+        try (FloatChunkWriter writer = factory.create(file, count, ByteOrder.nativeOrder())) {
+            assertEquals(0, writer.length());
+            assertEquals(count, writer.capacity());
+            assertTrue(Files.size(file) >= FloatStorageHeader.HEADER_SIZE + count * Float.BYTES);
+            writer.write(floats(producer, 5000, 5000), 5000);
+            assertEquals(count, writer.length());
+            float[] src = floats(producer, 0, 2000);
+            writer.write(src, 10, 10, 1990);
+            writer.write(src, 0, 0, 10);
+            assertEquals(count, writer.length());
+        }
+        checkStorage(file, ByteOrder.nativeOrder(), producer, 0, 2000);
+        checkStorage(file, ByteOrder.nativeOrder(), index -> 0, 2000, 3000);
+        checkStorage(file, ByteOrder.nativeOrder(), producer, 5000, 5000);
+        assertEquals(FloatStorageHeader.HEADER_SIZE + count * Float.BYTES, Files.size(file));
+    }
+
+    // append to a new storage, then reopen it to append more (beyond the allocated capacity)
+    protected final void testAppend(FloatChunkWriterFactory factory) throws IOException {
+        long count = 3000;
+        FloatProducer producer = createProducer(count);
+        Path file = testFile("append");
+        try (FloatChunkWriter writer = factory.create(file, 1000, ByteOrder.nativeOrder())) {
+            assertEquals(0, writer.append(floats(producer, 0, 1000)));
+            assertEquals(1000, writer.length());
+        }
+        checkStorage(file, ByteOrder.nativeOrder(), producer, 0, 1000);
+        try (FloatChunkWriter writer = factory.create(file, 0, ByteOrder.nativeOrder())) {
+            assertEquals(1000, writer.length());
+            assertEquals(1000, writer.capacity());
+            assertEquals(1000, writer.append(floats(producer, 1000, 1500)));
+            assertTrue(writer.capacity() >= 2500);
+            float[] src = floats(producer, 2500, 500);
+            assertEquals(2500, writer.append(src, 0, 200));
+            assertEquals(2700, writer.append(src, 200, 300));
+            // the header is updated by flush, so readers can see appended floats
+            writer.flush();
+            checkStorage(file, ByteOrder.nativeOrder(), producer, 0, count);
+        }
+        checkStorage(file, ByteOrder.nativeOrder(), producer, 0, count);
+        assertEquals(FloatStorageHeader.HEADER_SIZE + count * Float.BYTES, Files.size(file));
+        assertThrows(IllegalArgumentException.class, () -> factory.create(file, 0, swapped(ByteOrder.nativeOrder())).close());
+    }
+
+    // many threads writing disjoint ranges, and appending, at the same time
+    protected final void testConcurrentWrites(FloatChunkWriterFactory factory) throws Exception {
+        int chunkLength = 1000;
+        int chunks = 64;
+        long count = 2L * chunks * chunkLength;
+        FloatProducer producer = createProducer(count);
+        Path file = testFile("concurrent");
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        try (FloatChunkWriter writer = factory.create(file, count / 2, ByteOrder.nativeOrder())) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                long start = (long) chunk * chunkLength;
+                futures.add(executorService.submit(() -> {
+                    writer.write(floats(producer, start, chunkLength), start);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures)
+                future.get();
+            futures.clear();
+            // appended chunks are written where they are reserved, whatever the order of appends
+            float[] constants = new float[chunkLength];
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                futures.add(executorService.submit(() -> {
+                    long dstIndex = writer.append(constants);
+                    writer.write(floats(producer, dstIndex, chunkLength), dstIndex);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures)
+                future.get();
+            assertEquals(count, writer.length());
+        } finally {
+            executorService.shutdownNow();
+        }
+        checkStorage(file, ByteOrder.nativeOrder(), producer, 0, count);
+    }
+
+    // floats are written in the storage byte order
+    protected final void testByteOrders(FloatChunkWriterFactory factory) throws IOException {
+        long count = 1000;
+        FloatProducer producer = createProducer(count);
+        for (ByteOrder byteOrder : new ByteOrder[]{ByteOrder.LITTLE_ENDIAN, ByteOrder.BIG_ENDIAN}) {
+            Path file = testFile("byte_order_" + byteOrder);
+            try (FloatChunkWriter writer = factory.create(file, count, byteOrder)) {
+                writer.write(floats(producer, 0, (int) count), 0);
+            }
+            checkStorage(file, byteOrder, producer, 0, count);
+        }
+    }
+
+    // closing twice has no effect
+    protected final void testCloseTwice(FloatChunkWriterFactory factory) throws IOException {
+        long count = 1000;
+        FloatProducer producer = createProducer(count);
+        Path file = testFile("close_twice");
+        FloatChunkWriter writer = factory.create(file, 2 * count, ByteOrder.nativeOrder());
+        writer.append(floats(producer, 0, (int) count));
+        writer.close();
+        writer.close();
+        checkStorage(file, ByteOrder.nativeOrder(), producer, 0, count);
+        assertEquals(FloatStorageHeader.HEADER_SIZE + count * Float.BYTES, Files.size(file));
+    }
+
+    // a failed construction deletes a created file, and restores the size of an existing file
+    protected final void testConstructionFailure(FloatChunkWriterFactory factory, FloatChunkWriterFactory failingFactory) throws IOException {
+        long count = 1000;
+        Path file = testFile("construction_failure");
+        assertThrows(IllegalArgumentException.class, () -> failingFactory.create(file, count, ByteOrder.nativeOrder()));
+        assertTrue(Files.notExists(file));
+
+        FloatProducer producer = createProducer(count);
+        try (FloatChunkWriter writer = factory.create(file, count, ByteOrder.nativeOrder())) {
+            writer.append(floats(producer, 0, (int) count));
+        }
+        long size = Files.size(file);
+        assertThrows(IllegalArgumentException.class, () -> failingFactory.create(file, 100 * count, ByteOrder.nativeOrder()));
+        assertEquals(size, Files.size(file));
+        checkStorage(file, ByteOrder.nativeOrder(), producer, 0, count);
+    }
+
+    private static Path testFile(String name) throws IOException {
+        Path file = Paths.get("target/test_writer_" + name + ".dat");
+        Files.deleteIfExists(file);
+        return file;
+    }
+
+    private static void checkStorage(Path file, ByteOrder byteOrder, FloatProducer producer, long start, long length) throws IOException {
+        try (FloatChunkReader reader = new FileChannelFloatChunkReader(file)) {
+            float[] floats = new float[(int) length];
+            reader.read(floats, start);
+            for (int i = 0; i < length; i++)
+                assertEquals(producer.produce(start + i), floats[i], "at index " + (start + i));
+        }
+        try (FileChannel fileChannel = FileChannel.open(file)) {
+            assertEquals(byteOrder, FloatStorageHeader.read(fileChannel).byteOrder());
+        }
+    }
+
+    private static float[] floats(FloatProducer producer, long start, int length) {
+        float[] floats = new float[length];
+        for (int i = 0; i < length; i++)
+            floats[i] = producer.produce(start + i);
+        return floats;
+    }
+
+    private static ByteOrder swapped(ByteOrder byteOrder) {
+        return byteOrder == ByteOrder.LITTLE_ENDIAN ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+    }
+}
@@ -6,9 +6,15 @@ import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
 import org.yah.benchmark.nio.BaseTest;
+import org.yah.benchmark.nio.reader.CompressedFloatChunkReader;
+import org.yah.benchmark.nio.reader.FloatChunkReader;
+import org.yah.benchmark.nio.storage.Compression;
+import org.yah.benchmark.nio.storage.ElementType;
+import org.yah.benchmark.nio.storage.FloatStorageHeader;
 import org.yah.benchmark.nio.writer.FloatStorageGenerator.FloatProducer;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.channels.FileChannel;
@@ -18,7 +24,10 @@ import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 import java.util.function.IntFunction;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
@@ -75,21 +84,152 @@ public class FloatStorageGeneratorTest extends BaseTest {
         checkFile(count, createProducer(count * 2));
     }
 
-    private void checkFile(long count, FloatProducer producer) throws IOException {
+    @Test
+    @Order(4)
+    void swappedOrderGenerate() throws IOException {
+        long count = 8005;
+        ByteOrder swapped = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+        IntFunction<FloatProducer> producerFactory = createProducerFactory(count * 2);
+        FloatStorageGenerator.generate(testFile, count, producerFactory, true, 4, swapped);
+        FloatStorageGenerator.generate(testFile, count, producerFactory, true, 4, swapped);
+        FloatStorageHeader header = checkFile(count * 2, createProducer(count * 2));
+        assertEquals(swapped, header.byteOrder());
+        assertEquals(ElementType.FLOAT32, header.elementType());
+        assertEquals(FloatStorageHeader.VERSION, header.version());
+    }
+
+    @Test
+    @Order(5)
+    void compressedGenerate() throws IOException {
+        long count = 8005;
+        FloatStorageGenerator.generateCompressed(testFile, count, createProducerFactory(count), 1000, 4);
+        try (FileChannel fileChannel = FileChannel.open(testFile, StandardOpenOption.READ)) {
+            FloatStorageHeader header = FloatStorageHeader.read(fileChannel);
+            assertEquals(Compression.XOR_SHUFFLE_DEFLATE, header.compression());
+            assertEquals(count, header.elementCount());
+            assertEquals(9, header.blockCount());
+            // last block index entry is the file end
+            ByteBuffer end = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            fileChannel.position(header.dataOffset() + header.blockCount() * Long.BYTES);
+            read(end, fileChannel);
+            assertEquals(fileChannel.size(), end.flip().getLong());
+        }
+        try (FloatChunkReader reader = new CompressedFloatChunkReader(testFile)) {
+            float[] dst = new float[(int) count];
+            reader.read(dst, 0);
+            FloatProducer producer = createProducer(count);
+            for (int i = 0; i < count; i++)
+                assertEquals(producer.produce(i), dst[i], "Invalid value at index " + i);
+        }
+    }
+
+    @Test
+    @Order(6)
+    void pipelinedGenerate() throws IOException {
+        // several chunks per producer
+        long count = 2_000_005;
+        IntFunction<FloatProducer> producerFactory = createProducerFactory(count * 2);
+        FloatStorageGenerator.generatePipelined(testFile, count, producerFactory, false, 3, 2);
+        checkFile(count, createProducer(count * 2));
+
+        ByteOrder swapped = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+        assertThrows(IllegalArgumentException.class, () -> FloatStorageGenerator.generatePipelined(testFile, count,
+                producerFactory, true, 3, 2, swapped, ElementType.FLOAT32, false));
+        FloatStorageGenerator.generatePipelined(testFile, count, producerFactory, true, 1, 3);
+        checkFile(count * 2, createProducer(count * 2));
+    }
+
+    @Test
+    @Order(7)
+    void pipelinedFailure() {
+        long count = 2_000_000;
+        IOException error = new IOException("producer failure");
+        IntFunction<FloatProducer> producerFactory = thread -> index -> {
+            if (index == count / 2)
+                throw new UncheckedIOException(error);
+            return index;
+        };
+        IOException thrown = assertThrows(IOException.class,
+                () -> FloatStorageGenerator.generatePipelined(testFile, count, producerFactory, false, 4, 2));
+        assertSame(error, thrown);
+    }
+
+    // failing before all tasks are submitted
+    @Test
+    @Order(7)
+    void pipelinedFirstChunkFailure() {
+        IOException error = new IOException("producer failure");
+        IntFunction<FloatProducer> producerFactory = thread -> index -> {
+            if (index == 0)
+                throw new UncheckedIOException(error);
+            return index;
+        };
+        for (int i = 0; i < 20; i++) {
+            IOException thrown = assertThrows(IOException.class,
+                    () -> FloatStorageGenerator.generatePipelined(testFile, 2_000_000, producerFactory, false, 8, 8));
+            assertSame(error, thrown);
+        }
+    }
+
+    @Test
+    @Order(7)
+    void pipelinedProducerFactoryFailure() {
+        IOException error = new IOException("producer factory failure");
+        IntFunction<FloatProducer> producerFactory = thread -> {
+            throw new UncheckedIOException(error);
+        };
+        for (int i = 0; i < 20; i++) {
+            IOException thrown = assertThrows(IOException.class,
+                    () -> FloatStorageGenerator.generatePipelined(testFile, 2_000_000, producerFactory, false, 8, 8));
+            assertSame(error, thrown);
+        }
+    }
+
+    @Test
+    @Order(8)
+    void bulkProducerGenerate() throws IOException {
+        long count = 300_005;
+        FloatProducer producer = createProducer(count);
+        // generation must only use the bulk method
+        IntFunction<FloatProducer> bulkOnly = unused -> new FloatProducer() {
+            @Override
+            public float produce(long index) {
+                throw new UnsupportedOperationException("scalar produce");
+            }
+
+            @Override
+            public void produce(long startIndex, float[] dst, int offset, int length) {
+                producer.produce(startIndex, dst, offset, length);
+            }
+        };
+        FloatStorageGenerator.generate(testFile, count, bulkOnly, false, 4);
+        checkFile(count, producer);
+        FloatStorageGenerator.generatePipelined(testFile, count, bulkOnly, false, 2, 1);
+        checkFile(count, producer);
+
+        // scalar producers are called for each index by the default bulk method
+        float[] dst = new float[10];
+        FloatProducer scalar = index -> index * 2;
+        scalar.produce(5, dst, 3, 4);
+        assertArrayEquals(new float[]{0, 0, 0, 10, 12, 14, 16, 0, 0, 0}, dst);
+    }
+
+    private FloatStorageHeader checkFile(long count, FloatProducer producer) throws IOException {
         assertTrue(Files.exists(testFile), "file not generated");
-        assertEquals(count * Float.BYTES, Files.size(testFile));
         final int chunkSize = 1024 * 1024;
-        ByteBuffer stagingBuffer = ByteBuffer.allocate(chunkSize).order(ByteOrder.nativeOrder());
         try (FileChannel fileChannel = FileChannel.open(testFile, StandardOpenOption.READ)) {
-            long floatCount = fileChannel.size() / Float.BYTES;
-            assertEquals(count, floatCount);
+            FloatStorageHeader header = FloatStorageHeader.read(fileChannel);
+            assertEquals(count, header.elementCount());
+            assertEquals(header.endPosition(), fileChannel.size());
+            ByteBuffer stagingBuffer = ByteBuffer.allocate(chunkSize).order(header.byteOrder());
+            fileChannel.position(header.dataOffset());
             stagingBuffer.position(stagingBuffer.limit());
             for (long i = 0; i < count; i++) {
                 if (!stagingBuffer.hasRemaining()) {
                     // refuel
                     stagingBuffer.clear();
                     long remaining = count - i;
-                    if (remaining < chunkSize)
+                    if (remaining * Float.BYTES < chunkSize)
                         stagingBuffer.limit((int) remaining * Float.BYTES);
                     read(stagingBuffer, fileChannel);
                     stagingBuffer.flip();
@@ -98,6 +238,7 @@ public class FloatStorageGeneratorTest extends BaseTest {
                 float expected = producer.produce(i);
                 assertEquals(expected, actual, "Invalid value at index " + i);
             }
+            return header;
         }
     }
 
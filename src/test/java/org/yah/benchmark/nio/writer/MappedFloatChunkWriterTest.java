@@ -0,0 +1,33 @@
+package org.yah.benchmark.nio.writer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+class MappedFloatChunkWriterTest extends AbstractFloatChunkWriterTest {
+
+    @Test
+    void testWrite() throws IOException {
+        testWrite(MappedFloatChunkWriter::new);
+    }
+
+    @Test
+    void testAppend() throws IOException {
+        testAppend(MappedFloatChunkWriter::new);
+    }
+
+    @Test
+    void testConcurrentWrites() throws Exception {
+        testConcurrentWrites(MappedFloatChunkWriter::new);
+    }
+
+    @Test
+    void testByteOrders() throws IOException {
+        testByteOrders(MappedFloatChunkWriter::new);
+    }
+
+    @Test
+    void testCloseTwice() throws IOException {
+        testCloseTwice(MappedFloatChunkWriter::new);
+    }
+}
@@ -0,0 +1,40 @@
+package org.yah.benchmark.nio.writer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+class PositionalFloatChunkWriterTest extends AbstractFloatChunkWriterTest {
+
+    @Test
+    void testWrite() throws IOException {
+        testWrite((file, capacity, byteOrder) -> new PositionalFloatChunkWriter(file, capacity, byteOrder, 300));
+    }
+
+    @Test
+    void testAppend() throws IOException {
+        testAppend((file, capacity, byteOrder) -> new PositionalFloatChunkWriter(file, capacity, byteOrder, 300));
+    }
+
+    @Test
+    void testConcurrentWrites() throws Exception {
+        testConcurrentWrites((file, capacity, byteOrder) -> new PositionalFloatChunkWriter(file, capacity, byteOrder, 300));
+    }
+
+    @Test
+    void testByteOrders() throws IOException {
+        testByteOrders((file, capacity, byteOrder) -> new PositionalFloatChunkWriter(file, capacity, byteOrder, 300));
+    }
+
+    @Test
+    void testCloseTwice() throws IOException {
+        testCloseTwice((file, capacity, byteOrder) -> new PositionalFloatChunkWriter(file, capacity, byteOrder, 300));
+    }
+
+    // invalid staging capacity, checked once the file is allocated
+    @Test
+    void testConstructionFailure() throws IOException {
+        testConstructionFailure((file, capacity, byteOrder) -> new PositionalFloatChunkWriter(file, capacity, byteOrder, 300),
+                (file, capacity, byteOrder) -> new PositionalFloatChunkWriter(file, capacity, byteOrder, 0));
+    }
+}